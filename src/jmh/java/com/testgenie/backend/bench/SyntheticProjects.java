@@ -0,0 +1,128 @@
+package com.testgenie.backend.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Deterministic Java + Cucumber projects for benchmarks. The mix roughly follows a real test
+ * framework upload: mostly step definitions and page objects, a share of feature files and
+ * resources, and about one entry in ten that the upload filter is expected to skip.
+ */
+public final class SyntheticProjects {
+
+    private static final String[] SKIPPED = {
+            "target/classes/com/example/App.class", ".idea/workspace.xml", "node_modules/lib/index.js",
+            "build/libs/app.jar", "docs/screenshot.png", "logs/run.log"
+    };
+
+    private SyntheticProjects() {
+    }
+
+    // "small" (200 files), "10k" or "100k"
+    public static int fileCount(String size) {
+        return switch (size) {
+            case "small" -> 200;
+            case "10k" -> 10_000;
+            case "100k" -> 100_000;
+            default -> throw new IllegalArgumentException("Unknown project size: " + size);
+        };
+    }
+
+    // Relative paths of every entry, including the ones the upload filter skips
+    public static List<String> entryNames(int files) {
+        List<String> names = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            names.add(entryName(i));
+        }
+        return names;
+    }
+
+    // Archive with a single wrapping root folder, like most IDE and GitHub exports
+    public static Path createArchive(Path zipFile, int files) throws IOException {
+        Random random = new Random(files);
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+            for (int i = 0; i < files; i++) {
+                zip.putNextEntry(new ZipEntry("project/" + entryName(i)));
+                zip.write(content(i, random));
+                zip.closeEntry();
+            }
+        }
+        return zipFile;
+    }
+
+    // Same project as createArchive, already extracted and without the skipped entries
+    public static Path createProject(Path root, int files) throws IOException {
+        Random random = new Random(files);
+        for (int i = 0; i < files; i++) {
+            byte[] content = content(i, random);
+            if (i % 10 == 9) continue;
+
+            Path file = root.resolve(entryName(i));
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(content);
+            }
+        }
+        return root;
+    }
+
+    public static void delete(Path root) {
+        if (root == null || !Files.exists(root)) return;
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String entryName(int i) {
+        int module = i / 500;
+        int pkg = (i / 25) % 20;
+        return switch (i % 10) {
+            case 0, 1, 2, 3 -> "src/test/java/com/example/module" + module + "/steps" + pkg + "/Steps" + i + ".java";
+            case 4, 5 -> "src/test/java/com/example/module" + module + "/pages" + pkg + "/Page" + i + ".java";
+            case 6, 7 -> "src/test/resources/features/module" + module + "/area" + pkg + "/flow" + i + ".feature";
+            case 8 -> "src/test/resources/data/module" + module + "/data" + i + ".json";
+            default -> "module" + module + "/extra" + i + "/" + SKIPPED[i % SKIPPED.length];
+        };
+    }
+
+    private static byte[] content(int i, Random random) {
+        StringBuilder text = new StringBuilder();
+        int lines = 20 + random.nextInt(80);
+        if (i % 10 < 6) {
+            text.append("package com.example.module").append(i / 500).append(";\n\n")
+                    .append("import io.cucumber.java.en.*;\n\npublic class Type").append(i).append(" {\n");
+            for (int l = 0; l < lines; l++) {
+                text.append("    @Given(\"the user opens page ").append(l).append(" of {string}\")\n")
+                        .append("    public void openPage").append(l).append("(String name) { driver.get(name + \"")
+                        .append(random.nextInt(1000)).append("\"); }\n");
+            }
+            text.append("}\n");
+        } else {
+            text.append("Feature: Flow ").append(i).append("\n\n  Scenario: Scenario ").append(i).append("\n");
+            for (int l = 0; l < lines; l++) {
+                text.append("    When the user opens page ").append(l).append(" of \"home-")
+                        .append(random.nextInt(1000)).append("\"\n");
+            }
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+package com.testgenie.backend.controller;
+
+import com.testgenie.backend.bench.SyntheticProjects;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testgenie.backend.dto.FileNode;
+import com.testgenie.backend.dto.FileTreeView;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Allocation per operation: ./gradlew jmh -PjmhIncludes=FileTreeBenchmark -PjmhProfilers=gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileTreeBenchmark {
+
+    @Param({"small", "10k", "100k"})
+    public String size;
+
+    private Path projectDir;
+    private List<String> relativePaths;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Setup(Level.Trial)
+    public void createProject() throws IOException {
+        projectDir = SyntheticProjects.createProject(Files.createTempDirectory("bench-tree-"), SyntheticProjects.fileCount(size));
+        try (Stream<Path> paths = Files.walk(projectDir)) {
+            relativePaths = paths.filter(Files::isRegularFile)
+                    .map(path -> projectDir.relativize(path).toString().replace("\\", "/"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteProject() {
+        SyntheticProjects.delete(projectDir);
+    }
+
+    // Before FileTreeView: the whole FileNode graph, then Jackson walks it
+    @Benchmark
+    public void nodeGraph() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), buildTree("bench", relativePaths, new HashMap<>()));
+    }
+
+    @Benchmark
+    public void streamedNested() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), FileTreeView.of("bench", relativePaths, FileTreeView.Format.NESTED));
+    }
+
+    @Benchmark
+    public void streamedTable() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), FileTreeView.of("bench", relativePaths, FileTreeView.Format.TABLE));
+    }
+
+    // What the controller did before: folders created on the way down from each file's path
+    static FileNode buildTree(String projectName, List<String> relativePaths, Map<String, FileNode> nodes) {
+        FileNode root = new FileNode(projectName, "folder", projectName, new ArrayList<>());
+        nodes.put("", root);
+
+        for (String relativePath : relativePaths) {
+            String[] parts = relativePath.split("/");
+            StringBuilder currentPath = new StringBuilder();
+            FileNode currentNode = root;
+
+            for (int i = 0; i < parts.length; i++) {
+                if (i > 0) currentPath.append('/');
+                currentPath.append(parts[i]);
+                String key = currentPath.toString();
+
+                FileNode child = nodes.get(key);
+                if (child == null) {
+                    boolean isFile = i == parts.length - 1;
+                    child = new FileNode(parts[i], isFile ? "file" : "folder", projectName + "/" + key, new ArrayList<>());
+                    nodes.put(key, child);
+                    currentNode.children().add(child);
+                }
+                currentNode = child;
+            }
+        }
+        return root;
+    }
+}
@@ -0,0 +1,71 @@
+package com.testgenie.backend.controller;
+
+import com.testgenie.backend.bench.SyntheticProjects;
+import com.testgenie.backend.dto.ExtractionStatsDTO;
+import com.testgenie.backend.util.ProjectStatsCollector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+public class UploadBenchmark {
+
+    @Param({"small", "10k", "100k"})
+    public String size;
+
+    private Path archive;
+    private Path extractDir;
+    private List<String> entryNames;
+    private ExecutorService extractionExecutor;
+
+    @Setup(Level.Trial)
+    public void createArchive() throws IOException {
+        int files = SyntheticProjects.fileCount(size);
+        archive = SyntheticProjects.createArchive(Files.createTempFile("bench-", ".zip"), files);
+        entryNames = SyntheticProjects.entryNames(files);
+        extractionExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Setup(Level.Invocation)
+    public void createExtractDir() throws IOException {
+        extractDir = Files.createTempDirectory("bench-extract-");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteExtractDir() {
+        SyntheticProjects.delete(extractDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteArchive() throws IOException {
+        extractionExecutor.shutdownNow();
+        Files.deleteIfExists(archive);
+    }
+
+    // Whole archive per invocation, so single-shot timing with a few repetitions
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public ExtractionStatsDTO unzip() throws IOException {
+        return FileUploadController.unzip(archive, extractDir, reason -> { }, new ProjectStatsCollector(),
+                extractionExecutor, Runtime.getRuntime().availableProcessors(), Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void getSkipReason(Blackhole blackhole) {
+        for (String name : entryNames) {
+            blackhole.consume(FileUploadController.getSkipReason(name));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.index.StepDefinition;
+import com.testgenie.backend.index.StepDefinitionIndex;
+import com.testgenie.backend.service.StepDefinitionService.StepMatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PromptBenchmark {
+
+    // Described files and step definitions in the project; the selected contents stay within a 4k-token budget
+    @Param({"small", "10k", "100k"})
+    public String size;
+
+    private Map<String, String> descriptions;
+    private StepDefinitionIndex steps;
+    private List<StepMatch> stepMatches;
+    private Map<String, String> contents;
+    private String scenario;
+
+    @Setup(Level.Trial)
+    public void createInputs() {
+        int described = switch (size) {
+            case "small" -> 20;
+            case "10k" -> 500;
+            default -> 2000;
+        };
+
+        descriptions = new LinkedHashMap<>();
+        descriptions.put("", "Web UI test framework for the checkout flows.");
+        List<StepDefinition> definitions = new ArrayList<>();
+        for (int i = 0; i < described; i++) {
+            String path = "src/test/java/com/example/steps/Steps" + i + ".java";
+            descriptions.put(path, "Step definitions for checkout area " + i);
+            definitions.add(new StepDefinition("Given", "the user opens page " + i + " of {string}", false,
+                    "public void openPage" + i + "(String name)", path, 10 + i));
+        }
+        steps = new StepDefinitionIndex(definitions);
+
+        scenario = "Scenario: Checkout\n  Given the user opens page 1 of \"cart\"\n  When they pay\n  Then they see a receipt\n";
+        stepMatches = List.of(
+                new StepMatch("Given the user opens page 1 of \"cart\"", definitions.get(Math.min(1, definitions.size() - 1))),
+                new StepMatch("When they pay", null),
+                new StepMatch("Then they see a receipt", null));
+
+        contents = new LinkedHashMap<>();
+        String body = "    public void step() { driver.findElement(By.id(\"checkout\")).click(); }\n".repeat(40);
+        for (int i = 0; i < 5; i++) {
+            contents.put("src/test/java/com/example/pages/Page" + i + ".java", "public class Page" + i + " {\n" + body + "}\n");
+        }
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return GenerationContextService.buildPrompt(descriptions, steps, stepMatches, contents, scenario);
+    }
+}
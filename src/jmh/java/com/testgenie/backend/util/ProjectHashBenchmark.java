@@ -0,0 +1,49 @@
+package com.testgenie.backend.util;
+
+import com.testgenie.backend.bench.SyntheticProjects;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProjectHashBenchmark {
+
+    @Param({"small", "10k", "100k"})
+    public String size;
+
+    private final ProjectHashUtil projectHashUtil = new ProjectHashUtil();
+    private Path projectDir;
+    private Path archive;
+
+    @Setup(Level.Trial)
+    public void createProject() throws IOException {
+        int files = SyntheticProjects.fileCount(size);
+        projectDir = SyntheticProjects.createProject(Files.createTempDirectory("bench-hash-"), files);
+        archive = SyntheticProjects.createArchive(Files.createTempFile("bench-hash-", ".zip"), files);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteProject() throws IOException {
+        SyntheticProjects.delete(projectDir);
+        Files.deleteIfExists(archive);
+    }
+
+    @Benchmark
+    public String computeHash() throws IOException, NoSuchAlgorithmException {
+        return projectHashUtil.computeHash(projectDir);
+    }
+
+    @Benchmark
+    public String computeStreamHash() throws IOException, NoSuchAlgorithmException {
+        try (InputStream input = Files.newInputStream(archive)) {
+            return projectHashUtil.computeStreamHash(input);
+        }
+    }
+}
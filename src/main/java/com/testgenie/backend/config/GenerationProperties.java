@@ -0,0 +1,38 @@
+package com.testgenie.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "generation")
+public class GenerationProperties {
+    // Approximate number of LLM tokens the selected file contents may occupy in the prompt
+    private int contextTokenBudget = 4000;
+
+    // Semantic retrieval over the per-project vector index; 0 disables it
+    private int semanticTopK = 8;
+
+    // Upper bounds (in bytes) for the assembled-context and completed-generation caches
+    private long contextCacheMaxBytes = 64L * 1024 * 1024;
+    private long resultCacheMaxBytes = 16L * 1024 * 1024;
+
+    // Upper bounds (in bytes) for the per-project indexes kept in memory; the rest are read back from storage on use
+    private long contextIndexCacheMaxBytes = 128L * 1024 * 1024;
+    private long stepIndexCacheMaxBytes = 32L * 1024 * 1024;
+    private long vectorIndexCacheMaxBytes = 256L * 1024 * 1024;
+
+    // Scheduler: generations running at once, how many may wait, and how long one request may take end to end
+    private int maxConcurrent = 2;
+    private int queueCapacity = 16;
+    private Duration requestTimeout = Duration.ofMinutes(5);
+
+    // Batch generation: scenarios of one feature file in flight at once, and the most a single batch may contain
+    private int batchParallelism = 2;
+    private int batchMaxScenarios = 50;
+}
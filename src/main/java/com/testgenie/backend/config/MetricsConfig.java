@@ -0,0 +1,101 @@
+package com.testgenie.backend.config;
+
+import com.testgenie.backend.service.ChunkedUploadService;
+import com.testgenie.backend.service.GenerationCache;
+import com.testgenie.backend.service.GenerationScheduler;
+import com.testgenie.backend.service.ProjectChangeFeed;
+import com.testgenie.backend.service.ProjectLocks;
+import com.testgenie.backend.service.ScratchSpaceManager;
+import com.testgenie.backend.storage.MinioFileStorageService;
+import com.testgenie.backend.storage.TieredAsyncFileStorageService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MetricsConfig {
+
+    // State of the generation pipeline, sampled on every scrape; coalesced and rejected only ever grow
+    @Bean
+    public MeterBinder generationPipelineMetrics(GenerationScheduler scheduler, GenerationCache cache) {
+        return registry -> {
+            Gauge.builder("testgenie.generation.running", scheduler, s -> s.stats().running()).register(registry);
+            Gauge.builder("testgenie.generation.queued", scheduler, s -> s.stats().queued()).register(registry);
+            FunctionCounter.builder("testgenie.generation.coalesced", scheduler, s -> s.stats().coalesced())
+                    .register(registry);
+            FunctionCounter.builder("testgenie.generation.rejected", scheduler, s -> s.stats().rejected())
+                    .register(registry);
+
+            Gauge.builder("testgenie.cache.hit.ratio", cache, c -> c.contextStats().hitRate())
+                    .tag("cache", "context").register(registry);
+            Gauge.builder("testgenie.cache.hit.ratio", cache, c -> c.resultStats().hitRate())
+                    .tag("cache", "result").register(registry);
+            Gauge.builder("testgenie.cache.weight", cache, c -> c.contextStats().weight())
+                    .tag("cache", "context").baseUnit("bytes").register(registry);
+            Gauge.builder("testgenie.cache.weight", cache, c -> c.resultStats().weight())
+                    .tag("cache", "result").baseUnit("bytes").register(registry);
+        };
+    }
+
+    // Projects with an upload holding or waiting for their write lock
+    @Bean
+    public MeterBinder uploadLockMetrics(ProjectLocks projectLocks) {
+        return registry -> Gauge.builder("testgenie.upload.locked.projects", projectLocks, ProjectLocks::activeProjects)
+                .register(registry);
+    }
+
+    // Chunked uploads started and not yet completed, aborted or expired
+    @Bean
+    public MeterBinder chunkedUploadMetrics(ChunkedUploadService chunkedUploads) {
+        return registry -> Gauge.builder("testgenie.upload.chunked.sessions", chunkedUploads, ChunkedUploadService::activeUploads)
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder scratchSpaceMetrics(ScratchSpaceManager scratch) {
+        return registry -> {
+            Gauge.builder("testgenie.scratch.reserved", scratch, ScratchSpaceManager::reservedBytes)
+                    .baseUnit("bytes").register(registry);
+            Gauge.builder("testgenie.scratch.jobs", scratch, ScratchSpaceManager::activeJobs).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder storageCacheMetrics(TieredAsyncFileStorageService storageCache) {
+        return registry -> {
+            Gauge.builder("testgenie.cache.hit.ratio", storageCache, c -> c.stats().hitRate())
+                    .tag("cache", "storage").register(registry);
+            Gauge.builder("testgenie.cache.weight", storageCache, c -> c.stats().weight())
+                    .tag("cache", "storage").baseUnit("bytes").register(registry);
+        };
+    }
+
+    // Prefixes marked for background deletion and objects removed so far
+    @Bean
+    public MeterBinder storageGcMetrics(MinioFileStorageService minio) {
+        return registry -> {
+            Gauge.builder("testgenie.storage.gc.pending", minio, MinioFileStorageService::pendingGarbage).register(registry);
+            FunctionCounter.builder("testgenie.storage.gc.deleted", minio, MinioFileStorageService::collectedObjects)
+                    .register(registry);
+        };
+    }
+
+    // Open /api/changes streams
+    @Bean
+    public MeterBinder changeFeedMetrics(ProjectChangeFeed changeFeed) {
+        return registry -> Gauge.builder("testgenie.changes.subscribers", changeFeed, ProjectChangeFeed::subscriberCount)
+                .register(registry);
+    }
+
+    // Time from JVM start to the first completed request (application.ready.time covers the part before it)
+    @Bean
+    public MeterBinder startupMetrics(StartupTimings startupTimings) {
+        return registry -> TimeGauge.builder("testgenie.startup.first.request", startupTimings, TimeUnit.MILLISECONDS,
+                StartupTimings::firstRequestMillis).register(registry);
+    }
+}
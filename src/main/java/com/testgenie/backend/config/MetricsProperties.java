@@ -0,0 +1,15 @@
+package com.testgenie.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "metrics")
+public class MetricsProperties {
+    // Distinct project names that get their own "project" tag; later ones are reported as "other"
+    private int projectTagLimit = 20;
+}
@@ -4,28 +4,49 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
 
 import java.net.URI;
+import java.time.Duration;
 
 @Configuration
 public class MinioConfig {
 
     @Bean
-    public S3Client s3Client() {
+    public S3Client s3Client(MinioProperties properties) {
         return S3Client.builder()
-                .endpointOverride(URI.create("http://localhost:9000")) // MinIO URL
+                .endpointOverride(URI.create(properties.getEndpoint())) // MinIO URL
                 .credentialsProvider(
                         StaticCredentialsProvider.create(
-                                AwsBasicCredentials.create("minioadmin", "minioadmin")
+                                AwsBasicCredentials.create(properties.getAccessKey(), properties.getSecretKey())
                         )
                 )
-                .region(Region.US_EAST_1)
+                .region(Region.of(properties.getRegion()))
                 .serviceConfiguration(S3Configuration.builder()
                         .pathStyleAccessEnabled(true) // Required for MinIO
                         .build())
                 .build();
     }
-}
\ No newline at end of file
+
+    // Non-blocking client for AsyncFileStorageService; requests beyond max-connections wait for a free connection
+    @Bean(destroyMethod = "close")
+    public S3AsyncClient s3AsyncClient(MinioProperties properties) {
+        return S3AsyncClient.builder()
+                .endpointOverride(URI.create(properties.getEndpoint()))
+                .credentialsProvider(
+                        StaticCredentialsProvider.create(
+                                AwsBasicCredentials.create(properties.getAccessKey(), properties.getSecretKey())
+                        )
+                )
+                .region(Region.of(properties.getRegion()))
+                .forcePathStyle(true) // Required for MinIO
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(properties.getMaxConnections())
+                        .connectionAcquisitionTimeout(Duration.ofSeconds(60)))
+                .build();
+    }
+}
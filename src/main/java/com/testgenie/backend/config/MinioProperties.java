@@ -0,0 +1,20 @@
+package com.testgenie.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "minio")
+public class MinioProperties {
+    private String endpoint = "http://localhost:9000";
+    private String accessKey = "minioadmin";
+    private String secretKey = "minioadmin";
+    private String region = "us-east-1";
+
+    // Connection pool of the async client, shared by every request in flight
+    private int maxConnections = 64;
+}
@@ -0,0 +1,27 @@
+package com.testgenie.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+
+@Configuration
+public class OllamaConfig {
+
+    // One shared JDK HttpClient keeps a pool of keep-alive connections to Ollama.
+    // Closing a streamed response body aborts the exchange instead of draining it,
+    // so a disconnected client stops Ollama's generation rather than waiting for it to finish.
+    @Bean
+    public RestTemplate ollamaRestTemplate(OllamaProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+        return new RestTemplate(requestFactory);
+    }
+}
@@ -0,0 +1,21 @@
+package com.testgenie.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "ollama")
+public class OllamaProperties {
+    private String baseUrl = "http://localhost:11434";
+    private String model = "llama3";
+    private String embeddingModel = "nomic-embed-text";
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    // Longest silence tolerated between bytes of a response; streamed generations reset it with every token
+    private Duration readTimeout = Duration.ofMinutes(5);
+}
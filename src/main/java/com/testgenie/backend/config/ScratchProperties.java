@@ -0,0 +1,30 @@
+package com.testgenie.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "scratch")
+public class ScratchProperties {
+
+    // Where per-job working directories (downloaded archives, extracted trees) are created
+    private Path baseDir = Path.of(System.getProperty("java.io.tmpdir"), "testgenie-scratch");
+
+    // Upper bound on scratch space reserved by all jobs together; new jobs are refused beyond it
+    private DataSize quota = DataSize.ofGigabytes(2);
+
+    // Optional RAM-backed directory (e.g. /dev/shm/testgenie) for jobs whose archive is small enough
+    private Path ramDir;
+
+    private DataSize ramThreshold = DataSize.ofMegabytes(8);
+
+    // Share of the quota that may live in ramDir at once
+    private DataSize ramQuota = DataSize.ofMegabytes(256);
+}
@@ -0,0 +1,65 @@
+package com.testgenie.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports how long this instance took to become useful, measured from JVM start so class loading
+ * counts too: once when the application is ready, and once when the first request has been served.
+ * Comparing runs with and without the AOT/CDS build (see build.gradle) shows what they save;
+ * {@code testgenie.startup.first.request} exports the second number.
+ */
+@Component
+public class StartupTimings extends OncePerRequestFilter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimings.class);
+
+    // JVM uptime when the first response was complete; -1 until then
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("🚀 Ready {}ms after JVM start (Spring Boot: {}ms, AOT: {}, CDS: {})",
+                ManagementFactory.getRuntimeMXBean().getUptime(), event.getTimeTaken().toMillis(),
+                AotDetector.useGeneratedArtifacts() ? "on" : "off", usesSharedArchive() ? "on" : "off");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (firstRequestMillis.get() < 0) {
+                long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+                if (firstRequestMillis.compareAndSet(-1, uptime)) {
+                    log.info("⏱️ First request ({} {}) served {}ms after JVM start", request.getMethod(), request.getRequestURI(), uptime);
+                }
+            }
+        }
+    }
+
+    public double firstRequestMillis() {
+        long millis = firstRequestMillis.get();
+        return millis < 0 ? Double.NaN : millis;
+    }
+
+    private static boolean usesSharedArchive() {
+        List<String> jvmArgs = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        return jvmArgs.stream().anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile") || arg.startsWith("-XX:+AutoCreateSharedArchive"));
+    }
+}
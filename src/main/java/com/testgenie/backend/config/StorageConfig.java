@@ -0,0 +1,35 @@
+package com.testgenie.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Object-store calls are latency-bound, so a batch of them (puts, reads, deletes) is issued concurrently
+@Configuration
+public class StorageConfig {
+
+    @Bean("storageExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor platformStorageExecutor(StorageProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getIoConcurrency());
+        executor.setMaxPoolSize(properties.getIoConcurrency());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("storage-io-");
+        return executor;
+    }
+
+    // spring.threads.virtual.enabled=true: one virtual thread per call, still capped so MinIO isn't flooded
+    @Bean("storageExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualStorageExecutor(StorageProperties properties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("storage-io-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(properties.getIoConcurrency());
+        return executor;
+    }
+}
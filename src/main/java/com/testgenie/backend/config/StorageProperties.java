@@ -4,6 +4,10 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
 
 @Getter
 @Setter
@@ -11,4 +15,42 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "storage")
 public class StorageProperties {
     private String basePath;
+
+    // Storage calls in flight at once when fanning out puts, reads and deletes for one request
+    private int ioConcurrency = 16;
+
+    // How long a replaced project generation stays readable for requests that resolved it just before the swap
+    private Duration generationGrace = Duration.ofSeconds(30);
+
+    // How long an instance trusts its cached copy of a project's generation pointer before reading it again.
+    // Keep it well under generation-grace so other instances move to a new generation before the old one is deleted
+    private Duration pointerTtl = Duration.ofSeconds(5);
+
+    // Gzip project sources in object storage (Content-Encoding: gzip); objects are decoded on read
+    private boolean compression = true;
+
+    // Files smaller than this are stored as is: the gzip header and the extra work outweigh the saving
+    private DataSize compressionMinSize = DataSize.ofKilobytes(1);
+
+    // Read-through cache of project files on local disk in front of the object store, keyed by project and generation
+    private boolean cacheEnabled = true;
+
+    private Path cacheDir = Path.of(System.getProperty("java.io.tmpdir"), "testgenie-cache");
+
+    // Least recently read files are deleted once the cache holds more than this
+    private DataSize cacheMaxSize = DataSize.ofGigabytes(4);
+
+    // Heap held by cached project file listings; least recently used ones are dropped beyond this
+    private DataSize cacheListingsMaxSize = DataSize.ofMegabytes(64);
+
+    // Background collection of replaced and deleted project data: how often storage is swept for leftovers
+    // (e.g. after a restart lost the in-memory queue), and how old an uncommitted generation must be to count as one
+    private Duration gcInterval = Duration.ofMinutes(10);
+
+    private Duration gcOrphanAge = Duration.ofHours(1);
+
+    // DeleteObjects requests (up to 1000 keys each) in flight, and started per second, by the collector
+    private int gcParallelism = 4;
+
+    private int gcBatchesPerSecond = 20;
 }
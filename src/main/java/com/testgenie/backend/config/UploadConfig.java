@@ -0,0 +1,21 @@
+package com.testgenie.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Inflating archives is CPU-bound, so every upload in progress shares one pool sized to the cores instead of
+// bringing its own threads
+@Configuration
+public class UploadConfig {
+
+    @Bean("extractionExecutor")
+    public ThreadPoolTaskExecutor extractionExecutor(UploadProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getExtractionThreads());
+        executor.setMaxPoolSize(properties.getExtractionThreads());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("unzip-");
+        return executor;
+    }
+}
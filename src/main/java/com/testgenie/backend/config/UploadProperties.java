@@ -0,0 +1,28 @@
+package com.testgenie.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "upload")
+public class UploadProperties {
+
+    // Size of every part of a chunked upload except the last; S3 requires at least 5MB
+    private DataSize partSize = DataSize.ofMegabytes(8);
+
+    // Largest archive accepted through chunked uploads (plain multipart uploads stay capped by spring.servlet.multipart)
+    private DataSize maxArchiveSize = DataSize.ofGigabytes(2);
+
+    // A chunked upload with no part received for this long is aborted and has to start over
+    private Duration sessionTtl = Duration.ofHours(1);
+
+    // Threads inflating archive entries, shared by all uploads being extracted at once
+    private int extractionThreads = Runtime.getRuntime().availableProcessors();
+}
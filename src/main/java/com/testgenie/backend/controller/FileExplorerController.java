@@ -1,153 +1,131 @@
 package com.testgenie.backend.controller;
 
-import com.testgenie.backend.dto.FileNode;
-import com.testgenie.backend.service.FileStorageService;
-import com.testgenie.backend.storage.MinioFileStorageService;
+import com.testgenie.backend.dto.FileTreeView;
+import com.testgenie.backend.service.AsyncFileStorageService;
+import com.testgenie.backend.service.BackendMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import software.amazon.awssdk.core.ResponseInputStream;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
-import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
-import software.amazon.awssdk.services.s3.model.S3Object;
 
-import java.io.File;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
+// Handlers return futures: the servlet thread is released while storage answers
 @RestController
 @RequestMapping("/api/files")
 public class FileExplorerController {
 
-    private final FileStorageService fileStorageService;
+    private static final Logger logger = LoggerFactory.getLogger(FileExplorerController.class);
 
-    public FileExplorerController(FileStorageService fileStorageService) {
-        this.fileStorageService = fileStorageService;
+    private final AsyncFileStorageService asyncFileStorageService;
+    private final BackendMetrics metrics;
+
+    public FileExplorerController(AsyncFileStorageService asyncFileStorageService, BackendMetrics metrics) {
+        this.asyncFileStorageService = asyncFileStorageService;
+        this.metrics = metrics;
     }
 
+    // Written to the response as it is serialized (see FileTreeView); format=table sends the compact path table
     @GetMapping("/tree")
-    public ResponseEntity<?> getFileTree(@RequestParam("project") String projectName) {
+    public CompletableFuture<ResponseEntity<?>> getFileTree(@RequestParam("project") String projectName,
+                                                            @RequestParam(defaultValue = "nested") String format) {
+        FileTreeView.Format treeFormat;
         try {
-            if (fileStorageService instanceof MinioFileStorageService minio) {
-                // MinIO-specific logic
-                String prefix = "projects/" + projectName + "/";
-                ListObjectsV2Response response = minio.getS3Client().listObjectsV2(builder -> builder
-                        .bucket(minio.getBucketName())
-                        .prefix(prefix)
-                        .build());
-
-                FileNode root = new FileNode(projectName, "folder", projectName, new ArrayList<>());
-                Map<String, FileNode> pathMap = new HashMap<>();
-                pathMap.put(prefix, root);
-
-                for (S3Object obj : response.contents()) {
-                    String key = obj.key();
-                    if (key.endsWith("/")) continue;
-
-                    String relativeKey = key.substring(prefix.length());
-                    String[] parts = relativeKey.split("/");
-                    StringBuilder currentPath = new StringBuilder();
-                    FileNode currentNode = root;
-
-                    for (int i = 0; i < parts.length; i++) {
-                        currentPath.append(parts[i]);
-                        String fullPath = prefix + currentPath;
-
-                        boolean isFile = (i == parts.length - 1);
-                        if (!pathMap.containsKey(fullPath)) {
-                            FileNode child = new FileNode(parts[i], isFile ? "file" : "folder",
-                                    projectName + "/" + currentPath, new ArrayList<>());
-                            pathMap.put(fullPath, child);
-                            currentNode.children().add(child);
-                        }
+            treeFormat = FileTreeView.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("Unknown tree format: " + format));
+        }
 
-                        currentNode = pathMap.get(fullPath);
-                        currentPath.append("/");
+        Timer.Sample sample = metrics.start();
+        return asyncFileStorageService.listProjectFiles(projectName)
+                .<ResponseEntity<?>>thenApply(paths -> {
+                    if (paths.isEmpty()) {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Project not found.");
                     }
-                }
-
-                return ResponseEntity.ok(root);
-            } else {
-                // Local logic
-                Path projectDir = fileStorageService.getProjectPath(projectName);
-                if (!Files.exists(projectDir)) {
-                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Project not found.");
-                }
-                FileNode root = buildFileTree(projectDir.toFile(), projectName);
-                return ResponseEntity.ok(root);
-            }
-
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error listing files.");
-        }
+                    FileTreeView tree = FileTreeView.of(projectName, paths, treeFormat);
+                    metrics.recordExplorerTree(sample, projectName, tree.nodeCount());
+                    return ResponseEntity.ok(tree);
+                })
+                .exceptionally(error -> {
+                    logger.error("Listing files failed for project '{}'", projectName, error);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error listing files.");
+                });
     }
 
+    // Sources stored gzipped go out as they are to clients that accept gzip, and are decoded for the rest
     @GetMapping("/content")
-    public ResponseEntity<?> getFileContent(@RequestParam String path, @RequestParam String project) {
-        try {
-            String decodedPath = URLDecoder.decode(path, StandardCharsets.UTF_8);
-            Path filePath = Path.of(decodedPath).normalize();
-
-            if (fileStorageService instanceof MinioFileStorageService minio) {
-                String key = "projects/" + filePath.toString().replace("\\", "/");
-
-                GetObjectRequest request = GetObjectRequest.builder()
-                        .bucket(minio.getBucketName())
-                        .key(key)
-                        .build();
-
-                try (ResponseInputStream<GetObjectResponse> s3Object = minio.getS3Client().getObject(request)) {
-                    String content = new String(s3Object.readAllBytes(), StandardCharsets.UTF_8);
-                    return ResponseEntity.ok(content);
-                }
-            } else {
-                // Fallback: Local file read
-                Path basePath = fileStorageService.getBaseDir();
-                Path resolved = basePath.resolve(decodedPath).normalize();
-
-                if (!resolved.startsWith(basePath)) {
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied.");
-                }
-
-                if (!Files.exists(resolved) || Files.isDirectory(resolved)) {
-                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body("File not found or is a directory.");
-                }
+    public CompletableFuture<ResponseEntity<?>> getFileContent(@RequestParam String path, @RequestParam String project,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Timer.Sample sample = metrics.start();
+
+        // The explorer sends paths as "<project>/<path inside the project>"
+        String decodedPath = URLDecoder.decode(path, StandardCharsets.UTF_8).replace("\\", "/");
+        if (!decodedPath.startsWith(project + "/")) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied."));
+        }
+        String relativePath = decodedPath.substring(project.length() + 1);
 
-                String content = Files.readString(resolved);
-                return ResponseEntity.ok(content);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error reading file content.");
+        if (!acceptsGzip(acceptEncoding)) {
+            return asyncFileStorageService.readProjectFile(project, relativePath)
+                    .<ResponseEntity<?>>thenApply(content -> {
+                        if (content.isEmpty()) {
+                            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("File not found or is a directory.");
+                        }
+                        metrics.recordExplorerContent(sample, project, content.get().length);
+                        return ResponseEntity.ok(new String(content.get(), StandardCharsets.UTF_8));
+                    })
+                    .exceptionally(error -> contentFailed(decodedPath, error));
         }
-    }
 
+        return asyncFileStorageService.readStoredProjectFile(project, relativePath)
+                .<ResponseEntity<?>>thenApply(stored -> {
+                    if (stored.isEmpty()) {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("File not found or is a directory.");
+                    }
+                    AsyncFileStorageService.StoredContent content = stored.get();
+                    metrics.recordExplorerContent(sample, project, content.content().length);
+                    if (content.encoding() == null) {
+                        return ResponseEntity.ok(new String(content.content(), StandardCharsets.UTF_8));
+                    }
+                    return ResponseEntity.ok()
+                            .header(HttpHeaders.CONTENT_ENCODING, content.encoding())
+                            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                            .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                            .body(content.content());
+                })
+                .exceptionally(error -> contentFailed(decodedPath, error));
+    }
 
-    // ✅ For local usage only
-    private FileNode buildFileTree(File file, String relativePath) {
-        String type = file.isDirectory() ? "folder" : "file";
-        List<FileNode> children = new ArrayList<>();
+    private static ResponseEntity<?> contentFailed(String path, Throwable error) {
+        logger.error("Reading '{}' failed", path, error);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error reading file content.");
+    }
 
-        if (file.isDirectory()) {
-            File[] listed = file.listFiles();
-            if (listed != null) {
-                for (File child : listed) {
-                    String childPath = relativePath + "/" + child.getName();
-                    children.add(buildFileTree(child, childPath));
-                }
+    // "gzip" listed without q=0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+                if (param.matches("q=0(\\.0*)?")) return false;
             }
+            return true;
         }
-
-        return new FileNode(file.getName(), type, relativePath, children.isEmpty() ? null : children);
+        return false;
     }
 }
@@ -1,16 +1,36 @@
 package com.testgenie.backend.controller;
 
+import com.testgenie.backend.config.UploadProperties;
+import com.testgenie.backend.dto.ChunkedUploadDTO;
 import com.testgenie.backend.dto.ExtractionStatsDTO;
+import com.testgenie.backend.dto.ProjectStatsDTO;
 import com.testgenie.backend.dto.UploadResponseDTO;
 import com.testgenie.backend.entity.ProjectMetadata;
+import com.testgenie.backend.service.AsyncFileStorageService;
+import com.testgenie.backend.service.BackendMetrics;
+import com.testgenie.backend.service.ChunkedUploadService;
+import com.testgenie.backend.service.ContextIndexService;
 import com.testgenie.backend.service.FileStorageService;
+import com.testgenie.backend.service.InvalidArchiveException;
+import com.testgenie.backend.service.ProjectLocks;
 import com.testgenie.backend.service.ProjectMetadataService;
+import com.testgenie.backend.service.ScratchQuotaExceededException;
+import com.testgenie.backend.service.ScratchSpaceManager;
+import com.testgenie.backend.service.StepDefinitionService;
+import com.testgenie.backend.service.UploadNotFoundException;
+import com.testgenie.backend.service.UploadNotReadyException;
+import com.testgenie.backend.service.VectorIndexService;
 import com.testgenie.backend.util.ProjectHashUtil;
+import com.testgenie.backend.util.ProjectStatsCollector;
+import com.testgenie.backend.util.ZipExtractor;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -21,9 +41,11 @@ import java.io.*;
 import java.nio.file.*;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 @RestController
 @RequestMapping("/api")
@@ -32,17 +54,47 @@ import java.util.zip.ZipInputStream;
 public class FileUploadController {
 
     private final FileStorageService fileStorageService;
+    private final AsyncFileStorageService asyncFileStorageService;
     private final ProjectMetadataService projectMetadataService;
+    private final ProjectLocks projectLocks;
+    private final ScratchSpaceManager scratchSpaceManager;
+    private final ChunkedUploadService chunkedUploadService;
     private final ProjectHashUtil projectHashUtil;
+    private final ContextIndexService contextIndexService;
+    private final VectorIndexService vectorIndexService;
+    private final StepDefinitionService stepDefinitionService;
+    private final BackendMetrics metrics;
+    private final Executor extractionExecutor;
+    private final int extractionThreads;
 
     private static final Logger logger = LoggerFactory.getLogger(FileUploadController.class);
 
     public FileUploadController(FileStorageService fileStorageService,
+                                AsyncFileStorageService asyncFileStorageService,
                                 ProjectMetadataService projectMetadataService,
-                                ProjectHashUtil projectHashUtil) {
+                                ProjectLocks projectLocks,
+                                ScratchSpaceManager scratchSpaceManager,
+                                ChunkedUploadService chunkedUploadService,
+                                ProjectHashUtil projectHashUtil,
+                                ContextIndexService contextIndexService,
+                                VectorIndexService vectorIndexService,
+                                StepDefinitionService stepDefinitionService,
+                                BackendMetrics metrics,
+                                UploadProperties uploadProperties,
+                                @Qualifier("extractionExecutor") Executor extractionExecutor) {
         this.fileStorageService = fileStorageService;
+        this.asyncFileStorageService = asyncFileStorageService;
         this.projectMetadataService = projectMetadataService;
+        this.projectLocks = projectLocks;
+        this.scratchSpaceManager = scratchSpaceManager;
+        this.chunkedUploadService = chunkedUploadService;
         this.projectHashUtil = projectHashUtil;
+        this.contextIndexService = contextIndexService;
+        this.vectorIndexService = vectorIndexService;
+        this.stepDefinitionService = stepDefinitionService;
+        this.metrics = metrics;
+        this.extractionExecutor = extractionExecutor;
+        this.extractionThreads = uploadProperties.getExtractionThreads();
     }
 
     @Operation(summary = "Upload ZIP file(s) and extract project")
@@ -52,69 +104,256 @@ public class FileUploadController {
             @RequestParam("files") List<MultipartFile> files) {
         try {
             for (MultipartFile file : files) {
-                Path savedPath = fileStorageService.saveZipFile(file);
-                String safeFileName = savedPath.getFileName().toString();
+                String safeFileName = sanitizeFileName(file.getOriginalFilename());
 
                 if (!safeFileName.toLowerCase().endsWith(".zip")) {
                     continue;
                 }
 
-                Path localZipFile = fileStorageService.downloadZipToTemp(savedPath);
-
                 String projectName = safeFileName.substring(0, safeFileName.lastIndexOf('.'));
-                Path tempExtractDir = Files.createTempDirectory("extract-");
 
-                // Flattening: extract and detect root folder
-                ExtractionStatsDTO stats = unzip(localZipFile, tempExtractDir);
+                // Fast path: a byte-identical archive needs no storage round-trip, extraction or tree hashing
+                Timer.Sample phase = metrics.start();
+                String archiveHash;
+                try (InputStream archiveStream = file.getInputStream()) {
+                    archiveHash = projectHashUtil.computeStreamHash(archiveStream);
+                }
+                metrics.recordUploadPhase(phase, "archive_hash", projectName);
+
+                // Archive copy and extracted tree live in a job directory that is removed however the upload ends
+                try (ScratchSpaceManager.Job job = scratchSpaceManager.open("upload-" + projectName, file.getSize());
+                     ProjectLocks.Held ignored = lockProject(projectName)) {
+                    return ingest(projectName, file.getSize(), archiveHash, job, () -> {
+                        Timer.Sample store = metrics.start();
+                        Path savedPath = fileStorageService.saveZipFile(file);
+                        Path localZipFile = fileStorageService.downloadZip(savedPath, job.newFile("archive-", ".zip"));
+                        metrics.recordUploadPhase(store, "store_archive", projectName);
+                        return localZipFile;
+                    });
+                }
+            }
 
-                // If the zip has one root folder, flatten it
-                Path contentRoot = flattenIfWrappedInSingleFolder(tempExtractDir);
+            return ResponseEntity.badRequest().body("No valid ZIP files to upload.");
+        } catch (InvalidArchiveException e) {
+            return invalidArchive(e);
+        } catch (ScratchQuotaExceededException e) {
+            return scratchExhausted(e);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.error("Upload failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Upload or extraction failed.");
+        }
+    }
 
-                long fileCount = Files.walk(contentRoot).filter(Files::isRegularFile).count();
-                System.out.println("📂 Extracted file count: " + fileCount);
+    @Operation(summary = "Start a resumable chunked ZIP upload")
+    @PostMapping("/uploads")
+    public ResponseEntity<?> initiateChunkedUpload(@RequestParam("fileName") String fileName,
+                                                   @RequestParam("size") long size) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(chunkedUploadService.initiate(sanitizeFileName(fileName), size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            logger.error("Starting chunked upload of '{}' failed", fileName, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Could not start upload.");
+        }
+    }
 
-                if (fileCount == 0) {
-                    return ResponseEntity.badRequest().body("No valid files found inside the ZIP.");
-                }
+    // Raw part bytes as the request body; parts can be sent concurrently and re-sent after a failure
+    @Operation(summary = "Upload one part of a chunked ZIP upload")
+    @PutMapping(value = "/uploads/{uploadId}/parts/{partNumber}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> uploadPart(@PathVariable String uploadId, @PathVariable int partNumber,
+                                        HttpServletRequest request) {
+        try (InputStream body = request.getInputStream()) {
+            return ResponseEntity.ok(chunkedUploadService.putPart(uploadId, partNumber, body, request.getContentLengthLong()));
+        } catch (UploadNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            logger.warn("Part {} of upload {} failed", partNumber, uploadId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Part upload failed, send it again.");
+        }
+    }
 
-                long totalSize = Files.walk(contentRoot)
-                        .filter(Files::isRegularFile)
-                        .mapToLong(p -> {
-                            try {
-                                return Files.size(p);
-                            } catch (IOException e) {
-                                return 0L;
-                            }
-                        }).sum();
-
-                String hash = projectHashUtil.computeHash(contentRoot);
-
-                Optional<ProjectMetadata> existingOpt = projectMetadataService.findByProjectName(projectName);
-                if (existingOpt.isPresent()) {
-                    ProjectMetadata existing = existingOpt.get();
-
-                    if (hash.equals(existing.getHash())) {
-                        return ResponseEntity.ok(new UploadResponseDTO("alreadyUploaded"));
-                    } else {
-                        fileStorageService.replaceProject(projectName, contentRoot);
-                        projectMetadataService.updateMetadata(projectName, stats.getExtracted(), totalSize, hash);
-                        return ResponseEntity.ok(new UploadResponseDTO("replaced"));
-                    }
-                }
+    // Lists the parts received so far, so an interrupted client knows which ones to send again
+    @Operation(summary = "Get the state of a chunked ZIP upload")
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> chunkedUploadStatus(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.status(uploadId));
+        } catch (UploadNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
 
-                fileStorageService.saveNewProject(projectName, contentRoot);
-                projectMetadataService.saveMetadata(projectName, stats.getExtracted(), totalSize, hash);
+    @Operation(summary = "Complete a chunked ZIP upload and extract the project")
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeChunkedUpload(@PathVariable String uploadId) {
+        try {
+            ChunkedUploadDTO upload = chunkedUploadService.status(uploadId);
+            String safeFileName = sanitizeFileName(upload.fileName());
+            String projectName = safeFileName.substring(0, safeFileName.lastIndexOf('.'));
+
+            // Scratch space first: if it is refused, the session stays open and completing can be retried.
+            // The lock covers assembling and downloading too, as they write and read the same zips/<name>.zip
+            // object as any other upload of this project
+            try (ScratchSpaceManager.Job job = scratchSpaceManager.open("upload-" + projectName, upload.totalSize());
+                 ProjectLocks.Held ignored = lockProject(projectName)) {
+                Timer.Sample phase = metrics.start();
+                Path storedPath = chunkedUploadService.complete(uploadId).storedPath();
+                Path localZipFile = fileStorageService.downloadZip(storedPath, job.newFile("archive-", ".zip"));
+                metrics.recordUploadPhase(phase, "store_archive", projectName);
+
+                phase = metrics.start();
+                String archiveHash;
+                try (InputStream archiveStream = Files.newInputStream(localZipFile)) {
+                    archiveHash = projectHashUtil.computeStreamHash(archiveStream);
+                }
+                metrics.recordUploadPhase(phase, "archive_hash", projectName);
 
-                return ResponseEntity.ok(new UploadResponseDTO(projectName, stats));
+                return ingest(projectName, upload.totalSize(), archiveHash, job, () -> localZipFile);
             }
-
-            return ResponseEntity.badRequest().body("No valid ZIP files to upload.");
+        } catch (UploadNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (UploadNotReadyException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (InvalidArchiveException e) {
+            return invalidArchive(e);
+        } catch (ScratchQuotaExceededException e) {
+            return scratchExhausted(e);
         } catch (IOException | NoSuchAlgorithmException e) {
-            logger.error("Upload failed", e);
+            logger.error("Completing upload {} failed", uploadId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Upload or extraction failed.");
         }
     }
 
+    @Operation(summary = "Abort a chunked ZIP upload")
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> abortChunkedUpload(@PathVariable String uploadId) {
+        try {
+            chunkedUploadService.abort(uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (UploadNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IOException e) {
+            logger.error("Aborting upload {} failed", uploadId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Could not abort upload.");
+        }
+    }
+
+    // Same-project uploads run one at a time; other projects are not held up
+    private ProjectLocks.Held lockProject(String projectName) {
+        Timer.Sample phase = metrics.start();
+        ProjectLocks.Held held = projectLocks.lock(projectName);
+        metrics.recordUploadPhase(phase, "lock_wait", projectName);
+        return held;
+    }
+
+    // Everything after the archive is in hand: unchanged check, extraction, storage and indexing.
+    // Callers hold the project's lock
+    private ResponseEntity<?> ingest(String projectName, long archiveSize, String archiveHash,
+                                     ScratchSpaceManager.Job job, ArchiveSource archive)
+            throws IOException, NoSuchAlgorithmException {
+        Timer.Sample phase = metrics.start();
+        Optional<ProjectMetadata> existingOpt = projectMetadataService.findByProjectName(projectName);
+        metrics.recordUploadPhase(phase, "metadata", projectName);
+        // Projects stored before statistics existed take the slow path once, so they get them
+        if (existingOpt.isPresent() && archiveHash.equals(existingOpt.get().getArchiveHash())
+                && existingOpt.get().getStats() != null) {
+            logger.info("⏩ Archive for project '{}' unchanged, skipping extraction", projectName);
+            metrics.recordUpload("unchanged", projectName, archiveSize, 0);
+            return ResponseEntity.ok(new UploadResponseDTO("alreadyUploaded"));
+        }
+
+        Path localZipFile = archive.localCopy();
+
+        // Extraction is held to this reservation by the bytes it actually writes, not just the sizes the headers declare
+        long plannedSize = ZipExtractor.plannedSize(localZipFile, FileUploadController::getSkipReason);
+        job.reserve(plannedSize);
+        Path tempExtractDir = job.newDirectory("extract-");
+
+        // Flattening: extract and detect root folder
+        phase = metrics.start();
+        ProjectStatsCollector statsCollector = new ProjectStatsCollector();
+        ExtractionStatsDTO stats = unzip(localZipFile, tempExtractDir, metrics::recordSkippedEntry, statsCollector,
+                extractionExecutor, extractionThreads, plannedSize);
+
+        // If the zip has one root folder, flatten it
+        Path contentRoot = flattenIfWrappedInSingleFolder(tempExtractDir);
+        String wrapper = contentRoot.equals(tempExtractDir) ? "" : tempExtractDir.relativize(contentRoot).toString().replace("\\", "/") + "/";
+        ProjectStatsDTO projectStats = statsCollector.build(wrapper);
+        metrics.recordUploadPhase(phase, "extract", projectName);
+
+        // File count and size come from the extraction pass; the tree is not walked again
+        long fileCount = projectStats.files();
+        long totalSize = projectStats.bytes();
+        System.out.println("📂 Extracted file count: " + fileCount);
+
+        if (fileCount == 0) {
+            metrics.recordUpload("empty", projectName, archiveSize, 0);
+            return ResponseEntity.badRequest().body("No valid files found inside the ZIP.");
+        }
+
+        phase = metrics.start();
+        String hash = projectHashUtil.computeHash(contentRoot);
+        metrics.recordUploadPhase(phase, "hash", projectName);
+
+        if (existingOpt.isPresent()) {
+            ProjectMetadata existing = existingOpt.get();
+
+            if (hash.equals(existing.getHash())) {
+                projectMetadataService.updateArchive(projectName, archiveHash, projectStats);
+                metrics.recordUpload("unchanged", projectName, archiveSize, fileCount);
+                return ResponseEntity.ok(new UploadResponseDTO("alreadyUploaded"));
+            } else {
+                // Indexes are replaced only once the new generation is committed, so a failed write leaves
+                // the old sources and their indexes in place together
+                await(persist(projectName, asyncFileStorageService.replaceProject(projectName, contentRoot)));
+                indexProject(projectName, contentRoot, hash);
+
+                phase = metrics.start();
+                projectMetadataService.updateMetadata(projectName, stats.getExtracted(), totalSize, hash, archiveHash, projectStats);
+                metrics.recordUploadPhase(phase, "metadata", projectName);
+
+                metrics.recordUpload("replaced", projectName, archiveSize, fileCount);
+                return ResponseEntity.ok(new UploadResponseDTO("replaced"));
+            }
+        }
+
+        await(persist(projectName, asyncFileStorageService.saveProject(projectName, contentRoot)));
+        indexProject(projectName, contentRoot, hash);
+
+        phase = metrics.start();
+        projectMetadataService.saveMetadata(projectName, stats.getExtracted(), totalSize, hash, archiveHash, projectStats);
+        metrics.recordUploadPhase(phase, "metadata", projectName);
+
+        metrics.recordUpload("created", projectName, archiveSize, fileCount);
+        return ResponseEntity.ok(new UploadResponseDTO(projectName, stats));
+    }
+
+    // Local archive to extract, produced only once the upload is known to change something
+    @FunctionalInterface
+    private interface ArchiveSource {
+        Path localCopy() throws IOException;
+    }
+
+    // 413 for an archive that could never be extracted here, 503 only while other uploads hold the space
+    private static ResponseEntity<?> scratchExhausted(ScratchQuotaExceededException e) {
+        logger.warn("Upload refused: {}", e.getMessage());
+        if (e.isLargerThanQuota()) {
+            return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE)
+                    .body("Archive is too large to extract on this server.");
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body("Server is busy processing other uploads, try again shortly.");
+    }
+
+    private static ResponseEntity<?> invalidArchive(InvalidArchiveException e) {
+        logger.warn("Upload rejected: {}", e.getMessage());
+        return ResponseEntity.badRequest().body("Invalid archive: " + e.getMessage());
+    }
+
     @GetMapping("/uploaded-projects")
     public ResponseEntity<List<String>> listUploadedProjects() {
         try {
@@ -126,46 +365,57 @@ public class FileUploadController {
         }
     }
 
-    private ExtractionStatsDTO unzip(Path zipPath, Path targetDir) throws IOException {
-        int extracted = 0;
-        int skipped = 0;
-        Map<String, Integer> skippedByType = new HashMap<>();
-
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipPath.toFile()))) {
-            ZipEntry entry;
-            byte[] buffer = new byte[4096];
-
-            while ((entry = zis.getNextEntry()) != null) {
-                String entryName = entry.getName();
-                String skipReason = getSkipReason(entryName);
+    // Composition recorded at the last upload; a single metadata row, however large the project
+    @GetMapping("/project-stats")
+    public ResponseEntity<?> getProjectStats(@RequestParam("project") String projectName) {
+        Optional<ProjectStatsDTO> stats = projectMetadataService.findStats(projectName);
+        if (stats.isPresent()) {
+            return ResponseEntity.ok(stats.get());
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(projectMetadataService.findByProjectName(projectName).isPresent()
+                ? "No statistics recorded for this project; upload it again to compute them."
+                : "Project not found.");
+    }
 
-                if (skipReason != null) {
-                    skipped++;
-                    skippedByType.merge(skipReason, 1, Integer::sum);
-                    logger.info("⛔ Skipped: {} (reason: {})", entryName, skipReason);
-                    zis.closeEntry();
-                    continue;
-                }
+    private CompletableFuture<Void> persist(String projectName, CompletableFuture<Void> write) {
+        Timer.Sample phase = metrics.start();
+        return write.whenComplete((ignored, error) -> metrics.recordUploadPhase(phase, "persist", projectName));
+    }
 
-                Path newPath = resolveSecureZipEntry(targetDir, entryName);
-
-                if (entry.isDirectory()) {
-                    Files.createDirectories(newPath);
-                } else {
-                    Files.createDirectories(newPath.getParent());
-                    try (OutputStream fos = Files.newOutputStream(newPath)) {
-                        int len;
-                        while ((len = zis.read(buffer)) > 0) {
-                            fos.write(buffer, 0, len);
-                        }
-                    }
-                }
+    // A failed storage write fails the upload, as the synchronous write did
+    private static void await(CompletableFuture<Void> persisted) throws IOException {
+        try {
+            persisted.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Storing project files failed", e.getCause());
+        }
+    }
 
-                extracted++;
-            }
+    // Index while the sources are still on local disk; generation falls back to unranked context if this fails
+    private void indexProject(String projectName, Path contentRoot, String hash) {
+        Timer.Sample phase = metrics.start();
+        try {
+            contextIndexService.indexProject(projectName, contentRoot, hash);
+            stepDefinitionService.indexProject(projectName, contentRoot);
+            vectorIndexService.indexProjectAsync(projectName, contentRoot);
+        } catch (IOException e) {
+            logger.warn("Context indexing failed for project '{}'", projectName, e);
         }
+        metrics.recordUploadPhase(phase, "index", projectName);
+    }
 
-        return new ExtractionStatsDTO(extracted, skipped, skippedByType);
+    private String sanitizeFileName(String originalFilename) {
+        String fileName = Optional.ofNullable(originalFilename).orElse("unknown.zip");
+        return fileName.replaceAll("[^a-zA-Z0-9\\.\\-_]", "_");
+    }
+
+    // Package-private and static so the JMH suite can drive it directly
+    static ExtractionStatsDTO unzip(Path zipPath, Path targetDir, Consumer<String> onSkipped,
+                                    ProjectStatsCollector statsCollector, Executor executor, int parallelism,
+                                    long maxBytes) throws IOException {
+        return ZipExtractor.extract(zipPath, targetDir, FileUploadController::getSkipReason, onSkipped,
+                executor, parallelism, statsCollector, maxBytes);
     }
 
     private Path flattenIfWrappedInSingleFolder(Path extractedDir) throws IOException {
@@ -178,7 +428,7 @@ public class FileUploadController {
         return extractedDir; // no need to flatten
     }
 
-    private String getSkipReason(String entryName) {
+    static String getSkipReason(String entryName) {
         String lowerName = entryName.toLowerCase();
 
         if (Arrays.stream(lowerName.split("/")).anyMatch(part -> part.startsWith("."))) {
@@ -203,12 +453,4 @@ public class FileUploadController {
 
         return null;
     }
-
-    private Path resolveSecureZipEntry(Path targetDir, String entryName) throws IOException {
-        Path resolvedPath = targetDir.resolve(entryName).normalize();
-        if (!resolvedPath.startsWith(targetDir)) {
-            throw new IOException("Entry is outside target dir: " + entryName);
-        }
-        return resolvedPath;
-    }
 }
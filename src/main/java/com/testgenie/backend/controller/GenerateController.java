@@ -1,26 +1,66 @@
 package com.testgenie.backend.controller;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testgenie.backend.config.GenerationProperties;
+import com.testgenie.backend.index.FeatureFileParser;
+import com.testgenie.backend.index.FeatureScenario;
+import com.testgenie.backend.service.BatchGenerationService;
+import com.testgenie.backend.service.BatchGenerationService.Batch;
+import com.testgenie.backend.service.BatchGenerationService.BatchListener;
+import com.testgenie.backend.service.GenerationCache;
+import com.testgenie.backend.service.GenerationCache.ProjectContext;
+import com.testgenie.backend.service.GenerationContextService;
+import com.testgenie.backend.service.GenerationQueueFullException;
+import com.testgenie.backend.service.GenerationScheduler;
+import com.testgenie.backend.service.GenerationScheduler.Ticket;
+import com.testgenie.backend.service.OllamaClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
-import java.nio.file.*;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "http://localhost:5173")
 public class GenerateController {
 
-    private static final Path BASE_UPLOAD_PATH = Paths.get(System.getProperty("user.dir"), "uploads");
-    private final ObjectMapper mapper = new ObjectMapper();
-    private final RestTemplate restTemplate = new RestTemplate();
+    private static final Logger logger = LoggerFactory.getLogger(GenerateController.class);
+
+    private static final long STREAM_TIMEOUT_MS = 10 * 60 * 1000L;
+    private static final long BATCH_STREAM_TIMEOUT_MS = 60 * 60 * 1000L;
+
+    private final OllamaClient ollamaClient;
+    private final GenerationContextService generationContextService;
+    private final GenerationCache generationCache;
+    private final GenerationScheduler generationScheduler;
+    private final BatchGenerationService batchGenerationService;
+    private final GenerationProperties generationProperties;
+
+    public GenerateController(OllamaClient ollamaClient,
+                              GenerationContextService generationContextService,
+                              GenerationCache generationCache,
+                              GenerationScheduler generationScheduler,
+                              BatchGenerationService batchGenerationService,
+                              GenerationProperties generationProperties) {
+        this.ollamaClient = ollamaClient;
+        this.generationContextService = generationContextService;
+        this.generationCache = generationCache;
+        this.generationScheduler = generationScheduler;
+        this.batchGenerationService = batchGenerationService;
+        this.generationProperties = generationProperties;
+    }
 
     @PostMapping("/generate")
-    public ResponseEntity<Map<String, String>> generateCode(@RequestBody Map<String, String> body) {
+    public ResponseEntity<Map<String, String>> generateCode(
+            @RequestBody Map<String, String> body,
+            @RequestHeader(value = HttpHeaders.CACHE_CONTROL, required = false) String cacheControl) {
         String project = body.get("project");
         String scenario = body.get("scenario");
 
@@ -28,45 +68,50 @@ public class GenerateController {
             return ResponseEntity.badRequest().body(Map.of("error", "Missing project or scenario."));
         }
 
-        Path projectPath = BASE_UPLOAD_PATH.resolve(project).normalize();
-        if (!projectPath.startsWith(BASE_UPLOAD_PATH)) {
+        if (!generationContextService.isValidProjectName(project)) {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid project path."));
         }
 
         try {
-            // 1. Load descriptions.json
-            Path descPath = projectPath.resolve("meta/descriptions.json");
-            Map<String, String> descriptions = Files.exists(descPath)
-                    ? mapper.readValue(descPath.toFile(), new TypeReference<>() {})
-                    : new HashMap<>();
-
-            // 2. Load described file contents (limit to ~10,000 chars)
-            Map<String, String> fileContents = getDescribedFileContents(projectPath, descriptions, 10_000);
-
-            // 3. Build AI prompt
-            String prompt = buildPrompt(descriptions, fileContents, scenario);
-
-            // 4. Send to Ollama
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+            boolean bypassCache = isCacheBypassed(body, cacheControl);
+            ProjectContext context = generationContextService.loadContext(project, bypassCache);
+            Optional<String> resultKey = resultKey(context, scenario, "json");
 
-            Map<String, Object> ollamaPayload = Map.of(
-                    "model", "llama3",
-                    "prompt", prompt,
-                    "stream", false
-            );
+            if (resultKey.isPresent() && !bypassCache) {
+                String cached = generationCache.getResult(resultKey.get());
+                if (cached != null) {
+                    return ResponseEntity.ok(Map.of("result", cached, "cached", "true"));
+                }
+            }
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(ollamaPayload, headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    "http://localhost:11434/api/generate", entity, String.class
-            );
+            Ticket ticket = generationScheduler.submit(coalescingKey(project, scenario, "json", resultKey), (onToken, cancelled) -> {
+                String prompt = generationContextService.assemblePrompt(project, context, scenario);
+                return ollamaClient.generate(prompt, cancelled);
+            });
+            String result = ticket.result().join();
 
-            return ResponseEntity.ok(Map.of("result", response.getBody()));
+            resultKey.ifPresent(key -> generationCache.putResult(key, result));
+            return ResponseEntity.ok(Map.of("result", result));
 
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.error("Failed to load context for project '{}'", project, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to load project files."));
+        } catch (GenerationQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "10")
+                    .body(Map.of("error", "Too many generations in progress, try again shortly.",
+                            "queued", String.valueOf(e.getQueued())));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                        .body(Map.of("error", "Code generation timed out."));
+            }
+            logger.error("Generation failed", e.getCause());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getCause() instanceof IOException
+                            ? "Failed to load project files."
+                            : "Error generating code."));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -74,49 +119,195 @@ public class GenerateController {
         }
     }
 
-    // Helper: Load described files up to character limit
-    private Map<String, String> getDescribedFileContents(Path projectPath, Map<String, String> descriptions, int maxChars) throws IOException {
-        Map<String, String> contents = new LinkedHashMap<>();
-        int total = 0;
+    // SSE variant: emits "token" events as Ollama produces them, then a single "done" (or "error") event
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter generateCodeStream(
+            @RequestBody Map<String, String> body,
+            @RequestHeader(value = HttpHeaders.CACHE_CONTROL, required = false) String cacheControl) {
+        String project = body.get("project");
+        String scenario = body.get("scenario");
+
+        if (project == null || scenario == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing project or scenario.");
+        }
+
+        if (!generationContextService.isValidProjectName(project)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid project path.");
+        }
+
+        boolean bypassCache = isCacheBypassed(body, cacheControl);
+        ProjectContext context;
+        try {
+            context = generationContextService.loadContext(project, bypassCache);
+        } catch (IOException e) {
+            logger.error("Failed to load context for project '{}'", project, e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to load project files.");
+        }
+        Optional<String> resultKey = resultKey(context, scenario, "text");
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
 
-        for (Map.Entry<String, String> entry : descriptions.entrySet()) {
-            String relativePath = entry.getKey();
-            Path filePath = projectPath.resolve(relativePath).normalize();
+        String cached = resultKey.isPresent() && !bypassCache ? generationCache.getResult(resultKey.get()) : null;
+        if (cached != null) {
+            sendEvent(emitter, "token", Map.of("token", cached));
+            sendEvent(emitter, "done", Map.of("model", ollamaClient.getModel(), "cached", true));
+            emitter.complete();
+            return emitter;
+        }
 
-            if (!filePath.startsWith(projectPath) || !Files.exists(filePath) || !relativePath.endsWith(".java")) {
-                continue;
+        Ticket ticket;
+        try {
+            ticket = generationScheduler.submit(coalescingKey(project, scenario, "text", resultKey), (onToken, cancelled) -> {
+                String prompt = generationContextService.assemblePrompt(project, context, scenario);
+                StringBuilder completion = new StringBuilder();
+                ollamaClient.streamGenerate(prompt, token -> {
+                    completion.append(token);
+                    onToken.accept(token);
+                }, cancelled);
+                return completion.toString();
+            });
+        } catch (GenerationQueueFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+
+        // Client disconnects release this request's claim; the model call stops once nobody is listening
+        emitter.onCompletion(ticket::cancel);
+        emitter.onTimeout(ticket::cancel);
+        emitter.onError(e -> ticket.cancel());
+
+        ticket.onPositionChange(position -> sendEvent(emitter, "queued", Map.of("position", position)));
+        int position = ticket.position();
+        if (position > 0) {
+            sendEvent(emitter, "queued", Map.of("position", position));
+        }
+        ticket.started().thenRun(() -> sendEvent(emitter, "started", Map.of("coalesced", ticket.isCoalesced())));
+        ticket.subscribe(token -> sendEvent(emitter, "token", Map.of("token", token)));
+
+        ticket.result().whenComplete((result, error) -> {
+            try {
+                if (error == null) {
+                    resultKey.ifPresent(key -> generationCache.putResult(key, result));
+                    sendEvent(emitter, "done", Map.of("model", ollamaClient.getModel(), "cached", false));
+                } else {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    logger.info("Streaming generation for project '{}' ended without a result: {}", project, cause.toString());
+                    sendEvent(emitter, "error", Map.of("error", cause instanceof TimeoutException
+                            ? "Code generation timed out."
+                            : "Error generating code."));
+                }
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                logger.info("🔌 Client disconnected from generation for project '{}'", project);
             }
+        });
+
+        return emitter;
+    }
+
+    // Whole feature file: one "batch" event listing the scenarios, then a "scenario" (or "scenario-error") event
+    // per scenario in completion order, then "done" with the totals
+    @PostMapping(value = "/generate/batch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter generateBatch(
+            @RequestBody Map<String, String> body,
+            @RequestHeader(value = HttpHeaders.CACHE_CONTROL, required = false) String cacheControl) {
+        String project = body.get("project");
+        String feature = body.get("feature");
+
+        if (project == null || feature == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing project or feature.");
+        }
 
-            String content = Files.readString(filePath);
-            if (total + content.length() > maxChars) break;
+        if (!generationContextService.isValidProjectName(project)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid project path.");
+        }
+
+        List<FeatureScenario> scenarios = FeatureFileParser.parse(feature);
+        if (scenarios.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No scenarios found in feature.");
+        }
+        if (scenarios.size() > generationProperties.getBatchMaxScenarios()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Feature has " + scenarios.size() + " scenarios, at most "
+                            + generationProperties.getBatchMaxScenarios() + " are allowed per batch.");
+        }
 
-            contents.put(relativePath, content);
-            total += content.length();
+        SseEmitter emitter = new SseEmitter(BATCH_STREAM_TIMEOUT_MS);
+        List<Map<String, Object>> outline = new ArrayList<>();
+        for (int i = 0; i < scenarios.size(); i++) {
+            outline.add(Map.of("index", i, "name", scenarios.get(i).name(), "line", scenarios.get(i).line()));
         }
+        sendEvent(emitter, "batch", Map.of("scenarios", outline));
 
-        return contents;
+        Batch batch;
+        try {
+            batch = batchGenerationService.start(project, scenarios, isCacheBypassed(body, cacheControl), new BatchListener() {
+                @Override
+                public void onScenarioCompleted(int index, FeatureScenario scenario, String result, boolean cached) {
+                    sendEvent(emitter, "scenario", Map.of("index", index, "name", scenario.name(),
+                            "result", result, "cached", cached));
+                }
+
+                @Override
+                public void onScenarioFailed(int index, FeatureScenario scenario, Throwable error) {
+                    sendEvent(emitter, "scenario-error", Map.of("index", index, "name", scenario.name(),
+                            "error", error instanceof TimeoutException
+                                    ? "Code generation timed out."
+                                    : "Error generating code."));
+                }
+            });
+        } catch (IOException e) {
+            logger.error("Failed to load context for batch on project '{}'", project, e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to load project files.");
+        }
+
+        emitter.onCompletion(batch::cancel);
+        emitter.onTimeout(batch::cancel);
+        emitter.onError(e -> batch.cancel());
+
+        batch.completion().thenAccept(summary -> {
+            try {
+                sendEvent(emitter, "done", summary);
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                logger.info("🔌 Client disconnected from batch generation for project '{}'", project);
+            }
+        });
+
+        return emitter;
     }
 
-    // Helper: Construct prompt
-    private String buildPrompt(Map<String, String> descriptions, Map<String, String> contents, String scenario) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("You are an expert test automation assistant.\n");
-        prompt.append("The user has uploaded a Java + Cucumber framework with the following file descriptions:\n\n");
+    @GetMapping("/generate/queue")
+    public ResponseEntity<GenerationScheduler.SchedulerStats> getQueueStats() {
+        return ResponseEntity.ok(generationScheduler.stats());
+    }
 
-        descriptions.forEach((file, desc) -> prompt
-                .append("- File: ").append(file).append(" → ").append(desc).append("\n"));
+    @GetMapping("/generate/cache-stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(Map.of(
+                "context", generationCache.contextStats(),
+                "result", generationCache.resultStats()
+        ));
+    }
 
-        prompt.append("\nHere are the contents of those files:\n");
+    // Explicit bypass: "Cache-Control: no-cache" header or "noCache": "true" in the body; fresh results still refill the cache
+    private boolean isCacheBypassed(Map<String, String> body, String cacheControl) {
+        return Boolean.parseBoolean(body.get("noCache"))
+                || (cacheControl != null && cacheControl.toLowerCase().contains("no-cache"));
+    }
 
-        contents.forEach((file, code) -> prompt
-                .append("\nFile: ").append(file).append("\n")
-                .append("------------------\n")
-                .append(code).append("\n")
-                .append("------------------\n"));
+    private Optional<String> resultKey(ProjectContext context, String scenario, String mode) {
+        return generationContextService.resultKey(context, scenario, mode, ollamaClient.getModel());
+    }
 
-        prompt.append("\nBased on the above framework, generate Java code for the following Cucumber scenario:\n\n");
-        prompt.append(scenario).append("\n\nRespond with complete Java code. Format cleanly and logically.");
+    private String coalescingKey(String project, String scenario, String mode, Optional<String> resultKey) {
+        return generationContextService.coalescingKey(project, scenario, mode, resultKey);
+    }
 
-        return prompt.toString();
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            // Client went away; surfacing the failure unwinds the Ollama stream and closes its connection
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,26 @@
+package com.testgenie.backend.controller;
+
+import com.testgenie.backend.service.ProjectChangeFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Replaces polling of /api/uploaded-projects, /api/files/tree and /api/files/descriptions: refetch only when
+// the version of the matching part has moved past the one last fetched
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ProjectChangeController {
+
+    private final ProjectChangeFeed changeFeed;
+
+    public ProjectChangeController(ProjectChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    // "versions" first (single project only), then "project" and "descriptions" events as they happen
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(value = "project", required = false) String projectName) {
+        return changeFeed.subscribe(projectName);
+    }
+}
@@ -0,0 +1,13 @@
+package com.testgenie.backend.dto;
+
+import java.util.List;
+
+// State of a chunked upload; a client resumes by sending the parts missing from receivedParts
+public record ChunkedUploadDTO(
+        String uploadId,
+        String fileName,
+        long totalSize,
+        long partSize,
+        int partCount,
+        List<Integer> receivedParts
+) {}
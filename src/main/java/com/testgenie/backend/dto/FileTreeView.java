@@ -0,0 +1,220 @@
+package com.testgenie.backend.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A project's file tree as it goes out of /api/files/tree, written straight from the sorted path list
+ * to the response by Jackson's streaming generator; no {@link FileNode} graph is built.
+ * <ul>
+ *     <li>{@link Format#NESTED}: the same JSON as a serialized {@link FileNode} tree;</li>
+ *     <li>{@link Format#TABLE}: {@code {"project": ..., "nodes": [[parent, name], ...]}} in depth-first order,
+ *     the root first with parent -1. Folders are the nodes that appear as a parent; the path of a node is
+ *     the names on its parent chain joined with "/".</li>
+ * </ul>
+ */
+@JsonSerialize(using = FileTreeView.Serializer.class)
+public final class FileTreeView {
+
+    public enum Format { NESTED, TABLE }
+
+    private final String projectName;
+    private final List<String> paths;
+    private final Format format;
+    private final int nodeCount;
+
+    private FileTreeView(String projectName, List<String> paths, Format format, int nodeCount) {
+        this.projectName = projectName;
+        this.paths = paths;
+        this.format = format;
+        this.nodeCount = nodeCount;
+    }
+
+    // After sorting, every folder's descendants are contiguous: they all start with "<folder>/", and any other
+    // path sorts entirely before or after them
+    public static FileTreeView of(String projectName, List<String> relativePaths, Format format) {
+        List<String> sorted = new ArrayList<>(relativePaths);
+        sorted.sort(null);
+
+        List<String> unique = new ArrayList<>(sorted.size());
+        String previous = null;
+        for (String path : sorted) {
+            if (!path.equals(previous)) unique.add(path);
+            previous = path;
+        }
+
+        NodeCounter counter = new NodeCounter();
+        try {
+            walk(unique, counter);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // the counter does no I/O
+        }
+        return new FileTreeView(projectName, unique, format, counter.nodes);
+    }
+
+    // Root included
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    private interface Visitor {
+        void openFolder(String name, String path) throws IOException;
+
+        void file(String name, String path) throws IOException;
+
+        void closeFolder() throws IOException;
+    }
+
+    // Folders are opened on the way down from each file and closed once the next path leaves them
+    private static void walk(List<String> sortedPaths, Visitor visitor) throws IOException {
+        String[] open = new String[0];
+        for (String path : sortedPaths) {
+            String[] parts = path.split("/");
+            int folders = parts.length - 1;
+
+            int common = 0;
+            while (common < open.length && common < folders && open[common].equals(parts[common])) common++;
+            for (int i = open.length; i > common; i--) visitor.closeFolder();
+            // A folder's path is a prefix of the file's path
+            int end = 0;
+            for (int i = 0; i < common; i++) end += parts[i].length() + 1;
+            for (int i = common; i < folders; i++) {
+                end += parts[i].length();
+                visitor.openFolder(parts[i], path.substring(0, end));
+                end++;
+            }
+            visitor.file(parts[folders], path);
+
+            open = Arrays.copyOf(parts, folders);
+        }
+        for (int i = open.length; i > 0; i--) visitor.closeFolder();
+    }
+
+    private static final class NodeCounter implements Visitor {
+        int nodes = 1;
+
+        @Override
+        public void openFolder(String name, String path) {
+            nodes++;
+        }
+
+        @Override
+        public void file(String name, String path) {
+            nodes++;
+        }
+
+        @Override
+        public void closeFolder() {
+        }
+    }
+
+    public static final class Serializer extends JsonSerializer<FileTreeView> {
+
+        @Override
+        public void serialize(FileTreeView tree, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            if (tree.format == Format.TABLE) {
+                writeTable(tree, generator);
+            } else {
+                writeNested(tree, generator);
+            }
+        }
+
+        // Field order matches the FileNode record
+        private static void writeNested(FileTreeView tree, JsonGenerator generator) throws IOException {
+            String prefix = tree.projectName + "/";
+            startFolder(generator, tree.projectName, tree.projectName);
+            walk(tree.paths, new Visitor() {
+                @Override
+                public void openFolder(String name, String path) throws IOException {
+                    startFolder(generator, name, prefix + path);
+                }
+
+                @Override
+                public void file(String name, String path) throws IOException {
+                    generator.writeStartObject();
+                    generator.writeStringField("name", name);
+                    generator.writeStringField("type", "file");
+                    generator.writeStringField("path", prefix + path);
+                    generator.writeArrayFieldStart("children");
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                }
+
+                @Override
+                public void closeFolder() throws IOException {
+                    endFolder(generator);
+                }
+            });
+            endFolder(generator);
+        }
+
+        private static void startFolder(JsonGenerator generator, String name, String path) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("name", name);
+            generator.writeStringField("type", "folder");
+            generator.writeStringField("path", path);
+            generator.writeArrayFieldStart("children");
+        }
+
+        private static void endFolder(JsonGenerator generator) throws IOException {
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        private static void writeTable(FileTreeView tree, JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("project", tree.projectName);
+            generator.writeArrayFieldStart("nodes");
+            writeRow(generator, -1, tree.projectName);
+
+            walk(tree.paths, new TableWriter(generator));
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        private static void writeRow(JsonGenerator generator, int parent, String name) throws IOException {
+            generator.writeStartArray();
+            generator.writeNumber(parent);
+            generator.writeString(name);
+            generator.writeEndArray();
+        }
+    }
+
+    private static final class TableWriter implements Visitor {
+        private final JsonGenerator generator;
+        // Index of each open folder, the root at the bottom
+        private int[] folders = new int[16];
+        private int depth;
+        private int next = 1;
+
+        TableWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void openFolder(String name, String path) throws IOException {
+            Serializer.writeRow(generator, folders[depth], name);
+            if (++depth == folders.length) folders = Arrays.copyOf(folders, folders.length * 2);
+            folders[depth] = next++;
+        }
+
+        @Override
+        public void file(String name, String path) throws IOException {
+            Serializer.writeRow(generator, folders[depth], name);
+            next++;
+        }
+
+        @Override
+        public void closeFolder() {
+            depth--;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.testgenie.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// Composition of a project as of its last upload, computed while the archive was extracted
+public record ProjectStatsDTO(
+        int files,
+        long lines,
+        long bytes,
+        Map<String, Composition> languages,
+        Composition mainSources,
+        Composition testSources,
+        int featureFiles,
+        int scenarios, // runnable scenarios, Scenario Outlines counted once per Examples row
+        List<LargeFile> largestFiles
+) {
+    public record Composition(int files, long lines, long bytes) {}
+
+    public record LargeFile(String path, String language, long bytes, long lines) {}
+}
@@ -31,6 +31,22 @@ public class ProjectMetadata {
     @Column(name = "hash")
     private String hash;
 
+    // SHA-256 of the raw uploaded archive, used to reject byte-identical re-uploads before extraction
+    @Column(name = "archive_hash")
+    private String archiveHash;
+
+    // Bumped on every description change; nullable so existing rows survive ddl-auto=update
+    @Column(name = "description_version")
+    private Long descriptionVersion;
+
+    // Bumped on every committed upload that changed the files; nullable for the same reason
+    @Column(name = "project_version")
+    private Long projectVersion;
+
+    // ProjectStatsDTO as JSON, written at ingestion; null for projects uploaded before stats were collected
+    @Column(name = "stats", columnDefinition = "text")
+    private String stats;
+
     // === Constructors ===
 
     public ProjectMetadata() {}
@@ -0,0 +1,13 @@
+package com.testgenie.backend.index;
+
+import java.util.List;
+import java.util.Map;
+
+// Per-project BM25 statistics, computed once at upload time and persisted as a project artifact
+public record ContextIndex(
+        String projectHash,
+        int documentCount,
+        double averageLength,
+        Map<String, Integer> documentFrequency,
+        List<IndexedFile> files
+) {}
@@ -0,0 +1,208 @@
+package com.testgenie.backend.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a Gherkin feature file into independent scenarios. Feature and Rule backgrounds are
+ * inlined into every scenario they apply to, and Scenario Outlines are expanded once per
+ * Examples row with {@code <placeholders>} substituted. Free-text descriptions and comments
+ * are dropped; data tables and doc strings stay attached to their step.
+ */
+public final class FeatureFileParser {
+
+    private static final Pattern STEP_LINE = Pattern.compile("^(Given|When|Then|And|But|\\*)\\s.*");
+
+    private FeatureFileParser() {
+    }
+
+    public static List<FeatureScenario> parse(String feature) {
+        return new State().parse(feature);
+    }
+
+    private enum Block { NONE, BACKGROUND, SCENARIO, OUTLINE }
+
+    private static final class State {
+        final List<FeatureScenario> scenarios = new ArrayList<>();
+        final List<String> featureBackground = new ArrayList<>();
+        final List<String> ruleBackground = new ArrayList<>();
+        List<String> featureTags = List.of();
+        List<String> ruleTags = List.of();
+        List<String> pendingTags = new ArrayList<>();
+        boolean inRule;
+
+        Block block = Block.NONE;
+        List<String> steps = new ArrayList<>();
+        String name;
+        List<String> tags;
+        int line;
+        boolean inExamples;
+        List<String> exampleHeader;
+        List<String> exampleTags = List.of();
+        final List<Map<String, String>> exampleRows = new ArrayList<>();
+        // Tags of the Examples block each row came from, parallel to exampleRows
+        final List<List<String>> exampleRowTags = new ArrayList<>();
+
+        List<FeatureScenario> parse(String feature) {
+            String[] lines = feature.split("\\R");
+            String docStringFence = null;
+            int docStringIndent = 0;
+
+            for (int i = 0; i < lines.length; i++) {
+                String raw = lines[i];
+                String trimmed = raw.strip();
+
+                if (docStringFence != null) {
+                    // Keep indentation relative to the opening fence
+                    int indent = Math.min(docStringIndent, raw.length() - raw.stripLeading().length());
+                    appendStep("  " + raw.substring(indent).stripTrailing());
+                    if (trimmed.startsWith(docStringFence)) docStringFence = null;
+                    continue;
+                }
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+
+                if (trimmed.startsWith("@")) {
+                    for (String tag : trimmed.split("\\s+")) {
+                        if (tag.startsWith("#")) break;
+                        pendingTags.add(tag);
+                    }
+                } else if (trimmed.startsWith("Feature:")) {
+                    flush();
+                    featureTags = pendingTags;
+                    pendingTags = new ArrayList<>();
+                } else if (trimmed.startsWith("Rule:")) {
+                    flush();
+                    inRule = true;
+                    ruleBackground.clear();
+                    ruleTags = pendingTags;
+                    pendingTags = new ArrayList<>();
+                } else if (trimmed.startsWith("Background:")) {
+                    flush();
+                    block = Block.BACKGROUND;
+                } else if (trimmed.startsWith("Scenario Outline:") || trimmed.startsWith("Scenario Template:")) {
+                    start(Block.OUTLINE, trimmed, i + 1);
+                } else if (trimmed.startsWith("Scenario:") || trimmed.startsWith("Example:")) {
+                    start(Block.SCENARIO, trimmed, i + 1);
+                } else if (trimmed.startsWith("Examples:") || trimmed.startsWith("Scenarios:")) {
+                    // Tags above Examples belong to that block's rows, never to the next scenario
+                    if (block == Block.OUTLINE) {
+                        inExamples = true;
+                        exampleHeader = null;
+                        exampleTags = pendingTags;
+                    }
+                    pendingTags = new ArrayList<>();
+                } else if (trimmed.startsWith("|")) {
+                    if (block == Block.OUTLINE && inExamples) {
+                        addExampleRow(cells(trimmed));
+                    } else {
+                        appendStep("  " + trimmed);
+                    }
+                } else if (trimmed.startsWith("\"\"\"") || trimmed.startsWith("```")) {
+                    docStringFence = trimmed.substring(0, 3);
+                    docStringIndent = raw.length() - raw.stripLeading().length();
+                    appendStep("  " + trimmed);
+                } else if (STEP_LINE.matcher(trimmed).matches()) {
+                    appendStep(trimmed);
+                }
+                // Anything else is description text
+            }
+
+            flush();
+            return scenarios;
+        }
+
+        private void start(Block type, String header, int lineNumber) {
+            flush();
+            block = type;
+            name = header.substring(header.indexOf(':') + 1).strip();
+            // Tags are inherited from the enclosing Feature and Rule
+            tags = new ArrayList<>(featureTags);
+            if (inRule) tags.addAll(ruleTags);
+            tags.addAll(pendingTags);
+            pendingTags = new ArrayList<>();
+            line = lineNumber;
+        }
+
+        private void appendStep(String step) {
+            if (block == Block.BACKGROUND) {
+                (inRule ? ruleBackground : featureBackground).add(step);
+            } else if (block == Block.SCENARIO || (block == Block.OUTLINE && !inExamples)) {
+                steps.add(step);
+            }
+        }
+
+        private void addExampleRow(List<String> cells) {
+            if (exampleHeader == null) {
+                exampleHeader = cells;
+                return;
+            }
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int c = 0; c < exampleHeader.size(); c++) {
+                row.put(exampleHeader.get(c), c < cells.size() ? cells.get(c) : "");
+            }
+            exampleRows.add(row);
+            exampleRowTags.add(exampleTags);
+        }
+
+        private void flush() {
+            if (block == Block.SCENARIO) {
+                emit(name, tags, steps);
+            } else if (block == Block.OUTLINE) {
+                if (exampleRows.isEmpty()) {
+                    emit(name, tags, steps);
+                }
+                for (int r = 0; r < exampleRows.size(); r++) {
+                    Map<String, String> row = exampleRows.get(r);
+                    List<String> rowTags = new ArrayList<>(tags);
+                    rowTags.addAll(exampleRowTags.get(r));
+                    List<String> expanded = steps.stream().map(step -> substitute(step, row)).toList();
+                    emit(substitute(name, row) + " (" + describe(row) + ")", rowTags, expanded);
+                }
+            }
+
+            block = Block.NONE;
+            steps = new ArrayList<>();
+            inExamples = false;
+            exampleHeader = null;
+            exampleTags = List.of();
+            exampleRows.clear();
+            exampleRowTags.clear();
+        }
+
+        private void emit(String scenarioName, List<String> scenarioTags, List<String> scenarioSteps) {
+            StringBuilder text = new StringBuilder("Scenario: ").append(scenarioName).append("\n");
+            List<String> all = new ArrayList<>(featureBackground);
+            if (inRule) all.addAll(ruleBackground);
+            all.addAll(scenarioSteps);
+            all.forEach(step -> text.append("  ").append(step).append("\n"));
+
+            scenarios.add(new FeatureScenario(scenarioName, List.copyOf(scenarioTags), line, text.toString()));
+        }
+
+        private static String substitute(String text, Map<String, String> row) {
+            String result = text;
+            for (Map.Entry<String, String> entry : row.entrySet()) {
+                result = result.replace("<" + entry.getKey() + ">", entry.getValue());
+            }
+            return result;
+        }
+
+        private static String describe(Map<String, String> row) {
+            List<String> pairs = new ArrayList<>();
+            row.forEach((key, value) -> pairs.add(key + "=" + value));
+            return String.join(", ", pairs);
+        }
+
+        private static List<String> cells(String row) {
+            String inner = row.substring(1, row.endsWith("|") && row.length() > 1 ? row.length() - 1 : row.length());
+            List<String> cells = new ArrayList<>();
+            for (String cell : inner.split("(?<!\\\\)\\|", -1)) {
+                cells.add(cell.strip().replace("\\|", "|"));
+            }
+            return cells;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.testgenie.backend.index;
+
+import java.util.List;
+
+// One runnable scenario from a feature file; outlines are expanded to one per Examples row.
+// text is self-contained Gherkin (background steps inlined) that can be sent to generation as-is.
+public record FeatureScenario(String name, List<String> tags, int line, String text) {}
@@ -0,0 +1,357 @@
+package com.testgenie.backend.index;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * In-process Hierarchical Navigable Small World graph for approximate nearest-neighbour search
+ * over cosine similarity. Vectors are normalised on insert, so distance is {@code 1 - dot}.
+ * <p>
+ * Removal is a tombstone: the node keeps routing searches but is never returned. Once enough
+ * tombstones pile up, {@link #compact()} rebuilds the graph from the live vectors without
+ * re-embedding anything. Not thread-safe; callers mutate a private copy and swap it in.
+ */
+public class HnswIndex {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, Integer> idToNode = new HashMap<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int deletedCount;
+
+    public HnswIndex(int dimensions, int m, int efConstruction) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public int size() {
+        return nodes.size() - deletedCount;
+    }
+
+    public int deletedCount() {
+        return deletedCount;
+    }
+
+    // Rough in-memory footprint (vectors, neighbour lists, ids), for weighing the index in a cache
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Node node : nodes) {
+            bytes += 4L * node.vector.length + 2L * node.id.length();
+            for (int[] links : node.links) {
+                bytes += 4L * links.length;
+            }
+        }
+        return bytes;
+    }
+
+    public boolean contains(String id) {
+        return idToNode.containsKey(id);
+    }
+
+    public void add(String id, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        remove(id);
+
+        float[] normalized = normalize(vector);
+        int level = (int) Math.floor(-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        int index = nodes.size();
+        nodes.add(new Node(id, normalized, level, m, maxM0));
+        idToNode.put(id, index);
+
+        if (entryPoint == -1) {
+            entryPoint = index;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(normalized, current, l);
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(normalized, current, efConstruction, l);
+            int maxConnections = l == 0 ? maxM0 : m;
+
+            for (int i = 0; i < Math.min(maxConnections, candidates.size()); i++) {
+                int neighbour = candidates.get(i).node();
+                link(index, neighbour, l);
+                link(neighbour, index, l);
+            }
+            current = candidates.get(0).node();
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = index;
+        }
+    }
+
+    public boolean remove(String id) {
+        Integer index = idToNode.remove(id);
+        if (index == null) return false;
+        nodes.get(index).deleted = true;
+        deletedCount++;
+        return true;
+    }
+
+    public List<SearchResult> search(float[] query, int k, int ef) {
+        if (entryPoint == -1 || size() == 0) return List.of();
+
+        float[] normalized = normalize(query);
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(normalized, current, l);
+        }
+
+        List<SearchResult> results = new ArrayList<>(k);
+        for (Candidate candidate : searchLayer(normalized, current, Math.max(ef, k), 0)) {
+            Node node = nodes.get(candidate.node());
+            if (node.deleted) continue;
+            results.add(new SearchResult(node.id, 1 - candidate.distance()));
+            if (results.size() == k) break;
+        }
+        return results;
+    }
+
+    // Rebuilds the graph from live vectors only; tombstones stop costing memory and search time
+    public HnswIndex compact() {
+        HnswIndex compacted = new HnswIndex(dimensions, m, efConstruction);
+        for (Node node : nodes) {
+            if (!node.deleted) {
+                compacted.add(node.id, node.vector);
+            }
+        }
+        return compacted;
+    }
+
+    public HnswIndex copy() {
+        try {
+            return read(new ByteArrayInputStream(toBytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        write(bytes);
+        return bytes.toByteArray();
+    }
+
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(dimensions);
+        out.writeInt(m);
+        out.writeInt(efConstruction);
+        out.writeInt(entryPoint);
+        out.writeInt(maxLevel);
+        out.writeInt(nodes.size());
+
+        for (Node node : nodes) {
+            out.writeUTF(node.id);
+            out.writeBoolean(node.deleted);
+            out.writeInt(node.level);
+            for (float value : node.vector) {
+                out.writeFloat(value);
+            }
+            for (int l = 0; l <= node.level; l++) {
+                out.writeInt(node.linkCounts[l]);
+                for (int i = 0; i < node.linkCounts[l]; i++) {
+                    out.writeInt(node.links[l][i]);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    public static HnswIndex read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported HNSW index format: " + version);
+        }
+
+        HnswIndex index = new HnswIndex(in.readInt(), in.readInt(), in.readInt());
+        index.entryPoint = in.readInt();
+        index.maxLevel = in.readInt();
+        int count = in.readInt();
+
+        for (int n = 0; n < count; n++) {
+            String id = in.readUTF();
+            boolean deleted = in.readBoolean();
+            int level = in.readInt();
+
+            float[] vector = new float[index.dimensions];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = in.readFloat();
+            }
+
+            Node node = new Node(id, vector, level, index.m, index.maxM0);
+            node.deleted = deleted;
+            for (int l = 0; l <= level; l++) {
+                int linkCount = in.readInt();
+                for (int i = 0; i < linkCount; i++) {
+                    node.links[l][i] = in.readInt();
+                }
+                node.linkCounts[l] = linkCount;
+            }
+
+            index.nodes.add(node);
+            if (deleted) {
+                index.deletedCount++;
+            } else {
+                index.idToNode.put(id, n);
+            }
+        }
+        return index;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float currentDistance = distance(query, nodes.get(current).vector);
+        boolean improved = true;
+
+        while (improved) {
+            improved = false;
+            Node node = nodes.get(current);
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbour = node.links[level][i];
+                float d = distance(query, nodes.get(neighbour).vector);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Standard HNSW beam search; returns up to ef candidates sorted by ascending distance
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+
+        Candidate first = new Candidate(start, distance(query, nodes.get(start).vector));
+        visited.set(start);
+        toVisit.add(first);
+        best.add(first);
+
+        while (!toVisit.isEmpty()) {
+            Candidate closest = toVisit.poll();
+            if (best.size() >= ef && closest.distance() > best.peek().distance()) break;
+
+            Node node = nodes.get(closest.node());
+            if (level > node.level) continue;
+
+            for (int i = 0; i < node.linkCounts[level]; i++) {
+                int neighbour = node.links[level][i];
+                if (visited.get(neighbour)) continue;
+                visited.set(neighbour);
+
+                float d = distance(query, nodes.get(neighbour).vector);
+                if (best.size() < ef || d < best.peek().distance()) {
+                    Candidate candidate = new Candidate(neighbour, d);
+                    toVisit.add(candidate);
+                    best.add(candidate);
+                    if (best.size() > ef) best.poll();
+                }
+            }
+        }
+
+        List<Candidate> ordered = new ArrayList<>(best);
+        ordered.sort(Comparator.comparingDouble(Candidate::distance));
+        return ordered;
+    }
+
+    // Adds target to source's neighbour list, keeping only the closest connections when full
+    private void link(int source, int target, int level) {
+        Node node = nodes.get(source);
+        int capacity = node.links[level].length;
+
+        if (node.linkCounts[level] < capacity) {
+            node.links[level][node.linkCounts[level]++] = target;
+            return;
+        }
+
+        List<Candidate> all = new ArrayList<>(capacity + 1);
+        for (int i = 0; i < capacity; i++) {
+            int neighbour = node.links[level][i];
+            all.add(new Candidate(neighbour, distance(node.vector, nodes.get(neighbour).vector)));
+        }
+        all.add(new Candidate(target, distance(node.vector, nodes.get(target).vector)));
+        all.sort(Comparator.comparingDouble(Candidate::distance));
+
+        for (int i = 0; i < capacity; i++) {
+            node.links[level][i] = all.get(i).node();
+        }
+    }
+
+    private static float distance(float[] a, float[] b) {
+        float dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return 1 - dot;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+
+        float[] normalized = new float[vector.length];
+        if (norm == 0) return normalized;
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    public record SearchResult(String id, double similarity) {}
+
+    private record Candidate(int node, float distance) {}
+
+    private static final class Node {
+        final String id;
+        final float[] vector;
+        final int level;
+        final int[][] links;
+        final int[] linkCounts;
+        boolean deleted;
+
+        Node(String id, float[] vector, int level, int m, int maxM0) {
+            this.id = id;
+            this.vector = vector;
+            this.level = level;
+            this.links = new int[level + 1][];
+            this.linkCounts = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                links[l] = new int[l == 0 ? maxM0 : m];
+            }
+        }
+    }
+}
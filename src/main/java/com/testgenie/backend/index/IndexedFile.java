@@ -0,0 +1,12 @@
+package com.testgenie.backend.index;
+
+import java.util.Map;
+import java.util.Set;
+
+public record IndexedFile(
+        String path,
+        int length, // number of content terms
+        int tokenEstimate, // approximate LLM tokens for the raw file content
+        Set<String> nameTerms,
+        Map<String, Integer> termFrequency
+) {}
@@ -0,0 +1,9 @@
+package com.testgenie.backend.index;
+
+public record SourceChunk(
+        String id, // "<relative path>#<start line>"
+        String path,
+        int startLine,
+        int endLine,
+        String text
+) {}
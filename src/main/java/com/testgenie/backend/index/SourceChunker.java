@@ -0,0 +1,40 @@
+package com.testgenie.backend.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts a source file into overlapping line windows small enough for an embedding model.
+ * Each chunk is prefixed with its file path so the vector carries where the code lives.
+ */
+public final class SourceChunker {
+
+    private static final int LINES_PER_CHUNK = 60;
+    private static final int OVERLAP_LINES = 10;
+    private static final int MAX_CHUNK_CHARS = 4000;
+
+    private SourceChunker() {
+    }
+
+    public static List<SourceChunk> chunk(String path, String content) {
+        List<SourceChunk> chunks = new ArrayList<>();
+        String[] lines = content.split("\n", -1);
+
+        int start = 0;
+        while (start < lines.length) {
+            int end = Math.min(start + LINES_PER_CHUNK, lines.length);
+
+            StringBuilder text = new StringBuilder(path).append('\n');
+            for (int i = start; i < end && text.length() < MAX_CHUNK_CHARS; i++) {
+                text.append(lines[i]).append('\n');
+            }
+            if (!text.substring(path.length()).isBlank()) {
+                chunks.add(new SourceChunk(path + "#" + (start + 1), path, start + 1, end, text.toString()));
+            }
+
+            if (end == lines.length) break;
+            start = end - OVERLAP_LINES;
+        }
+        return chunks;
+    }
+}
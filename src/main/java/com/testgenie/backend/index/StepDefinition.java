@@ -0,0 +1,10 @@
+package com.testgenie.backend.index;
+
+public record StepDefinition(
+        String keyword, // Given / When / Then / And / But
+        String expression, // Cucumber expression or regular expression, as written in the annotation
+        boolean regex,
+        String methodSignature,
+        String path,
+        int line
+) {}
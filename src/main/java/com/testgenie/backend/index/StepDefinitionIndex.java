@@ -0,0 +1,5 @@
+package com.testgenie.backend.index;
+
+import java.util.List;
+
+public record StepDefinitionIndex(List<StepDefinition> steps) {}
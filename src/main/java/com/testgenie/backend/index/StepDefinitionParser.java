@@ -0,0 +1,87 @@
+package com.testgenie.backend.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts Cucumber step definitions from Java source without compiling it: finds
+ * {@code @Given/@When/@Then/@And/@But} annotations and the method declaration that follows.
+ */
+public final class StepDefinitionParser {
+
+    private static final Pattern STEP_ANNOTATION = Pattern.compile(
+            "@(Given|When|Then|And|But)\\s*\\(\\s*(?:value\\s*=\\s*)?\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern METHOD_DECLARATION = Pattern.compile(
+            "(?:public\\s+|protected\\s+|private\\s+)?(?:static\\s+)?[\\w<>\\[\\],.?\\s]+?\\s+(\\w+)\\s*\\(([^)]*)\\)");
+
+    private StepDefinitionParser() {
+    }
+
+    public static List<StepDefinition> parse(String path, String source) {
+        List<StepDefinition> steps = new ArrayList<>();
+        if (!source.contains("io.cucumber") && !source.contains("cucumber.api")) return steps;
+
+        Matcher annotation = STEP_ANNOTATION.matcher(source);
+        while (annotation.find()) {
+            String expression = unescapeJava(annotation.group(2));
+            String signature = findMethodSignature(source, annotation.end());
+            int line = lineOf(source, annotation.start());
+
+            steps.add(new StepDefinition(annotation.group(1), expression, isRegex(expression), signature, path, line));
+        }
+        return steps;
+    }
+
+    // Cucumber treats anchored expressions as regular expressions, everything else as Cucumber expressions
+    private static boolean isRegex(String expression) {
+        return expression.startsWith("^") || expression.endsWith("$");
+    }
+
+    private static String findMethodSignature(String source, int from) {
+        int bodyStart = source.indexOf('{', from);
+        if (bodyStart < 0) return "";
+
+        // Drop the rest of the annotation and any further annotations before the declaration
+        String header = source.substring(source.indexOf(')', from) + 1, bodyStart)
+                .replaceAll("@\\w+(\\s*\\([^)]*\\))?", " ")
+                .replaceAll("\\s+", " ")
+                // Parameter lists wrapped over several lines collapse to what a one-line declaration reads like
+                .replace("( ", "(")
+                .replace(" )", ")")
+                .trim();
+
+        Matcher method = METHOD_DECLARATION.matcher(header);
+        if (!method.find()) return header;
+
+        String throwsClause = header.substring(method.end()).trim();
+        return header.substring(0, method.end()).trim() + (throwsClause.isEmpty() ? "" : " " + throwsClause);
+    }
+
+    private static int lineOf(String source, int offset) {
+        int line = 1;
+        for (int i = 0; i < offset; i++) {
+            if (source.charAt(i) == '\n') line++;
+        }
+        return line;
+    }
+
+    private static String unescapeJava(String literal) {
+        StringBuilder out = new StringBuilder(literal.length());
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c == '\\' && i + 1 < literal.length()) {
+                char next = literal.charAt(++i);
+                switch (next) {
+                    case 'n' -> out.append('\n');
+                    case 't' -> out.append('\t');
+                    default -> out.append(next);
+                }
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
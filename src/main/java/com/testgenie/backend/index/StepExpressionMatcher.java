@@ -0,0 +1,102 @@
+package com.testgenie.backend.index;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles a step definition's expression into a {@link Pattern} the same way Cucumber would
+ * match it against a scenario step: regular expressions as-is, Cucumber expressions translated
+ * (parameter types, optional text and alternative words).
+ */
+public final class StepExpressionMatcher {
+
+    private static final Map<String, String> PARAMETER_TYPES = Map.of(
+            "int", "(-?\\d+)",
+            "long", "(-?\\d+)",
+            "short", "(-?\\d+)",
+            "byte", "(-?\\d+)",
+            "biginteger", "(-?\\d+)",
+            "float", "(-?\\d*[.,]?\\d+)",
+            "double", "(-?\\d*[.,]?\\d+)",
+            "bigdecimal", "(-?\\d*[.,]?\\d+)",
+            "word", "([^\\s]+)",
+            "string", "(\"[^\"]*\"|'[^']*')");
+
+    private StepExpressionMatcher() {
+    }
+
+    public static Pattern compile(StepDefinition step) {
+        try {
+            return step.regex()
+                    ? Pattern.compile(step.expression())
+                    : Pattern.compile("^" + translateCucumberExpression(step.expression()) + "$");
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    static String translateCucumberExpression(String expression) {
+        StringBuilder regex = new StringBuilder();
+        String[] words = expression.split(" ", -1);
+
+        for (int w = 0; w < words.length; w++) {
+            if (w > 0) regex.append(' ');
+            String word = words[w];
+
+            // Alternative text: "click/tap on" -> (?:click|tap) on; parameters never contain '/'
+            if (word.contains("/") && !word.contains("{")) {
+                regex.append("(?:");
+                String[] alternatives = word.split("/");
+                for (int a = 0; a < alternatives.length; a++) {
+                    if (a > 0) regex.append('|');
+                    regex.append(translateWord(alternatives[a]));
+                }
+                regex.append(')');
+            } else {
+                regex.append(translateWord(word));
+            }
+        }
+        return regex.toString();
+    }
+
+    private static String translateWord(String word) {
+        StringBuilder regex = new StringBuilder();
+        int i = 0;
+        while (i < word.length()) {
+            char c = word.charAt(i);
+            if (c == '{') {
+                int close = word.indexOf('}', i);
+                if (close > i) {
+                    String type = word.substring(i + 1, close).toLowerCase();
+                    regex.append(PARAMETER_TYPES.getOrDefault(type, "(.*)"));
+                    i = close + 1;
+                    continue;
+                }
+            } else if (c == '(') {
+                int close = word.indexOf(')', i);
+                if (close > i) {
+                    regex.append("(?:");
+                    word.substring(i + 1, close).chars().forEach(ch -> appendLiteral(regex, (char) ch));
+                    regex.append(")?");
+                    i = close + 1;
+                    continue;
+                }
+            } else if (c == '\\' && i + 1 < word.length()) {
+                appendLiteral(regex, word.charAt(i + 1));
+                i += 2;
+                continue;
+            }
+            appendLiteral(regex, c);
+            i++;
+        }
+        return regex.toString();
+    }
+
+    private static void appendLiteral(StringBuilder regex, char c) {
+        if ("\\.[]{}()*+-?^$|".indexOf(c) >= 0) {
+            regex.append('\\');
+        }
+        regex.append(c);
+    }
+}
@@ -0,0 +1,55 @@
+package com.testgenie.backend.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits source text, file names and scenario prose into lowercase search terms.
+ * camelCase and snake_case identifiers are broken into their parts so that
+ * "LoginPageSteps" matches a scenario mentioning "login page".
+ */
+public final class TermTokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "with", "this", "that", "from", "into", "are", "was", "but", "not",
+            "public", "private", "protected", "static", "final", "void", "return", "new", "import",
+            "package", "class", "string", "int", "boolean", "java", "null", "true", "false");
+
+    private TermTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) return terms;
+
+        StringBuilder current = new StringBuilder();
+        char previous = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                // camelCase boundary: "pageSteps" -> "page", "steps"
+                if (Character.isUpperCase(c) && Character.isLowerCase(previous)) {
+                    addTerm(terms, current);
+                }
+                current.append(c);
+            } else {
+                addTerm(terms, current);
+            }
+            previous = c;
+        }
+        addTerm(terms, current);
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, StringBuilder current) {
+        if (current.length() >= 2) {
+            String term = current.toString().toLowerCase(Locale.ROOT);
+            if (!STOP_WORDS.contains(term)) {
+                terms.add(term);
+            }
+        }
+        current.setLength(0);
+    }
+}
@@ -0,0 +1,14 @@
+package com.testgenie.backend.index;
+
+import java.util.List;
+import java.util.Map;
+
+// Which chunks of which file version are in a project's vector index; drives incremental rebuilds
+public record VectorManifest(
+        String embeddingModel,
+        Map<String, FileChunks> files
+) {
+    public record FileChunks(String contentHash, List<ChunkRef> chunks) {}
+
+    public record ChunkRef(String id, int startLine, int endLine) {}
+}
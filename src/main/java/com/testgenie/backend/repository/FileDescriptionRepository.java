@@ -3,8 +3,11 @@ package com.testgenie.backend.repository;
 import com.testgenie.backend.entity.FileDescription;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface FileDescriptionRepository extends JpaRepository<FileDescription, Long> {
     Optional<FileDescription> findByProjectNameAndFilePath(String projectName, String filePath);
+
+    List<FileDescription> findByProjectName(String projectName);
 }
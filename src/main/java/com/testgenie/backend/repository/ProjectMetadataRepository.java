@@ -2,9 +2,42 @@ package com.testgenie.backend.repository;
 
 import com.testgenie.backend.entity.ProjectMetadata;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProjectMetadataRepository extends JpaRepository<ProjectMetadata, Long> {
     Optional<ProjectMetadata> findByProjectName(String projectName);
+
+    @Query("select m.projectName from ProjectMetadata m")
+    List<String> findAllProjectNames();
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ProjectMetadata m set m.descriptionVersion = coalesce(m.descriptionVersion, 0) + 1 where m.projectName = :projectName")
+    int incrementDescriptionVersion(@Param("projectName") String projectName);
+
+    // Targeted updates: a find-mutate-save would write back every column as loaded, undoing a concurrent
+    // incrementDescriptionVersion (and with it the generation context cache invalidation). Each one clears
+    // the persistence context so a later find in the same request sees the new row rather than a stale entity
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ProjectMetadata m set m.fileCount = :fileCount, m.totalSize = :totalSize, m.hash = :hash, "
+            + "m.archiveHash = :archiveHash, m.stats = :stats, m.uploadTime = :uploadTime, "
+            + "m.projectVersion = coalesce(m.projectVersion, 0) + 1 where m.projectName = :projectName")
+    int updateUpload(@Param("projectName") String projectName, @Param("fileCount") int fileCount,
+                     @Param("totalSize") long totalSize, @Param("hash") String hash,
+                     @Param("archiveHash") String archiveHash, @Param("stats") String stats,
+                     @Param("uploadTime") LocalDateTime uploadTime);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ProjectMetadata m set m.archiveHash = :archiveHash, m.stats = :stats where m.projectName = :projectName")
+    int updateArchive(@Param("projectName") String projectName, @Param("archiveHash") String archiveHash,
+                      @Param("stats") String stats);
 }
@@ -0,0 +1,38 @@
+package com.testgenie.backend.service;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link FileStorageService} for the paths that move many objects:
+ * every call returns straight away and completes when the I/O does, so callers can keep many
+ * requests in flight and compose them without tying up a thread per request.
+ * <p>
+ * Failures complete the future exceptionally with the underlying {@link java.io.IOException}
+ * (or SDK exception).
+ */
+public interface AsyncFileStorageService {
+
+    CompletableFuture<Void> saveProject(String projectName, Path sourceDir);
+
+    // Drops whatever the project held before, then stores sourceDir
+    CompletableFuture<Void> replaceProject(String projectName, Path sourceDir);
+
+    CompletableFuture<Void> deleteProject(String projectName);
+
+    // Paths relative to the project root, sorted
+    CompletableFuture<List<String>> listProjectFiles(String projectName);
+
+    CompletableFuture<Optional<byte[]>> readProjectFile(String projectName, String relativePath);
+
+    // The file as stored, possibly still compressed, for callers that can hand the encoded bytes on as they are
+    default CompletableFuture<Optional<StoredContent>> readStoredProjectFile(String projectName, String relativePath) {
+        return readProjectFile(projectName, relativePath)
+                .thenApply(content -> content.map(bytes -> new StoredContent(bytes, null)));
+    }
+
+    // encoding is the HTTP content coding of the bytes ("gzip"), or null when they are the file itself
+    record StoredContent(byte[] content, String encoding) {}
+}
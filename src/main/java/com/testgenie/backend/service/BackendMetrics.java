@@ -0,0 +1,114 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.config.MetricsProperties;
+import io.micrometer.core.instrument.*;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timers, counters and size distributions for the upload, explorer and generation hot paths.
+ * Every timer publishes a percentile histogram so p50/p99 can be computed in Prometheus.
+ * <p>
+ * Tag values always come from small fixed sets. The project name is the one open-ended value,
+ * so only the first {@code metrics.project-tag-limit} projects seen get their own tag.
+ */
+@Component
+public class BackendMetrics {
+
+    static final String OTHER_PROJECT = "other";
+
+    private final MeterRegistry registry;
+    private final int projectTagLimit;
+    private final Set<String> taggedProjects = ConcurrentHashMap.newKeySet();
+
+    public BackendMetrics(MeterRegistry registry, MetricsProperties properties) {
+        this.registry = registry;
+        this.projectTagLimit = properties.getProjectTagLimit();
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    // Upload: archive_hash, store_archive, extract, scan, hash, index, persist, metadata
+    public void recordUploadPhase(Timer.Sample sample, String phase, String project) {
+        sample.stop(timer("testgenie.upload.phase", "phase", phase, "project", projectTag(project)));
+    }
+
+    // outcome: created, replaced, unchanged, empty
+    public void recordUpload(String outcome, String project, long archiveBytes, long extractedFiles) {
+        registry.counter("testgenie.upload.result", "outcome", outcome, "project", projectTag(project)).increment();
+        summary("testgenie.upload.archive.bytes", "bytes").record(archiveBytes);
+        summary("testgenie.upload.files", null).record(extractedFiles);
+    }
+
+    // reason is one of the fixed skip rules (deny-listed folder or extension, hidden entry)
+    public void recordSkippedEntry(String reason) {
+        registry.counter("testgenie.upload.skipped", "reason", reason).increment();
+    }
+
+    // Storage backend calls; operation: put, read, list
+    public void recordStorage(Timer.Sample sample, String backend, String operation, long bytes) {
+        sample.stop(timer("testgenie.storage.operation", "backend", backend, "operation", operation));
+        if (bytes >= 0) {
+            summary("testgenie.storage.bytes", "bytes", "backend", backend, "operation", operation).record(bytes);
+        }
+    }
+
+    public void recordExplorerTree(Timer.Sample sample, String project, int nodes) {
+        sample.stop(timer("testgenie.explorer.request", "operation", "tree", "project", projectTag(project)));
+        summary("testgenie.explorer.tree.nodes", null).record(nodes);
+    }
+
+    public void recordExplorerContent(Timer.Sample sample, String project, long bytes) {
+        sample.stop(timer("testgenie.explorer.request", "operation", "content", "project", projectTag(project)));
+        summary("testgenie.explorer.content.bytes", "bytes").record(bytes);
+    }
+
+    public void recordContextFetch(Timer.Sample sample, int files) {
+        sample.stop(timer("testgenie.generation.context.fetch"));
+        summary("testgenie.generation.context.files", null).record(files);
+    }
+
+    public void recordPromptAssembly(Timer.Sample sample, String project, int promptChars) {
+        sample.stop(timer("testgenie.generation.prompt", "project", projectTag(project)));
+        summary("testgenie.generation.prompt.chars", null).record(promptChars);
+    }
+
+    // mode: blocking, stream; outcome: success, error, cancelled
+    public void recordModelCall(Timer.Sample sample, String mode, String outcome) {
+        sample.stop(timer("testgenie.generation.model", "mode", mode, "outcome", outcome));
+    }
+
+    public void recordFirstToken(Timer.Sample sample) {
+        sample.stop(timer("testgenie.generation.model.first_token"));
+    }
+
+    String projectTag(String project) {
+        if (project == null) return OTHER_PROJECT;
+        if (taggedProjects.contains(project)) return project;
+        // Racy by at most a few entries, which is fine for a cardinality guard
+        if (taggedProjects.size() < projectTagLimit) {
+            taggedProjects.add(project);
+            return project;
+        }
+        return OTHER_PROJECT;
+    }
+
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private DistributionSummary summary(String name, String baseUnit, String... tags) {
+        return DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
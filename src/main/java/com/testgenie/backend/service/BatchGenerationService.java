@@ -0,0 +1,203 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.config.GenerationProperties;
+import com.testgenie.backend.index.FeatureScenario;
+import com.testgenie.backend.service.GenerationCache.ProjectContext;
+import com.testgenie.backend.service.GenerationScheduler.Ticket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates code for every scenario of a feature file against one shared project context.
+ * Up to {@code generation.batch-parallelism} scenarios are in flight at once; each one's prompt
+ * is assembled off the model's critical path and then handed to {@link GenerationScheduler},
+ * so a batch shares the model server fairly with single requests.
+ */
+@Service
+public class BatchGenerationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchGenerationService.class);
+
+    private static final String MODE = "json";
+    private static final long QUEUE_FULL_RETRY_MS = 1000;
+
+    private final GenerationContextService generationContextService;
+    private final GenerationScheduler generationScheduler;
+    private final GenerationCache generationCache;
+    private final OllamaClient ollamaClient;
+    private final GenerationProperties generationProperties;
+    private final AsyncTaskExecutor taskExecutor;
+
+    public BatchGenerationService(GenerationContextService generationContextService,
+                                  GenerationScheduler generationScheduler,
+                                  GenerationCache generationCache,
+                                  OllamaClient ollamaClient,
+                                  GenerationProperties generationProperties,
+                                  @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.generationContextService = generationContextService;
+        this.generationScheduler = generationScheduler;
+        this.generationCache = generationCache;
+        this.ollamaClient = ollamaClient;
+        this.generationProperties = generationProperties;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public interface BatchListener {
+        void onScenarioCompleted(int index, FeatureScenario scenario, String result, boolean cached);
+
+        void onScenarioFailed(int index, FeatureScenario scenario, Throwable error);
+    }
+
+    public record BatchSummary(int scenarios, int completed, int failed, int cached) {}
+
+    // Loads the shared context up front, so an unknown project or a storage failure is reported before anything streams
+    public Batch start(String project, List<FeatureScenario> scenarios, boolean bypassCache,
+                       BatchListener listener) throws IOException {
+        ProjectContext context = generationContextService.loadContext(project, bypassCache);
+        Batch batch = new Batch(project, scenarios, context, bypassCache, listener);
+
+        int parallelism = Math.max(1, Math.min(generationProperties.getBatchParallelism(), scenarios.size()));
+        for (int i = 0; i < parallelism; i++) {
+            batch.startNext();
+        }
+        if (scenarios.isEmpty()) {
+            batch.finish();
+        }
+        return batch;
+    }
+
+    public final class Batch {
+        private final String project;
+        private final List<FeatureScenario> scenarios;
+        private final ProjectContext context;
+        private final boolean bypassCache;
+        private final BatchListener listener;
+
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger cached = new AtomicInteger();
+        private final Set<Ticket> active = ConcurrentHashMap.newKeySet();
+        private final CompletableFuture<BatchSummary> completion = new CompletableFuture<>();
+        private volatile boolean cancelled;
+
+        private Batch(String project, List<FeatureScenario> scenarios, ProjectContext context,
+                      boolean bypassCache, BatchListener listener) {
+            this.project = project;
+            this.scenarios = scenarios;
+            this.context = context;
+            this.bypassCache = bypassCache;
+            this.listener = listener;
+        }
+
+        public CompletableFuture<BatchSummary> completion() {
+            return completion;
+        }
+
+        // Stops feeding new scenarios and releases this batch's claim on the ones in flight
+        public void cancel() {
+            cancelled = true;
+            active.forEach(Ticket::cancel);
+            completion.cancel(false);
+        }
+
+        private void startNext() {
+            int index = next.getAndIncrement();
+            if (cancelled || index >= scenarios.size()) return;
+
+            FeatureScenario scenario = scenarios.get(index);
+            Optional<String> resultKey = generationContextService.resultKey(context, scenario.text(), MODE, ollamaClient.getModel());
+
+            String hit = resultKey.isPresent() && !bypassCache ? generationCache.getResult(resultKey.get()) : null;
+            if (hit != null) {
+                cached.incrementAndGet();
+                complete(index, scenario, hit, true, null);
+                return;
+            }
+
+            // Prompt assembly (ranking, storage reads) overlaps with the model working on other scenarios
+            CompletableFuture.supplyAsync(() -> {
+                try {
+                    return generationContextService.assemblePrompt(project, context, scenario.text());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, taskExecutor).whenComplete((prompt, error) -> {
+                if (error != null) {
+                    complete(index, scenario, null, false, error);
+                } else {
+                    submit(index, scenario, prompt, resultKey);
+                }
+            });
+        }
+
+        private void submit(int index, FeatureScenario scenario, String prompt, Optional<String> resultKey) {
+            if (cancelled) return;
+
+            Ticket ticket;
+            try {
+                ticket = generationScheduler.submit(
+                        generationContextService.coalescingKey(project, scenario.text(), MODE, resultKey),
+                        (onToken, isCancelled) -> ollamaClient.generate(prompt, isCancelled));
+            } catch (GenerationQueueFullException e) {
+                // Shared queue is full of other requests; wait for room instead of failing the scenario
+                CompletableFuture.runAsync(() -> submit(index, scenario, prompt, resultKey),
+                        CompletableFuture.delayedExecutor(QUEUE_FULL_RETRY_MS, TimeUnit.MILLISECONDS, taskExecutor));
+                return;
+            }
+
+            active.add(ticket);
+            if (cancelled) ticket.cancel();
+
+            ticket.result().whenComplete((result, error) -> {
+                active.remove(ticket);
+                if (error == null) {
+                    resultKey.ifPresent(key -> generationCache.putResult(key, result));
+                }
+                complete(index, scenario, result, false, error);
+            });
+        }
+
+        private void complete(int index, FeatureScenario scenario, String result, boolean fromCache, Throwable error) {
+            if (!cancelled) {
+                try {
+                    if (error == null) {
+                        completed.incrementAndGet();
+                        listener.onScenarioCompleted(index, scenario, result, fromCache);
+                    } else {
+                        failed.incrementAndGet();
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        log.info("Batch scenario '{}' for project '{}' failed: {}", scenario.name(), project, cause.toString());
+                        listener.onScenarioFailed(index, scenario, cause);
+                    }
+                } catch (RuntimeException e) {
+                    // Listener gone (client disconnected); nobody wants the rest of the batch
+                    log.debug("Batch listener failed, cancelling: {}", e.getMessage());
+                    cancel();
+                    return;
+                }
+            }
+
+            if (completed.get() + failed.get() == scenarios.size()) {
+                finish();
+            } else {
+                startNext();
+            }
+        }
+
+        private void finish() {
+            completion.complete(new BatchSummary(scenarios.size(), completed.get(), failed.get(), cached.get()));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.config.UploadProperties;
+import com.testgenie.backend.dto.ChunkedUploadDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Resumable archive uploads in fixed-size parts: initiate, send parts (in any order, in parallel,
+ * re-sending any that failed), then complete. Parts go straight to storage as they arrive, so an
+ * archive is never held in memory or limited by the multipart request size.
+ * <p>
+ * Sessions live in memory: an upload survives dropped connections but not a restart of this process.
+ * Sessions idle for longer than {@code upload.session-ttl} are aborted the next time sessions are looked at.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private final FileStorageService fileStorageService;
+    private final UploadProperties properties;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    public ChunkedUploadService(FileStorageService fileStorageService, UploadProperties properties) {
+        this.fileStorageService = fileStorageService;
+        this.properties = properties;
+    }
+
+    public ChunkedUploadDTO initiate(String fileName, long totalSize) throws IOException {
+        if (fileName == null || !fileName.toLowerCase().endsWith(".zip")) {
+            throw new IllegalArgumentException("Only .zip archives can be uploaded");
+        }
+        long maxSize = properties.getMaxArchiveSize().toBytes();
+        if (totalSize <= 0 || totalSize > maxSize) {
+            throw new IllegalArgumentException("Archive size must be between 1 and " + maxSize + " bytes");
+        }
+        expireStale();
+
+        long partSize = properties.getPartSize().toBytes();
+        int partCount = (int) ((totalSize + partSize - 1) / partSize);
+        String storageUploadId = fileStorageService.initiateZipUpload(fileName, totalSize);
+
+        Session session = new Session(UUID.randomUUID().toString(), fileName, totalSize, partSize, partCount, storageUploadId);
+        sessions.put(session.id, session);
+        log.info("📦 Chunked upload {} started for '{}' ({} bytes in {} parts)", session.id, fileName, totalSize, partCount);
+        return session.toDto();
+    }
+
+    // Re-sending a part replaces it; the body must be exactly the part's length
+    public ChunkedUploadDTO putPart(String uploadId, int partNumber, InputStream data, long contentLength) throws IOException {
+        Session session = active(uploadId);
+        if (partNumber < 1 || partNumber > session.partCount) {
+            throw new IllegalArgumentException("Part number must be between 1 and " + session.partCount);
+        }
+        long expectedLength = session.partLength(partNumber);
+        if (contentLength >= 0 && contentLength != expectedLength) {
+            throw new IllegalArgumentException("Part " + partNumber + " must be " + expectedLength + " bytes, got " + contentLength);
+        }
+
+        String tag = fileStorageService.uploadZipPart(session.fileName, session.storageUploadId, partNumber,
+                (partNumber - 1) * session.partSize, data, expectedLength);
+        session.parts.put(partNumber, tag);
+        session.touch();
+        return session.toDto();
+    }
+
+    public ChunkedUploadDTO status(String uploadId) {
+        expireStale();
+        return active(uploadId).toDto();
+    }
+
+    /**
+     * Assembles the parts into the stored archive, at the same location {@link FileStorageService#saveZipFile} uses.
+     * The session is gone afterwards; if assembling fails it stays open so the client can retry.
+     *
+     * @throws UploadNotReadyException if parts are missing or the upload is already being completed
+     */
+    public CompletedUpload complete(String uploadId) throws IOException {
+        Session session = active(uploadId);
+        List<Integer> missing = IntStream.rangeClosed(1, session.partCount)
+                .filter(part -> !session.parts.containsKey(part))
+                .boxed()
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new UploadNotReadyException("Upload " + uploadId + " is missing parts " + missing);
+        }
+        if (!session.completing.compareAndSet(false, true)) {
+            throw new UploadNotReadyException("Upload " + uploadId + " is already being completed");
+        }
+
+        try {
+            List<FileStorageService.UploadedPart> parts = session.parts.entrySet().stream()
+                    .map(part -> new FileStorageService.UploadedPart(part.getKey(), part.getValue()))
+                    .toList();
+            Path storedPath = fileStorageService.completeZipUpload(session.fileName, session.storageUploadId, parts);
+            sessions.remove(uploadId);
+            log.info("✅ Chunked upload {} assembled into {}", uploadId, storedPath);
+            return new CompletedUpload(session.fileName, storedPath, session.totalSize);
+        } finally {
+            session.completing.set(false);
+        }
+    }
+
+    public void abort(String uploadId) throws IOException {
+        Session session = sessions.remove(uploadId);
+        if (session == null) {
+            throw new UploadNotFoundException(uploadId);
+        }
+        fileStorageService.abortZipUpload(session.fileName, session.storageUploadId);
+        log.info("🗑️ Chunked upload {} aborted", uploadId);
+    }
+
+    public int activeUploads() {
+        return sessions.size();
+    }
+
+    private Session active(String uploadId) {
+        Session session = sessions.get(uploadId);
+        if (session == null || session.isExpired(properties.getSessionTtl().toMillis())) {
+            throw new UploadNotFoundException(uploadId);
+        }
+        return session;
+    }
+
+    private void expireStale() {
+        long ttl = properties.getSessionTtl().toMillis();
+        for (Session session : new ArrayList<>(sessions.values())) {
+            if (session.isExpired(ttl) && !session.completing.get() && sessions.remove(session.id, session)) {
+                try {
+                    fileStorageService.abortZipUpload(session.fileName, session.storageUploadId);
+                    log.info("⌛ Chunked upload {} expired", session.id);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not abort expired upload {}", session.id, e);
+                }
+            }
+        }
+    }
+
+    public record CompletedUpload(String fileName, Path storedPath, long size) {}
+
+    private static final class Session {
+        final String id;
+        final String fileName;
+        final long totalSize;
+        final long partSize;
+        final int partCount;
+        final String storageUploadId;
+        // Part number -> tag returned by storage, in part order
+        final Map<Integer, String> parts = new ConcurrentSkipListMap<>();
+        final AtomicBoolean completing = new AtomicBoolean();
+        volatile long lastTouched = System.currentTimeMillis();
+
+        Session(String id, String fileName, long totalSize, long partSize, int partCount, String storageUploadId) {
+            this.id = id;
+            this.fileName = fileName;
+            this.totalSize = totalSize;
+            this.partSize = partSize;
+            this.partCount = partCount;
+            this.storageUploadId = storageUploadId;
+        }
+
+        long partLength(int partNumber) {
+            return partNumber < partCount ? partSize : totalSize - (long) (partCount - 1) * partSize;
+        }
+
+        void touch() {
+            lastTouched = System.currentTimeMillis();
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - lastTouched > ttlMillis;
+        }
+
+        ChunkedUploadDTO toDto() {
+            return new ChunkedUploadDTO(id, fileName, totalSize, partSize, partCount, List.copyOf(parts.keySet()));
+        }
+    }
+}
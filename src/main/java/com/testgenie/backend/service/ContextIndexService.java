@@ -0,0 +1,144 @@
+package com.testgenie.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testgenie.backend.config.GenerationProperties;
+import com.testgenie.backend.index.ContextIndex;
+import com.testgenie.backend.index.IndexedFile;
+import com.testgenie.backend.index.TermTokenizer;
+import com.testgenie.backend.util.WeightedLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+@Service
+public class ContextIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContextIndexService.class);
+
+    static final String ARTIFACT_NAME = "context-index.json";
+    private static final Set<String> INDEXED_EXTENSIONS = Set.of(".java", ".feature", ".kt", ".groovy");
+    static final long MAX_INDEXED_FILE_SIZE = 512 * 1024;
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final FileStorageService fileStorageService;
+    private final ObjectMapper mapper = new ObjectMapper();
+    // Least recently used projects are dropped first and read back from their stored artifact when needed
+    private final WeightedLruCache<String, ContextIndex> indexes;
+
+    public ContextIndexService(FileStorageService fileStorageService, GenerationProperties generationProperties) {
+        this.fileStorageService = fileStorageService;
+        this.indexes = new WeightedLruCache<>(generationProperties.getContextIndexCacheMaxBytes(), ContextIndexService::weight);
+    }
+
+    // Called at upload time while the extracted sources are still on local disk
+    public ContextIndex indexProject(String projectName, Path contentRoot, String projectHash) throws IOException {
+        return indexProject(projectName, readSources(contentRoot), projectHash);
+    }
+
+    // Sources keyed by relative path, for projects that only exist in storage
+    public ContextIndex indexProject(String projectName, Map<String, String> sources, String projectHash) throws IOException {
+        long start = System.currentTimeMillis();
+        ContextIndex index = buildIndex(sources, projectHash);
+
+        fileStorageService.writeArtifact(projectName, ARTIFACT_NAME, mapper.writeValueAsBytes(index));
+        indexes.put(projectName, index);
+
+        log.info("🔎 Indexed {} files for project '{}' in {} ms",
+                index.documentCount(), projectName, System.currentTimeMillis() - start);
+        return index;
+    }
+
+    public Optional<ContextIndex> getIndex(String projectName) {
+        ContextIndex cached = indexes.get(projectName);
+        if (cached != null) return Optional.of(cached);
+
+        try {
+            Optional<byte[]> stored = fileStorageService.readArtifact(projectName, ARTIFACT_NAME);
+            if (stored.isEmpty()) return Optional.empty();
+
+            ContextIndex index = mapper.readValue(stored.get(), ContextIndex.class);
+            indexes.put(projectName, index);
+            return Optional.of(index);
+        } catch (IOException e) {
+            log.warn("Could not load context index for project '{}'", projectName, e);
+            return Optional.empty();
+        }
+    }
+
+    // Forgets a deleted project's in-memory index
+    public void evict(String projectName) {
+        indexes.remove(projectName);
+    }
+
+    public ContextIndex buildIndex(Path contentRoot, String projectHash) throws IOException {
+        return buildIndex(readSources(contentRoot), projectHash);
+    }
+
+    public ContextIndex buildIndex(Map<String, String> sources, String projectHash) {
+        List<IndexedFile> files = new ArrayList<>();
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        long totalLength = 0;
+
+        for (String relativePath : new TreeSet<>(sources.keySet())) {
+            String content = sources.get(relativePath);
+            if (!isIndexable(Path.of(relativePath)) || content.length() > MAX_INDEXED_FILE_SIZE) continue;
+
+            List<String> terms = TermTokenizer.tokenize(content);
+            Map<String, Integer> termFrequency = new HashMap<>();
+            for (String term : terms) {
+                termFrequency.merge(term, 1, Integer::sum);
+            }
+            termFrequency.keySet().forEach(term -> documentFrequency.merge(term, 1, Integer::sum));
+
+            Set<String> nameTerms = new HashSet<>(TermTokenizer.tokenize(relativePath));
+            int tokenEstimate = Math.max(1, content.length() / CHARS_PER_TOKEN);
+
+            files.add(new IndexedFile(relativePath, terms.size(), tokenEstimate, nameTerms, termFrequency));
+            totalLength += terms.size();
+        }
+
+        double averageLength = files.isEmpty() ? 0 : (double) totalLength / files.size();
+        return new ContextIndex(projectHash, files.size(), averageLength, documentFrequency, files);
+    }
+
+    private Map<String, String> readSources(Path contentRoot) throws IOException {
+        Map<String, String> sources = new HashMap<>();
+        try (Stream<Path> paths = Files.walk(contentRoot)) {
+            for (Path file : paths.filter(Files::isRegularFile).filter(ContextIndexService::isIndexable).toList()) {
+                if (Files.size(file) > MAX_INDEXED_FILE_SIZE) continue;
+                String relativePath = contentRoot.relativize(file).toString().replace("\\", "/");
+                sources.put(relativePath, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            }
+        }
+        return sources;
+    }
+
+    // Rough in-memory footprint: term strings plus map entry overhead
+    static long weight(ContextIndex index) {
+        long bytes = termBytes(index.documentFrequency().keySet());
+        for (IndexedFile file : index.files()) {
+            bytes += 2L * file.path().length() + termBytes(file.nameTerms()) + termBytes(file.termFrequency().keySet());
+        }
+        return bytes;
+    }
+
+    private static long termBytes(Collection<String> terms) {
+        long bytes = 0;
+        for (String term : terms) {
+            bytes += 2L * term.length() + 48;
+        }
+        return bytes;
+    }
+
+    static boolean isIndexable(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        return INDEXED_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+}
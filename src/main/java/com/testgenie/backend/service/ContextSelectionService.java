@@ -0,0 +1,119 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.index.ContextIndex;
+import com.testgenie.backend.index.IndexedFile;
+import com.testgenie.backend.index.TermTokenizer;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Ranks a project's files against a scenario with BM25 and packs the best ones into a token budget.
+ * Content is scored from the precomputed {@link ContextIndex}; file names and user descriptions
+ * act as boosted fields since they are short and written to say what the file is for.
+ * An optional semantic ranking (from the vector index) is merged in with reciprocal rank fusion.
+ */
+@Service
+public class ContextSelectionService {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.5;
+    private static final int RRF_K = 60;
+
+    public List<String> select(ContextIndex index, Map<String, String> descriptions, String scenario, int tokenBudget) {
+        return select(index, descriptions, scenario, tokenBudget, List.of(), Set.of());
+    }
+
+    public List<String> select(ContextIndex index, Map<String, String> descriptions, String scenario,
+                               int tokenBudget, List<String> semanticRanking, Set<String> excludedPaths) {
+        if (index.files().isEmpty()) return List.of();
+
+        List<ScoredFile> ranked = rankLexical(index, descriptions, scenario);
+        if (!semanticRanking.isEmpty()) {
+            ranked = fuse(index, ranked, semanticRanking);
+        }
+
+        // Greedy packing: take files in score order, skipping any that would overflow the budget
+        List<String> selected = new ArrayList<>();
+        int used = 0;
+        for (ScoredFile candidate : ranked) {
+            if (excludedPaths.contains(candidate.file().path())) continue;
+            int cost = candidate.file().tokenEstimate();
+            if (used + cost > tokenBudget) continue;
+            selected.add(candidate.file().path());
+            used += cost;
+        }
+        return selected;
+    }
+
+    private List<ScoredFile> rankLexical(ContextIndex index, Map<String, String> descriptions, String scenario) {
+        Set<String> queryTerms = new LinkedHashSet<>(TermTokenizer.tokenize(scenario));
+        if (queryTerms.isEmpty()) return List.of();
+
+        List<ScoredFile> ranked = new ArrayList<>();
+        for (IndexedFile file : index.files()) {
+            double score = score(index, file, descriptions.get(file.path()), queryTerms);
+            if (score > 0) {
+                ranked.add(new ScoredFile(file, score));
+            }
+        }
+        ranked.sort(Comparator.comparingDouble(ScoredFile::score).reversed());
+        return ranked;
+    }
+
+    // Reciprocal rank fusion: BM25 and vector scores live on different scales, ranks do not
+    private List<ScoredFile> fuse(ContextIndex index, List<ScoredFile> lexical, List<String> semanticRanking) {
+        Map<String, IndexedFile> byPath = new HashMap<>();
+        index.files().forEach(file -> byPath.put(file.path(), file));
+
+        Map<String, Double> fused = new HashMap<>();
+        for (int rank = 0; rank < lexical.size(); rank++) {
+            fused.merge(lexical.get(rank).file().path(), 1.0 / (RRF_K + rank + 1), Double::sum);
+        }
+        for (int rank = 0; rank < semanticRanking.size(); rank++) {
+            if (byPath.containsKey(semanticRanking.get(rank))) {
+                fused.merge(semanticRanking.get(rank), 1.0 / (RRF_K + rank + 1), Double::sum);
+            }
+        }
+
+        List<ScoredFile> ranked = new ArrayList<>();
+        fused.forEach((path, score) -> ranked.add(new ScoredFile(byPath.get(path), score)));
+        ranked.sort(Comparator.comparingDouble(ScoredFile::score).reversed());
+        return ranked;
+    }
+
+    private double score(ContextIndex index, IndexedFile file, String description, Set<String> queryTerms) {
+        Set<String> descriptionTerms = description == null
+                ? Set.of()
+                : new HashSet<>(TermTokenizer.tokenize(description));
+
+        double lengthNorm = index.averageLength() > 0 ? file.length() / index.averageLength() : 1.0;
+        double score = 0;
+
+        for (String term : queryTerms) {
+            double idf = idf(index, term);
+
+            int tf = file.termFrequency().getOrDefault(term, 0);
+            if (tf > 0) {
+                score += idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * lengthNorm));
+            }
+            if (file.nameTerms().contains(term)) {
+                score += NAME_WEIGHT * idf;
+            }
+            if (descriptionTerms.contains(term)) {
+                score += DESCRIPTION_WEIGHT * idf;
+            }
+        }
+        return score;
+    }
+
+    private double idf(ContextIndex index, String term) {
+        int n = index.documentCount();
+        int df = index.documentFrequency().getOrDefault(term, 0);
+        return Math.log(1 + (n - df + 0.5) / (df + 0.5));
+    }
+
+    private record ScoredFile(IndexedFile file, double score) {}
+}
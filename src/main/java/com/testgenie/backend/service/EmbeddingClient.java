@@ -0,0 +1,11 @@
+package com.testgenie.backend.service;
+
+import java.util.List;
+
+// Turns text into embedding vectors; swap in a stub bean to run without a model server
+public interface EmbeddingClient {
+
+    String modelName();
+
+    List<float[]> embed(List<String> texts);
+}
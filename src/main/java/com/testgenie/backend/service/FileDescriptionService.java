@@ -16,9 +16,11 @@ public class FileDescriptionService {
     private static final Logger log = LoggerFactory.getLogger(FileDescriptionService.class);
 
     private final FileDescriptionRepository repository;
+    private final ProjectMetadataService projectMetadataService;
 
-    public FileDescriptionService(FileDescriptionRepository repository) {
+    public FileDescriptionService(FileDescriptionRepository repository, ProjectMetadataService projectMetadataService) {
         this.repository = repository;
+        this.projectMetadataService = projectMetadataService;
     }
 
     public void save(String project, String filePath, String description) {
@@ -37,6 +39,9 @@ public class FileDescriptionService {
             repository.save(entry);
             log.info("💾 Saved description for project='{}', file='{}': Description: {}", project, path.isEmpty() ? "(project)" : path, trimmed);
         }
+
+        // Invalidates cached generation context built from the previous descriptions
+        projectMetadataService.bumpDescriptionVersion(project);
     }
 
     public Optional<String> get(String project, String filePath) {
@@ -46,8 +51,7 @@ public class FileDescriptionService {
     }
 
     public Map<String, String> getAllDescriptionsForProject(String projectName) {
-        return repository.findAll().stream()
-                .filter(desc -> desc.getProjectName().equals(projectName))
+        return repository.findByProjectName(projectName).stream()
                 .collect(Collectors.toMap(
                         FileDescription::getFilePath,
                         FileDescription::getDescription
@@ -3,8 +3,10 @@ package com.testgenie.backend.service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 public interface FileStorageService {
     Path saveZipFile(MultipartFile file) throws IOException;
@@ -16,11 +18,31 @@ public interface FileStorageService {
     Path getBaseDir();
 
 
-    void replaceProject(String projectName, Path sourceDir) throws IOException;
+    void deleteRecursively(Path path) throws IOException;
 
-    void saveNewProject(String projectName, Path sourceDir) throws IOException;
+    // Chunked archive upload: parts may arrive in any order, in parallel, and be re-sent after a failure.
+    // Returns the backend's id for the upload; completeZipUpload returns the same kind of path as saveZipFile.
+    String initiateZipUpload(String fileName, long totalSize) throws IOException;
 
-    void deleteRecursively(Path path) throws IOException;
+    // offset is where the part starts in the archive; the returned tag has to be passed back on completion
+    String uploadZipPart(String fileName, String uploadId, int partNumber, long offset, InputStream data, long length) throws IOException;
+
+    Path completeZipUpload(String fileName, String uploadId, List<UploadedPart> parts) throws IOException;
+
+    void abortZipUpload(String fileName, String uploadId) throws IOException;
+
+    record UploadedPart(int partNumber, String tag) {}
+
+    // Local copy of a stored archive for extraction: written to target, or the stored file itself if it is already on local disk
+    Path downloadZip(Path storedPath, Path target) throws IOException;
+
+    // Derived per-project data (indexes etc.), kept outside the project tree so it never shows up in the explorer
+    void writeArtifact(String projectName, String artifactName, byte[] content) throws IOException;
+
+    Optional<byte[]> readArtifact(String projectName, String artifactName) throws IOException;
+
+    // Project sources by path relative to the project root, wherever the backend keeps them
+    List<String> listProjectFiles(String projectName) throws IOException;
 
-    Path downloadZipToTemp(Path s3Path) throws IOException; // 👈 NEW METHOD
+    Optional<byte[]> readProjectFile(String projectName, String relativePath) throws IOException;
 }
\ No newline at end of file
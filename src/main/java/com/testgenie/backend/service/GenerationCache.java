@@ -0,0 +1,104 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.config.GenerationProperties;
+import com.testgenie.backend.util.WeightedLruCache;
+import com.testgenie.backend.util.WeightedLruCache.CacheStats;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Two cache levels for code generation:
+ * <ol>
+ *     <li>project context (descriptions and already-read file contents) per project hash and description version;</li>
+ *     <li>completed generations per context, normalised scenario, model and generation parameters.</li>
+ * </ol>
+ * Both keys change whenever their inputs do, so entries never need explicit invalidation.
+ */
+@Service
+public class GenerationCache {
+
+    private final WeightedLruCache<String, ProjectContext> contexts;
+    private final WeightedLruCache<String, String> results;
+
+    public GenerationCache(GenerationProperties properties) {
+        this.contexts = new WeightedLruCache<>(properties.getContextCacheMaxBytes(), ProjectContext::weight);
+        this.results = new WeightedLruCache<>(properties.getResultCacheMaxBytes(), result -> 2L * result.length());
+    }
+
+    public static String contextKey(String projectHash, long descriptionVersion) {
+        return projectHash + ":" + descriptionVersion;
+    }
+
+    public static String resultKey(String contextKey, String scenario, String model, String parameters) {
+        return contextKey + "|" + model + "|" + parameters + "|" + sha256(normalizeScenario(scenario));
+    }
+
+    // Whitespace and comment differences should not defeat the cache; step text itself is kept verbatim
+    static String normalizeScenario(String scenario) {
+        return scenario.lines()
+                .map(line -> line.trim().replaceAll("\\s+", " "))
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .collect(Collectors.joining("\n"));
+    }
+
+    public ProjectContext getContext(String key) {
+        return contexts.get(key);
+    }
+
+    public void putContext(String key, ProjectContext context) {
+        contexts.put(key, context);
+    }
+
+    public String getResult(String key) {
+        return results.get(key);
+    }
+
+    public void putResult(String key, String result) {
+        results.put(key, result);
+    }
+
+    public CacheStats contextStats() {
+        return contexts.stats();
+    }
+
+    public CacheStats resultStats() {
+        return results.stats();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // File contents fill in lazily as scenarios select them; re-put the context to re-weigh it.
+    // The key is the one the context was loaded under (null without a project hash), so a commit that lands
+    // mid-request cannot file these contents under the new generation's key.
+    public record ProjectContext(String key, Map<String, String> descriptions, Map<String, String> fileContents) {
+
+        public ProjectContext(String key, Map<String, String> descriptions) {
+            this(key, descriptions, new ConcurrentHashMap<>());
+        }
+
+        long weight() {
+            long chars = 0;
+            for (Map.Entry<String, String> entry : descriptions.entrySet()) {
+                chars += entry.getKey().length() + entry.getValue().length();
+            }
+            for (Map.Entry<String, String> entry : fileContents.entrySet()) {
+                chars += entry.getKey().length() + entry.getValue().length();
+            }
+            return 2 * chars;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.config.GenerationProperties;
+import com.testgenie.backend.entity.ProjectMetadata;
+import com.testgenie.backend.index.ContextIndex;
+import com.testgenie.backend.index.StepDefinition;
+import com.testgenie.backend.index.StepDefinitionIndex;
+import com.testgenie.backend.service.GenerationCache.ProjectContext;
+import com.testgenie.backend.service.StepDefinitionService.StepMatch;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+// Builds the LLM prompt for a scenario: descriptions, step catalogue and the most relevant file contents
+@Service
+public class GenerationContextService {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationContextService.class);
+
+    private final ContextIndexService contextIndexService;
+    private final ContextSelectionService contextSelectionService;
+    private final VectorIndexService vectorIndexService;
+    private final StepDefinitionService stepDefinitionService;
+    private final FileDescriptionService fileDescriptionService;
+    private final ProjectMetadataService projectMetadataService;
+    private final FileStorageService fileStorageService;
+    private final ProjectFileLoader projectFileLoader;
+    private final GenerationProperties generationProperties;
+    private final GenerationCache generationCache;
+    private final BackendMetrics metrics;
+
+    public GenerationContextService(ContextIndexService contextIndexService,
+                                    ContextSelectionService contextSelectionService,
+                                    VectorIndexService vectorIndexService,
+                                    StepDefinitionService stepDefinitionService,
+                                    FileDescriptionService fileDescriptionService,
+                                    ProjectMetadataService projectMetadataService,
+                                    FileStorageService fileStorageService,
+                                    ProjectFileLoader projectFileLoader,
+                                    GenerationProperties generationProperties,
+                                    GenerationCache generationCache,
+                                    BackendMetrics metrics) {
+        this.contextIndexService = contextIndexService;
+        this.contextSelectionService = contextSelectionService;
+        this.vectorIndexService = vectorIndexService;
+        this.stepDefinitionService = stepDefinitionService;
+        this.fileDescriptionService = fileDescriptionService;
+        this.projectMetadataService = projectMetadataService;
+        this.fileStorageService = fileStorageService;
+        this.projectFileLoader = projectFileLoader;
+        this.generationProperties = generationProperties;
+        this.generationCache = generationCache;
+        this.metrics = metrics;
+    }
+
+    // A single path segment; anything that could climb out of the project root is rejected
+    public boolean isValidProjectName(String project) {
+        return !project.isBlank() && !project.equals(".") && !project.equals("..")
+                && !project.contains("/") && !project.contains("\\");
+    }
+
+    // Empty for projects without a content hash: there is nothing stable to key their cache entries on
+    private Optional<String> contextKey(String project) {
+        return projectMetadataService.findByProjectName(project)
+                .filter(meta -> meta.getHash() != null)
+                .map(meta -> GenerationCache.contextKey(meta.getHash(), descriptionVersion(meta)));
+    }
+
+    // Everything besides context, scenario and model that changes what the model is asked
+    public String generationParameters(String mode) {
+        return "budget=" + generationProperties.getContextTokenBudget()
+                + ",semanticTopK=" + generationProperties.getSemanticTopK()
+                + ",mode=" + mode;
+    }
+
+    public String assemblePrompt(String project, String scenario, boolean bypassCache) throws IOException {
+        return assemblePrompt(project, loadContext(project, bypassCache), scenario);
+    }
+
+    // Project context shared by every scenario of a project: cached per (project hash, description version)
+    public ProjectContext loadContext(String project, boolean bypassCache) throws IOException {
+        if (!isValidProjectName(project)) {
+            throw new IllegalArgumentException("Invalid project path.");
+        }
+
+        Optional<String> contextKey = contextKey(project);
+        ProjectContext cachedContext = contextKey.isPresent() && !bypassCache
+                ? generationCache.getContext(contextKey.get())
+                : null;
+
+        ensureIndexed(project);
+        return cachedContext != null
+                ? cachedContext
+                : new ProjectContext(contextKey.orElse(null), fileDescriptionService.getAllDescriptionsForProject(project));
+    }
+
+    public String assemblePrompt(String project, ProjectContext context, String scenario) throws IOException {
+        Timer.Sample sample = metrics.start();
+
+        // 1. Match scenario lines to existing step definitions locally
+        StepDefinitionIndex steps = stepDefinitionService.getIndex(project).orElse(null);
+        List<StepMatch> stepMatches = stepDefinitionService.matchScenario(project, scenario);
+
+        // 2. Rank files against the scenario and load the best ones within the token budget.
+        //    Step definition classes are covered by the catalogue, unless they implement a matched step.
+        Set<String> excludedPaths = new HashSet<>();
+        if (steps != null) {
+            steps.steps().forEach(step -> excludedPaths.add(step.path()));
+            stepMatches.stream()
+                    .filter(match -> match.definition() != null)
+                    .forEach(match -> excludedPaths.remove(match.definition().path()));
+        }
+        Map<String, String> fileContents = getRankedFileContents(project, context, scenario, excludedPaths);
+
+        if (context.key() != null) {
+            generationCache.putContext(context.key(), context);
+        }
+
+        // 3. Build AI prompt
+        String prompt = buildPrompt(context.descriptions(), steps, stepMatches, fileContents, scenario);
+        metrics.recordPromptAssembly(sample, project, prompt.length());
+        return prompt;
+    }
+
+    // Key of the cached completion for this request, derived from the key the context was loaded under
+    public Optional<String> resultKey(ProjectContext context, String scenario, String mode, String model) {
+        return Optional.ofNullable(context.key())
+                .map(contextKey -> GenerationCache.resultKey(contextKey, scenario, model, generationParameters(mode)));
+    }
+
+    // Identical requests share one model call: same cached-result key when there is one, else same raw inputs
+    public String coalescingKey(String project, String scenario, String mode, Optional<String> resultKey) {
+        return resultKey.orElseGet(() -> project + "|" + mode + "|" + scenario.strip());
+    }
+
+    private long descriptionVersion(ProjectMetadata meta) {
+        return meta.getDescriptionVersion() == null ? 0 : meta.getDescriptionVersion();
+    }
+
+    // Projects uploaded before indexing existed get their indexes built from storage on first use
+    private void ensureIndexed(String project) throws IOException {
+        boolean hasContextIndex = contextIndexService.getIndex(project).isPresent();
+        boolean hasStepIndex = stepDefinitionService.getIndex(project).isPresent();
+        if (hasContextIndex && hasStepIndex) return;
+
+        List<String> indexable = fileStorageService.listProjectFiles(project).stream()
+                .filter(path -> ContextIndexService.isIndexable(Path.of(path)))
+                .toList();
+        if (indexable.isEmpty()) return;
+
+        Map<String, String> sources = projectFileLoader.readFiles(project, indexable);
+        if (!hasContextIndex) {
+            String hash = projectMetadataService.findByProjectName(project).map(ProjectMetadata::getHash).orElse(null);
+            contextIndexService.indexProject(project, sources, hash);
+        }
+        if (!hasStepIndex) {
+            stepDefinitionService.indexProject(project, sources);
+        }
+    }
+
+    // Helper: Load the highest-scoring files that fit into the configured context budget
+    private Map<String, String> getRankedFileContents(String project, ProjectContext context,
+                                                      String scenario, Set<String> excludedPaths) throws IOException {
+        ContextIndex index = contextIndexService.getIndex(project).orElse(null);
+        if (index == null) return new LinkedHashMap<>();
+
+        List<String> selected = contextSelectionService.select(
+                index, context.descriptions(), scenario, generationProperties.getContextTokenBudget(),
+                semanticRanking(project, scenario), excludedPaths);
+
+        // Everything not already in the cached context is fetched from storage in one parallel batch
+        List<String> missing = selected.stream()
+                .filter(path -> !context.fileContents().containsKey(path))
+                .toList();
+        if (!missing.isEmpty()) {
+            Timer.Sample sample = metrics.start();
+            Map<String, String> fetched = projectFileLoader.readFiles(project, missing);
+            context.fileContents().putAll(fetched);
+            metrics.recordContextFetch(sample, missing.size());
+        }
+
+        Map<String, String> contents = new LinkedHashMap<>();
+        for (String relativePath : selected) {
+            String content = context.fileContents().get(relativePath);
+            if (content != null) {
+                contents.put(relativePath, content);
+            }
+        }
+
+        return contents;
+    }
+
+    // Helper: Files closest to the scenario in embedding space; lexical ranking alone if the embedder is unavailable
+    private List<String> semanticRanking(String project, String scenario) {
+        try {
+            return vectorIndexService.searchFiles(project, scenario, generationProperties.getSemanticTopK());
+        } catch (Exception e) {
+            log.warn("Semantic retrieval unavailable for project '{}': {}", project, e.getMessage());
+            return List.of();
+        }
+    }
+
+    // Helper: Construct prompt (package-private for the JMH suite)
+    static String buildPrompt(Map<String, String> descriptions, StepDefinitionIndex steps, List<StepMatch> stepMatches,
+                               Map<String, String> contents, String scenario) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("You are an expert test automation assistant.\n");
+
+        String projectDescription = descriptions.get("");
+        if (projectDescription != null) {
+            prompt.append("Project description: ").append(projectDescription).append("\n");
+        }
+
+        prompt.append("The user has uploaded a Java + Cucumber framework with the following file descriptions:\n\n");
+
+        descriptions.forEach((file, desc) -> {
+            if (!file.isEmpty()) {
+                prompt.append("- File: ").append(file).append(" → ").append(desc).append("\n");
+            }
+        });
+
+        if (steps != null && !steps.steps().isEmpty()) {
+            prompt.append("\nExisting step definitions (reuse these instead of writing new ones):\n");
+            for (StepDefinition step : steps.steps()) {
+                prompt.append("- @").append(step.keyword()).append("(\"").append(step.expression()).append("\") ")
+                        .append(step.methodSignature()).append(" [").append(step.path()).append("]\n");
+            }
+        }
+
+        if (!stepMatches.isEmpty()) {
+            prompt.append("\nScenario steps matched against the existing definitions:\n");
+            for (StepMatch match : stepMatches) {
+                prompt.append("- ").append(match.line()).append(" → ")
+                        .append(match.definition() == null
+                                ? "NO MATCH, needs a new step definition"
+                                : match.definition().methodSignature() + " [" + match.definition().path() + "]")
+                        .append("\n");
+            }
+        }
+
+        prompt.append("\nHere are the contents of the most relevant files:\n");
+
+        contents.forEach((file, code) -> prompt
+                .append("\nFile: ").append(file).append("\n")
+                .append("------------------\n")
+                .append(code).append("\n")
+                .append("------------------\n"));
+
+        prompt.append("\nBased on the above framework, generate Java code for the following Cucumber scenario:\n\n");
+        prompt.append(scenario).append("\n\nRespond with complete Java code. Format cleanly and logically.");
+
+        return prompt.toString();
+    }
+}
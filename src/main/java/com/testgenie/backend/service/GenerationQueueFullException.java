@@ -0,0 +1,15 @@
+package com.testgenie.backend.service;
+
+public class GenerationQueueFullException extends RuntimeException {
+
+    private final int queued;
+
+    public GenerationQueueFullException(int queued, int capacity) {
+        super("Generation queue is full (" + queued + "/" + capacity + ")");
+        this.queued = queued;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+}
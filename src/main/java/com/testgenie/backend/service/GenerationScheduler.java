@@ -0,0 +1,302 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.config.GenerationProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Admission control in front of the model server.
+ * <ul>
+ *     <li>at most {@code generation.max-concurrent} generations run at once;</li>
+ *     <li>up to {@code generation.queue-capacity} more wait in FIFO order, and are told their position as it changes;</li>
+ *     <li>anything beyond that is rejected straight away with {@link GenerationQueueFullException};</li>
+ *     <li>requests with the same key share one in-flight generation, including its token stream.</li>
+ * </ul>
+ */
+@Service
+public class GenerationScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationScheduler.class);
+
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final long requestTimeoutMs;
+    private final ExecutorService executor;
+
+    // Guarded by this
+    private final Deque<Job> queue = new ArrayDeque<>();
+    private final Map<String, Job> inFlight = new HashMap<>();
+    private int running;
+    private long coalesced;
+    private long rejected;
+
+    public GenerationScheduler(GenerationProperties properties) {
+        this.maxConcurrent = properties.getMaxConcurrent();
+        this.queueCapacity = properties.getQueueCapacity();
+        this.requestTimeoutMs = properties.getRequestTimeout().toMillis();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+            Thread thread = new Thread(runnable, "generation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @FunctionalInterface
+    public interface GenerationWork {
+        // onToken fans tokens out to every subscriber; cancelled turns true once nobody is waiting any more
+        String run(Consumer<String> onToken, BooleanSupplier cancelled) throws Exception;
+    }
+
+    /**
+     * Queues {@code work}, or joins the in-flight job with the same {@code key} (null disables coalescing).
+     *
+     * @throws GenerationQueueFullException if all workers are busy and the queue is full
+     */
+    public Ticket submit(String key, GenerationWork work) {
+        Ticket ticket;
+        List<Runnable> notifications;
+
+        synchronized (this) {
+            long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestTimeoutMs);
+            Job existing = key == null ? null : inFlight.get(key);
+            if (existing != null) {
+                // A job whose waiters all left is being torn down; it gets replaced rather than joined
+                Ticket joined = existing.join(deadlineNanos);
+                if (joined != null) {
+                    coalesced++;
+                    return joined;
+                }
+                forget(existing);
+            }
+
+            if (running >= maxConcurrent && queue.size() >= queueCapacity) {
+                rejected++;
+                throw new GenerationQueueFullException(queue.size(), queueCapacity);
+            }
+
+            Job job = new Job(key, work, deadlineNanos);
+            ticket = job.newTicket(false, deadlineNanos);
+            queue.addLast(job);
+            if (key != null) inFlight.put(key, job);
+            notifications = dispatchLocked();
+        }
+
+        notifications.forEach(Runnable::run);
+        return ticket;
+    }
+
+    public synchronized SchedulerStats stats() {
+        return new SchedulerStats(running, queue.size(), maxConcurrent, queueCapacity, coalesced, rejected);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Starts queued jobs while workers are free; returns position updates to deliver outside the lock
+    private List<Runnable> dispatchLocked() {
+        while (running < maxConcurrent && !queue.isEmpty()) {
+            Job job = queue.pollFirst();
+            if (job.abandoned() || System.nanoTime() - job.deadlineNanos() > 0) {
+                forget(job);
+                job.result.completeExceptionally(new CancellationException("Request left the queue before it started"));
+                continue;
+            }
+            running++;
+            executor.execute(() -> run(job));
+        }
+
+        List<Runnable> notifications = new ArrayList<>();
+        int position = 1;
+        for (Job queued : queue) {
+            int current = position++;
+            notifications.add(() -> queued.notifyPosition(current));
+        }
+        return notifications;
+    }
+
+    private void run(Job job) {
+        job.started.complete(null);
+        job.attach(Thread.currentThread());
+        try {
+            job.result.complete(job.work.run(job::broadcast, job::abandoned));
+        } catch (Throwable t) {
+            job.result.completeExceptionally(t);
+        } finally {
+            job.detach();
+            List<Runnable> notifications;
+            synchronized (this) {
+                running--;
+                forget(job);
+                notifications = dispatchLocked();
+            }
+            notifications.forEach(Runnable::run);
+        }
+    }
+
+    private void forget(Job job) {
+        if (job.key != null) inFlight.remove(job.key, job);
+    }
+
+    private synchronized void abandonIfQueued(Job job) {
+        if (job.abandoned() && queue.remove(job)) {
+            forget(job);
+            job.result.completeExceptionally(new CancellationException("All waiters left"));
+        }
+    }
+
+    public record SchedulerStats(int running, int queued, int maxConcurrent, int queueCapacity,
+                                 long coalesced, long rejected) {}
+
+    private final class Job {
+        final String key;
+        final GenerationWork work;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final CompletableFuture<Void> started = new CompletableFuture<>();
+
+        // Guarded by this job
+        final StringBuilder emitted = new StringBuilder();
+        final List<Consumer<String>> subscribers = new ArrayList<>();
+        final List<IntConsumer> positionListeners = new ArrayList<>();
+        int waiters;
+        // Latest deadline among the waiters; a queued job is only dropped once every one of them has given up
+        long deadlineNanos;
+        // Worker running this job, interrupted when the last waiter leaves (e.g. its request timed out)
+        Thread runner;
+
+        Job(String key, GenerationWork work, long deadlineNanos) {
+            this.key = key;
+            this.work = work;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        synchronized Ticket newTicket(boolean coalescedTicket, long ticketDeadlineNanos) {
+            waiters++;
+            if (ticketDeadlineNanos - deadlineNanos > 0) deadlineNanos = ticketDeadlineNanos;
+            return new Ticket(this, coalescedTicket, ticketDeadlineNanos);
+        }
+
+        // Null once every waiter has left, checked under the same lock that counts them down
+        synchronized Ticket join(long ticketDeadlineNanos) {
+            return waiters == 0 ? null : newTicket(true, ticketDeadlineNanos);
+        }
+
+        synchronized long deadlineNanos() {
+            return deadlineNanos;
+        }
+
+        synchronized boolean abandoned() {
+            return waiters == 0;
+        }
+
+        synchronized void attach(Thread worker) {
+            runner = worker;
+            if (waiters == 0) worker.interrupt();
+        }
+
+        // Clears an interrupt that arrived after the work returned, so it doesn't hit the worker's next job
+        synchronized void detach() {
+            runner = null;
+            Thread.interrupted();
+        }
+
+        synchronized void broadcast(String token) {
+            emitted.append(token);
+            subscribers.removeIf(subscriber -> !deliver(subscriber, token));
+        }
+
+        synchronized void notifyPosition(int position) {
+            positionListeners.removeIf(listener -> !deliver(token -> listener.accept(position), null));
+        }
+
+        private boolean deliver(Consumer<String> subscriber, String token) {
+            try {
+                subscriber.accept(token);
+                return true;
+            } catch (RuntimeException e) {
+                log.debug("Dropping token subscriber: {}", e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    public final class Ticket {
+        private final Job job;
+        private final boolean coalesced;
+        private final long deadlineNanos;
+        private boolean cancelled;
+
+        private Ticket(Job job, boolean coalesced, long deadlineNanos) {
+            this.job = job;
+            this.coalesced = coalesced;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public boolean isCoalesced() {
+            return coalesced;
+        }
+
+        // The shared result, bounded by this request's own deadline rather than that of whoever started the job
+        public CompletableFuture<String> result() {
+            return job.result.copy()
+                    .orTimeout(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)
+                    .whenComplete((value, error) -> {
+                        if (error != null) cancel();
+                    });
+        }
+
+        public CompletableFuture<Void> started() {
+            return job.started;
+        }
+
+        // Replays tokens already produced, so a request that joins mid-stream still sees the full text
+        public void subscribe(Consumer<String> onToken) {
+            synchronized (job) {
+                if (!job.emitted.isEmpty() && !job.deliver(onToken, job.emitted.toString())) return;
+                job.subscribers.add(onToken);
+            }
+        }
+
+        // 1-based place in the queue, 0 once the job has started (or finished)
+        public int position() {
+            synchronized (GenerationScheduler.this) {
+                int position = 1;
+                for (Job queued : queue) {
+                    if (queued == job) return position;
+                    position++;
+                }
+                return 0;
+            }
+        }
+
+        public void onPositionChange(IntConsumer listener) {
+            synchronized (job) {
+                job.positionListeners.add(listener);
+            }
+        }
+
+        // Idempotent; when the last waiter leaves, a queued job is dropped and a running one is told to stop
+        // and its worker interrupted, so a timed-out request gives its slot back right away
+        public void cancel() {
+            synchronized (job) {
+                if (cancelled) return;
+                cancelled = true;
+                // A blocking model call doesn't poll the cancelled signal while it waits for the first byte
+                if (--job.waiters == 0 && job.runner != null) job.runner.interrupt();
+            }
+            abandonIfQueued(job);
+        }
+    }
+}
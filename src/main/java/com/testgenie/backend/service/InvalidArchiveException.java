@@ -0,0 +1,9 @@
+package com.testgenie.backend.service;
+
+// An archive whose contents don't match what its own headers declare; sending it again won't help
+public class InvalidArchiveException extends RuntimeException {
+
+    public InvalidArchiveException(String message) {
+        super(message);
+    }
+}
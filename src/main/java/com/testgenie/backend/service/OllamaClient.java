@@ -0,0 +1,153 @@
+package com.testgenie.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.testgenie.backend.config.OllamaProperties;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+@Service
+public class OllamaClient {
+
+    private final RestTemplate restTemplate;
+    private final OllamaProperties properties;
+    private final BackendMetrics metrics;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public OllamaClient(RestTemplate ollamaRestTemplate, OllamaProperties properties, BackendMetrics metrics) {
+        this.restTemplate = ollamaRestTemplate;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    public String getModel() {
+        return properties.getModel();
+    }
+
+    /**
+     * Returns Ollama's JSON response for the whole completion, the same document the non-streaming API sends.
+     * It is read as a stream, so the call gives up within a token once {@code cancelled} reports true instead
+     * of holding its generation worker until the read timeout; the scheduler also interrupts the worker,
+     * which covers the wait before the first token.
+     *
+     * @throws CancellationException if cancelled before the completion was done
+     */
+    public String generate(String prompt, BooleanSupplier cancelled) {
+        Map<String, Object> ollamaPayload = Map.of(
+                "model", properties.getModel(),
+                "prompt", prompt,
+                "stream", true
+        );
+
+        Timer.Sample sample = metrics.start();
+        String outcome = "error";
+        try {
+            String result = restTemplate.execute(generateUrl(), HttpMethod.POST,
+                    request -> {
+                        request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        request.getBody().write(mapper.writeValueAsBytes(ollamaPayload));
+                    },
+                    response -> {
+                        StringBuilder completion = new StringBuilder();
+                        try (BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                            String line;
+                            while (!cancelled.getAsBoolean() && (line = reader.readLine()) != null) {
+                                if (line.isBlank()) continue;
+
+                                JsonNode chunk = mapper.readTree(line);
+                                if (chunk.hasNonNull("error")) {
+                                    throw new IllegalStateException("Ollama error: " + chunk.get("error").asText());
+                                }
+                                completion.append(chunk.path("response").asText(""));
+
+                                // The final chunk carries the statistics and context; only "response" was split up
+                                if (chunk.path("done").asBoolean(false) && chunk instanceof ObjectNode done) {
+                                    done.put("response", completion.toString());
+                                    return mapper.writeValueAsString(done);
+                                }
+                            }
+                        }
+                        if (!cancelled.getAsBoolean()) {
+                            throw new IllegalStateException("Ollama stream ended before the completion was done");
+                        }
+                        return null;
+                    });
+            if (result == null) {
+                outcome = "cancelled";
+                throw new CancellationException("Generation cancelled");
+            }
+            outcome = "success";
+            return result;
+        } finally {
+            metrics.recordModelCall(sample, "blocking", outcome);
+        }
+    }
+
+    /**
+     * Streams tokens from Ollama's NDJSON output to {@code onToken} as they arrive.
+     * Stops reading as soon as {@code cancelled} reports true or {@code onToken} throws;
+     * leaving the extractor closes the connection, which aborts generation on the Ollama side.
+     */
+    public void streamGenerate(String prompt, Consumer<String> onToken, BooleanSupplier cancelled) {
+        Map<String, Object> ollamaPayload = Map.of(
+                "model", properties.getModel(),
+                "prompt", prompt,
+                "stream", true
+        );
+
+        Timer.Sample sample = metrics.start();
+        Timer.Sample firstToken = metrics.start();
+        String outcome = "error";
+        try {
+            outcome = restTemplate.execute(generateUrl(), HttpMethod.POST,
+                    request -> {
+                        request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        request.getBody().write(mapper.writeValueAsBytes(ollamaPayload));
+                    },
+                    response -> {
+                        try (BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                            String line;
+                            boolean first = true;
+                            while (!cancelled.getAsBoolean() && (line = reader.readLine()) != null) {
+                                if (line.isBlank()) continue;
+
+                                JsonNode chunk = mapper.readTree(line);
+                                if (chunk.hasNonNull("error")) {
+                                    throw new IllegalStateException("Ollama error: " + chunk.get("error").asText());
+                                }
+
+                                String token = chunk.path("response").asText("");
+                                if (!token.isEmpty()) {
+                                    if (first) {
+                                        metrics.recordFirstToken(firstToken);
+                                        first = false;
+                                    }
+                                    onToken.accept(token);
+                                }
+                                if (chunk.path("done").asBoolean(false)) break;
+                            }
+                        }
+                        return cancelled.getAsBoolean() ? "cancelled" : "success";
+                    });
+        } finally {
+            metrics.recordModelCall(sample, "stream", outcome);
+        }
+    }
+
+    private String generateUrl() {
+        return properties.getBaseUrl() + "/api/generate";
+    }
+}
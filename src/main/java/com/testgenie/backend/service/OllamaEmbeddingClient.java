@@ -0,0 +1,66 @@
+package com.testgenie.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testgenie.backend.config.OllamaProperties;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OllamaEmbeddingClient implements EmbeddingClient {
+
+    private final RestTemplate restTemplate;
+    private final OllamaProperties properties;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public OllamaEmbeddingClient(RestTemplate ollamaRestTemplate, OllamaProperties properties) {
+        this.restTemplate = ollamaRestTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public String modelName() {
+        return properties.getEmbeddingModel();
+    }
+
+    @Override
+    public List<float[]> embed(List<String> texts) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Map<String, Object> payload = Map.of(
+                "model", properties.getEmbeddingModel(),
+                "input", texts
+        );
+
+        String body = restTemplate.postForObject(properties.getBaseUrl() + "/api/embed",
+                new HttpEntity<>(payload, headers), String.class);
+
+        try {
+            JsonNode embeddings = mapper.readTree(body).path("embeddings");
+            List<float[]> vectors = new ArrayList<>(embeddings.size());
+            for (JsonNode embedding : embeddings) {
+                float[] vector = new float[embedding.size()];
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = (float) embedding.get(i).asDouble();
+                }
+                vectors.add(vector);
+            }
+            if (vectors.size() != texts.size()) {
+                throw new IllegalStateException("Expected " + texts.size() + " embeddings, got " + vectors.size());
+            }
+            return vectors;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
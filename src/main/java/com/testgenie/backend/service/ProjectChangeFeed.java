@@ -0,0 +1,124 @@
+package com.testgenie.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-sent change events per project, so clients can stop polling the project list, tree and descriptions.
+ * A subscriber first gets a "versions" event with the current state, then a "project" or "descriptions"
+ * event whenever one of them changes; every event carries both version numbers. Subscribing without a
+ * project receives the events of all projects, which covers new uploads.
+ * <p>
+ * Events are sent from a single thread of this feed, so an upload or description save never waits on a slow client.
+ */
+@Service
+public class ProjectChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectChangeFeed.class);
+
+    // Key for subscribers to every project
+    private static final String ALL = "";
+    private static final long STREAM_TIMEOUT_MS = 60 * 60 * 1000L;
+    // Comment lines keep idle streams open through proxies and find clients that went away
+    private static final Duration HEARTBEAT = Duration.ofSeconds(30);
+
+    private final ProjectMetadataService projectMetadataService;
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProjectChangeFeed(ProjectMetadataService projectMetadataService) {
+        this.projectMetadataService = projectMetadataService;
+        sender.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT.toSeconds(), HEARTBEAT.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    // projectName null for every project; the initial "versions" event is only sent for a single project
+    public SseEmitter subscribe(String projectName) {
+        String key = projectName == null ? ALL : projectName;
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        subscribers.computeIfAbsent(key, ignored -> new CopyOnWriteArraySet<>()).add(emitter);
+
+        Runnable remove = () -> subscribers.computeIfPresent(key, (ignored, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        if (projectName != null) {
+            ProjectChangedEvent current = projectMetadataService.currentVersions(projectName);
+            sender.execute(() -> send(emitter, "versions", current));
+        }
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @EventListener
+    public void onChange(ProjectChangedEvent event) {
+        String name = event.change().name().toLowerCase(Locale.ROOT);
+        sender.execute(() -> {
+            for (String key : new String[]{event.projectName(), ALL}) {
+                Set<SseEmitter> emitters = subscribers.get(key);
+                if (emitters == null) continue;
+                for (SseEmitter emitter : emitters) {
+                    send(emitter, name, event);
+                }
+            }
+        });
+    }
+
+    private void heartbeat() {
+        for (Set<SseEmitter> emitters : subscribers.values()) {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    private static void send(SseEmitter emitter, String name, ProjectChangedEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(name)
+                    .data(Map.of("project", event.projectName(),
+                            "projectVersion", event.projectVersion(),
+                            "descriptionVersion", event.descriptionVersion()), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the stream already ended; onError/onCompletion unsubscribes it
+            log.debug("Dropping change feed subscriber for '{}': {}", event.projectName(), e.toString());
+            emitter.completeWithError(e);
+        }
+    }
+}
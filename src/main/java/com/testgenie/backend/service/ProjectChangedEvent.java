@@ -0,0 +1,14 @@
+package com.testgenie.backend.service;
+
+// Published once a change is visible to readers. Both versions are sent with every change, so a client
+// compares them with what it last fetched and reloads only the part that moved. change is null when the
+// record describes the current state rather than a change (ProjectMetadataService.currentVersions)
+public record ProjectChangedEvent(String projectName, Change change, long projectVersion, long descriptionVersion) {
+
+    public enum Change {
+        // A new generation of the project's files was committed (tree and file content)
+        PROJECT,
+        // A description was saved or removed through FileDescriptionService
+        DESCRIPTIONS
+    }
+}
@@ -0,0 +1,48 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.config.StorageProperties;
+import com.testgenie.backend.util.AsyncFanOut;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Reads many project files in one go: requests go out concurrently, so N files cost about one round-trip
+@Service
+public class ProjectFileLoader {
+
+    private final AsyncFileStorageService asyncFileStorageService;
+    private final StorageProperties storageProperties;
+
+    public ProjectFileLoader(AsyncFileStorageService asyncFileStorageService, StorageProperties storageProperties) {
+        this.asyncFileStorageService = asyncFileStorageService;
+        this.storageProperties = storageProperties;
+    }
+
+    // Contents keyed by relative path, in the order requested; files that don't exist are left out
+    public Map<String, String> readFiles(String projectName, Collection<String> relativePaths) throws IOException {
+        try {
+            return readFilesAsync(projectName, relativePaths).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Map<String, String>> readFilesAsync(String projectName, Collection<String> relativePaths) {
+        List<String> paths = List.copyOf(new LinkedHashSet<>(relativePaths));
+        return AsyncFanOut.map(paths, storageProperties.getIoConcurrency(),
+                        path -> asyncFileStorageService.readProjectFile(projectName, path))
+                .thenApply(results -> {
+                    Map<String, String> contents = new LinkedHashMap<>();
+                    for (int i = 0; i < paths.size(); i++) {
+                        String path = paths.get(i);
+                        results.get(i).ifPresent(bytes -> contents.put(path, new String(bytes, StandardCharsets.UTF_8)));
+                    }
+                    return contents;
+                });
+    }
+}
@@ -0,0 +1,60 @@
+package com.testgenie.backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes writers of the same project (upload, replace) inside this process. There is one lock
+ * per project name rather than a fixed set of stripes, so two different projects never share a
+ * lock; a lock is created on first use and dropped once nobody holds or waits for it.
+ * <p>
+ * Readers never take these locks: they read the committed storage generation, which a writer
+ * swaps in atomically once it is complete.
+ */
+@Component
+public class ProjectLocks {
+
+    private final ConcurrentHashMap<String, Entry> locks = new ConcurrentHashMap<>();
+
+    public Held lock(String projectName) {
+        Entry entry = locks.compute(projectName, (name, existing) -> {
+            Entry current = existing != null ? existing : new Entry();
+            current.users++;
+            return current;
+        });
+        entry.lock.lock();
+        return new Held(projectName, entry);
+    }
+
+    // Projects with a writer holding or waiting for the lock
+    public int activeProjects() {
+        return locks.size();
+    }
+
+    private static final class Entry {
+        final ReentrantLock lock = new ReentrantLock();
+        // Holders plus waiters; only changed inside ConcurrentHashMap.compute for this key
+        int users;
+    }
+
+    public final class Held implements AutoCloseable {
+        private final String projectName;
+        private final Entry entry;
+        private boolean released;
+
+        private Held(String projectName, Entry entry) {
+            this.projectName = projectName;
+            this.entry = entry;
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            entry.lock.unlock();
+            locks.computeIfPresent(projectName, (name, current) -> --current.users == 0 ? null : current);
+        }
+    }
+}
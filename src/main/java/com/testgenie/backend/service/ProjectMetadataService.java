@@ -1,22 +1,33 @@
 package com.testgenie.backend.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testgenie.backend.dto.ProjectStatsDTO;
 import com.testgenie.backend.entity.ProjectMetadata;
 import com.testgenie.backend.repository.ProjectMetadataRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ProjectMetadataService {
 
     private final ProjectMetadataRepository repository;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper mapper = new ObjectMapper();
 
-    public ProjectMetadataService(ProjectMetadataRepository repository) {
+    public ProjectMetadataService(ProjectMetadataRepository repository, ApplicationEventPublisher events) {
         this.repository = repository;
+        this.events = events;
     }
 
-    public void saveMetadata(String projectName, int fileCount, long totalSize, String hash) {
+    public void saveMetadata(String projectName, int fileCount, long totalSize, String hash, String archiveHash,
+                             ProjectStatsDTO stats) {
         ProjectMetadata metadata = new ProjectMetadata(
                 projectName,
                 LocalDateTime.now(),
@@ -24,23 +35,81 @@ public class ProjectMetadataService {
                 totalSize,
                 hash
         );
+        metadata.setArchiveHash(archiveHash);
+        metadata.setStats(toJson(stats));
+        metadata.setProjectVersion(1L);
         repository.save(metadata);
+        publish(metadata, ProjectChangedEvent.Change.PROJECT);
     }
 
     public Optional<ProjectMetadata> findByProjectName(String name) {
         return repository.findByProjectName(name);
     }
 
-    public void updateMetadata(String projectName, int fileCount, long totalSize, String hash) {
-        Optional<ProjectMetadata> optional = repository.findByProjectName(projectName);
-        if (optional.isPresent()) {
-            ProjectMetadata meta = optional.get();
-            meta.setFileCount(fileCount);
-            meta.setTotalSize(totalSize);
-            meta.setHash(hash);
-            meta.setUploadTime(LocalDateTime.now());
-            repository.save(meta);
+    // Names only, one query for all projects
+    public Set<String> projectNames() {
+        return new HashSet<>(repository.findAllProjectNames());
+    }
+
+    // One row by its unique key, whatever the size of the project
+    public Optional<ProjectStatsDTO> findStats(String projectName) {
+        return repository.findByProjectName(projectName)
+                .map(ProjectMetadata::getStats)
+                .map(json -> {
+                    try {
+                        return mapper.readValue(json, ProjectStatsDTO.class);
+                    } catch (JsonProcessingException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    public void bumpDescriptionVersion(String projectName) {
+        repository.incrementDescriptionVersion(projectName);
+        Optional<ProjectMetadata> metadata = repository.findByProjectName(projectName);
+        events.publishEvent(metadata
+                .map(meta -> event(meta, ProjectChangedEvent.Change.DESCRIPTIONS))
+                .orElseGet(() -> new ProjectChangedEvent(projectName, ProjectChangedEvent.Change.DESCRIPTIONS, 0, 0)));
+    }
+
+    // Versions a change feed client starts from; zeros for a project that hasn't been uploaded yet
+    public ProjectChangedEvent currentVersions(String projectName) {
+        return repository.findByProjectName(projectName)
+                .map(meta -> event(meta, null))
+                .orElseGet(() -> new ProjectChangedEvent(projectName, null, 0, 0));
+    }
+
+    public void updateMetadata(String projectName, int fileCount, long totalSize, String hash, String archiveHash,
+                               ProjectStatsDTO stats) {
+        if (repository.updateUpload(projectName, fileCount, totalSize, hash, archiveHash, toJson(stats), LocalDateTime.now()) > 0) {
+            repository.findByProjectName(projectName).ifPresent(meta -> publish(meta, ProjectChangedEvent.Change.PROJECT));
         }
     }
 
+    // Same extracted content arrived in a differently packed archive: remember it so the next identical upload hits the
+    // fast path. Stats are stored too, for projects uploaded before they were computed; the content is unchanged
+    public void updateArchive(String projectName, String archiveHash, ProjectStatsDTO stats) {
+        repository.updateArchive(projectName, archiveHash, toJson(stats));
+    }
+
+    private void publish(ProjectMetadata metadata, ProjectChangedEvent.Change change) {
+        events.publishEvent(event(metadata, change));
+    }
+
+    private static ProjectChangedEvent event(ProjectMetadata metadata, ProjectChangedEvent.Change change) {
+        return new ProjectChangedEvent(metadata.getProjectName(), change,
+                versionOf(metadata.getProjectVersion()), versionOf(metadata.getDescriptionVersion()));
+    }
+
+    private static long versionOf(Long version) {
+        return version == null ? 0 : version;
+    }
+
+    private String toJson(ProjectStatsDTO stats) {
+        try {
+            return mapper.writeValueAsString(stats);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package com.testgenie.backend.service;
+
+public class ScratchQuotaExceededException extends RuntimeException {
+
+    private final boolean largerThanQuota;
+
+    // Other jobs hold the space; the same job may fit once they finish
+    public ScratchQuotaExceededException(long requested, long reserved, long quota) {
+        super("Scratch space exhausted: " + requested + " bytes requested, " + reserved + "/" + quota + " reserved");
+        this.largerThanQuota = false;
+    }
+
+    // The job alone needs more than the whole quota, so it never fits
+    public ScratchQuotaExceededException(long jobBytes, long quota) {
+        super("Scratch job needs " + jobBytes + " bytes, more than the whole quota of " + quota);
+        this.largerThanQuota = true;
+    }
+
+    public boolean isLargerThanQuota() {
+        return largerThanQuota;
+    }
+}
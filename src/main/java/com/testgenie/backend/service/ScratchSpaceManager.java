@@ -0,0 +1,229 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.config.ScratchProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Hands out per-job working directories for uploads (downloaded archive, extracted tree) and
+ * removes them when the job is closed, whether it finished or failed.
+ * <ul>
+ *     <li>every job reserves its expected size against {@code scratch.quota}; a job that doesn't fit is refused
+ *     with {@link ScratchQuotaExceededException} instead of filling the disk;</li>
+ *     <li>small jobs go to {@code scratch.ram-dir} when one is configured, within {@code scratch.ram-quota}; a RAM
+ *     job that later reserves more than the RAM quota has left puts its further files on disk;</li>
+ *     <li>job directories are named after the owning process, so on startup those left behind by a dead
+ *     process (crash, kill -9) are swept.</li>
+ * </ul>
+ */
+@Service
+public class ScratchSpaceManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ScratchSpaceManager.class);
+
+    private static final String JOB_PREFIX = "job-";
+
+    private final ScratchProperties properties;
+    private final long pid = ProcessHandle.current().pid();
+    private final AtomicLong sequence = new AtomicLong();
+    private Path ramDir;
+
+    // Guarded by this
+    private long reservedBytes;
+    private long reservedRamBytes;
+    private int activeJobs;
+
+    public ScratchSpaceManager(ScratchProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(properties.getBaseDir());
+        sweepOrphans(properties.getBaseDir());
+
+        if (properties.getRamDir() != null) {
+            try {
+                Files.createDirectories(properties.getRamDir());
+                ramDir = properties.getRamDir();
+                sweepOrphans(ramDir);
+            } catch (IOException e) {
+                log.warn("RAM scratch directory {} unavailable, using {} only", properties.getRamDir(), properties.getBaseDir(), e);
+            }
+        }
+    }
+
+    /**
+     * @param expectedBytes best guess of what the job will write; more can be reserved later with {@link Job#reserve}
+     * @throws ScratchQuotaExceededException if the reservation would exceed {@code scratch.quota}; flagged
+     *                                       {@link ScratchQuotaExceededException#isLargerThanQuota() larger than the quota}
+     *                                       if it would even with no other job running
+     */
+    public Job open(String label, long expectedBytes) throws IOException {
+        boolean inRam = reserveJob(expectedBytes);
+        String name = JOB_PREFIX + pid + "-" + sequence.incrementAndGet() + "-" + label.replaceAll("[^a-zA-Z0-9\\-_]", "_");
+        Path dir = (inRam ? ramDir : properties.getBaseDir()).resolve(name);
+
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            release(expectedBytes, inRam ? expectedBytes : 0);
+            throw e;
+        }
+        return new Job(name, dir, inRam, expectedBytes);
+    }
+
+    public synchronized long reservedBytes() {
+        return reservedBytes;
+    }
+
+    public synchronized int activeJobs() {
+        return activeJobs;
+    }
+
+    // True if the job was placed in the RAM directory
+    private synchronized boolean reserveJob(long bytes) {
+        boolean inRam = grow(0, bytes, ramDir != null && bytes <= properties.getRamThreshold().toBytes());
+        activeJobs++;
+        return inRam;
+    }
+
+    // Reserves against the overall quota, and against the RAM quota as well if preferRam; returns whether
+    // the bytes were placed in RAM, which they are not if that would take the RAM directory past its quota.
+    // jobBytes is what the job already holds, to tell a job that can never fit from one that has to wait
+    private synchronized boolean grow(long jobBytes, long bytes, boolean preferRam) {
+        long quota = properties.getQuota().toBytes();
+        if (jobBytes + bytes > quota) {
+            throw new ScratchQuotaExceededException(jobBytes + bytes, quota);
+        }
+        if (reservedBytes + bytes > quota) {
+            throw new ScratchQuotaExceededException(bytes, reservedBytes, quota);
+        }
+        boolean inRam = preferRam && reservedRamBytes + bytes <= properties.getRamQuota().toBytes();
+        reservedBytes += bytes;
+        if (inRam) reservedRamBytes += bytes;
+        return inRam;
+    }
+
+    private synchronized void release(long bytes, long ramBytes) {
+        reservedBytes -= bytes;
+        reservedRamBytes -= ramBytes;
+        activeJobs--;
+    }
+
+    // Directories of processes that are no longer running; ours and live ones (another instance sharing the disk) are kept
+    private void sweepOrphans(Path root) throws IOException {
+        List<Path> orphans;
+        try (Stream<Path> children = Files.list(root)) {
+            orphans = children
+                    .filter(child -> child.getFileName().toString().startsWith(JOB_PREFIX))
+                    .filter(child -> !isOwnerAlive(child.getFileName().toString()))
+                    .toList();
+        }
+
+        for (Path orphan : orphans) {
+            deleteQuietly(orphan);
+        }
+        if (!orphans.isEmpty()) {
+            log.info("🧹 Removed {} orphaned scratch directories from {}", orphans.size(), root);
+        }
+    }
+
+    private boolean isOwnerAlive(String directoryName) {
+        String rest = directoryName.substring(JOB_PREFIX.length());
+        int dash = rest.indexOf('-');
+        try {
+            long owner = Long.parseLong(dash == -1 ? rest : rest.substring(0, dash));
+            return owner == pid || ProcessHandle.of(owner).map(ProcessHandle::isAlive).orElse(false);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (!Files.exists(path)) return;
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.delete(p);
+                } catch (IOException e) {
+                    log.warn("Could not delete scratch file {}", p, e);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not clean up scratch directory {}", path, e);
+        }
+    }
+
+    // One job's private directory (two once a RAM job spills to disk); close() deletes them and returns its reservation
+    public final class Job implements AutoCloseable {
+        private final String name;
+        private final boolean inRam;
+        private Path dir;
+        private Path spilledFrom;
+        private long reserved;
+        private long reservedRam;
+        private boolean closed;
+
+        private Job(String name, Path dir, boolean inRam, long reserved) {
+            this.name = name;
+            this.dir = dir;
+            this.inRam = inRam;
+            this.reserved = reserved;
+            this.reservedRam = inRam ? reserved : 0;
+        }
+
+        // Where new files go: the RAM directory until the job spills, the disk directory after that
+        public synchronized Path dir() {
+            return dir;
+        }
+
+        public synchronized boolean inRam() {
+            return inRam && spilledFrom == null;
+        }
+
+        public Path newFile(String prefix, String suffix) throws IOException {
+            return Files.createTempFile(dir(), prefix, suffix);
+        }
+
+        public Path newDirectory(String prefix) throws IOException {
+            return Files.createTempDirectory(dir(), prefix);
+        }
+
+        // Grows the reservation once the job knows more (e.g. the uncompressed size of an archive).
+        // Files created afterwards go to disk if the growth doesn't fit in what is left of the RAM quota
+        public synchronized void reserve(long additionalBytes) throws IOException {
+            if (additionalBytes <= 0) return;
+            boolean stillInRam = grow(reserved, additionalBytes, inRam());
+            reserved += additionalBytes;
+            if (stillInRam) {
+                reservedRam += additionalBytes;
+            } else if (inRam()) {
+                Path diskDir = properties.getBaseDir().resolve(name);
+                Files.createDirectories(diskDir);
+                spilledFrom = dir;
+                dir = diskDir;
+                log.debug("Scratch job {} spilled from RAM to {}", name, diskDir);
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) return;
+            closed = true;
+            deleteQuietly(dir);
+            if (spilledFrom != null) deleteQuietly(spilledFrom);
+            release(reserved, reservedRam);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.testgenie.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testgenie.backend.config.GenerationProperties;
+import com.testgenie.backend.index.StepDefinition;
+import com.testgenie.backend.index.StepDefinitionIndex;
+import com.testgenie.backend.index.StepDefinitionParser;
+import com.testgenie.backend.index.StepExpressionMatcher;
+import com.testgenie.backend.util.WeightedLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Service
+public class StepDefinitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(StepDefinitionService.class);
+
+    static final String ARTIFACT_NAME = "step-index.json";
+    private static final Pattern GHERKIN_KEYWORD = Pattern.compile("^\\s*(Given|When|Then|And|But|\\*)\\s+");
+
+    private final FileStorageService fileStorageService;
+    private final ObjectMapper mapper = new ObjectMapper();
+    // Least recently used projects are dropped first and recompiled from their stored artifact when needed
+    private final WeightedLruCache<String, CompiledSteps> indexes;
+
+    public StepDefinitionService(FileStorageService fileStorageService, GenerationProperties generationProperties) {
+        this.fileStorageService = fileStorageService;
+        this.indexes = new WeightedLruCache<>(generationProperties.getStepIndexCacheMaxBytes(), CompiledSteps::weight);
+    }
+
+    public StepDefinitionIndex indexProject(String projectName, Path contentRoot) throws IOException {
+        Map<String, String> sources = new HashMap<>();
+        try (Stream<Path> paths = Files.walk(contentRoot)) {
+            for (Path file : paths.filter(p -> p.toString().endsWith(".java")).filter(Files::isRegularFile).toList()) {
+                String relativePath = contentRoot.relativize(file).toString().replace("\\", "/");
+                sources.put(relativePath, Files.readString(file, StandardCharsets.UTF_8));
+            }
+        }
+        return indexProject(projectName, sources);
+    }
+
+    // Sources keyed by relative path; anything that isn't a .java file is ignored
+    public StepDefinitionIndex indexProject(String projectName, Map<String, String> sources) throws IOException {
+        List<StepDefinition> steps = new ArrayList<>();
+        for (String relativePath : new TreeSet<>(sources.keySet())) {
+            if (relativePath.endsWith(".java")) {
+                steps.addAll(StepDefinitionParser.parse(relativePath, sources.get(relativePath)));
+            }
+        }
+
+        StepDefinitionIndex index = new StepDefinitionIndex(steps);
+        fileStorageService.writeArtifact(projectName, ARTIFACT_NAME, mapper.writeValueAsBytes(index));
+        indexes.put(projectName, compile(index));
+
+        log.info("🥒 Indexed {} step definitions for project '{}'", steps.size(), projectName);
+        return index;
+    }
+
+    public Optional<StepDefinitionIndex> getIndex(String projectName) {
+        return loadCompiled(projectName).map(CompiledSteps::index);
+    }
+
+    // Forgets a deleted project's in-memory index
+    public void evict(String projectName) {
+        indexes.remove(projectName);
+    }
+
+    /**
+     * Matches each step line of a scenario to an existing step definition, locally.
+     * Lines with no match are returned with a null definition so the prompt can call them out.
+     */
+    public List<StepMatch> matchScenario(String projectName, String scenario) {
+        CompiledSteps compiled = loadCompiled(projectName).orElse(null);
+        List<StepMatch> matches = new ArrayList<>();
+
+        for (String line : scenario.split("\\R")) {
+            Matcher keyword = GHERKIN_KEYWORD.matcher(line);
+            if (!keyword.find()) continue;
+
+            String stepText = line.substring(keyword.end()).trim();
+            StepDefinition match = null;
+            if (compiled != null) {
+                for (int i = 0; i < compiled.patterns().size(); i++) {
+                    Pattern pattern = compiled.patterns().get(i);
+                    if (pattern != null && pattern.matcher(stepText).find()) {
+                        match = compiled.index().steps().get(i);
+                        break;
+                    }
+                }
+            }
+            matches.add(new StepMatch(line.trim(), match));
+        }
+        return matches;
+    }
+
+    private Optional<CompiledSteps> loadCompiled(String projectName) {
+        CompiledSteps cached = indexes.get(projectName);
+        if (cached != null) return Optional.of(cached);
+
+        try {
+            Optional<byte[]> stored = fileStorageService.readArtifact(projectName, ARTIFACT_NAME);
+            if (stored.isEmpty()) return Optional.empty();
+
+            CompiledSteps compiled = compile(mapper.readValue(stored.get(), StepDefinitionIndex.class));
+            indexes.put(projectName, compiled);
+            return Optional.of(compiled);
+        } catch (IOException e) {
+            log.warn("Could not load step index for project '{}'", projectName, e);
+            return Optional.empty();
+        }
+    }
+
+    private CompiledSteps compile(StepDefinitionIndex index) {
+        return new CompiledSteps(index, index.steps().stream().map(StepExpressionMatcher::compile).toList());
+    }
+
+    public record StepMatch(String line, StepDefinition definition) {}
+
+    // Patterns are positional with index.steps(); null where an expression does not compile
+    private record CompiledSteps(StepDefinitionIndex index, List<Pattern> patterns) {
+
+        // Strings of every step, plus a compiled pattern at a few times the size of its expression
+        long weight() {
+            long chars = 0;
+            for (StepDefinition step : index.steps()) {
+                chars += 5L * step.expression().length() + step.methodSignature().length() + step.path().length();
+            }
+            return 2 * chars;
+        }
+    }
+}
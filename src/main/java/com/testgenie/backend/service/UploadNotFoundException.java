@@ -0,0 +1,8 @@
+package com.testgenie.backend.service;
+
+public class UploadNotFoundException extends RuntimeException {
+
+    public UploadNotFoundException(String uploadId) {
+        super("No chunked upload " + uploadId + " (unknown, completed, aborted or expired)");
+    }
+}
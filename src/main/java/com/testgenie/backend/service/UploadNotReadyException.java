@@ -0,0 +1,9 @@
+package com.testgenie.backend.service;
+
+// A chunked upload that can't be completed yet: parts are missing or another request is completing it
+public class UploadNotReadyException extends RuntimeException {
+
+    public UploadNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,246 @@
+package com.testgenie.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testgenie.backend.config.GenerationProperties;
+import com.testgenie.backend.index.HnswIndex;
+import com.testgenie.backend.index.SourceChunk;
+import com.testgenie.backend.index.SourceChunker;
+import com.testgenie.backend.index.VectorManifest;
+import com.testgenie.backend.index.VectorManifest.ChunkRef;
+import com.testgenie.backend.index.VectorManifest.FileChunks;
+import com.testgenie.backend.util.WeightedLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Maintains a per-project HNSW index of embedded source chunks for semantic context retrieval.
+ * Rebuilds are incremental: only files whose content hash changed since the last upload are
+ * re-chunked and re-embedded, everything else keeps its stored vectors.
+ */
+@Service
+public class VectorIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorIndexService.class);
+
+    static final String INDEX_ARTIFACT = "vector-index.bin";
+    static final String MANIFEST_ARTIFACT = "vector-manifest.json";
+    private static final int EMBED_BATCH_SIZE = 32;
+    private static final int HNSW_M = 16;
+    private static final int HNSW_EF_CONSTRUCTION = 100;
+    private static final int HNSW_EF_SEARCH = 64;
+    private static final double COMPACT_RATIO = 0.3;
+
+    private final FileStorageService fileStorageService;
+    private final EmbeddingClient embeddingClient;
+    private final GenerationProperties generationProperties;
+    private final AsyncTaskExecutor taskExecutor;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // Least recently searched projects are dropped first and read back from their stored artifacts when needed
+    private final WeightedLruCache<String, ProjectVectors> loaded;
+    // Only builds still running or queued; finished ones remove themselves
+    private final Map<String, CompletableFuture<Void>> builds = new ConcurrentHashMap<>();
+
+    public VectorIndexService(FileStorageService fileStorageService,
+                              EmbeddingClient embeddingClient,
+                              GenerationProperties generationProperties,
+                              @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.fileStorageService = fileStorageService;
+        this.embeddingClient = embeddingClient;
+        this.generationProperties = generationProperties;
+        this.taskExecutor = taskExecutor;
+        this.loaded = new WeightedLruCache<>(generationProperties.getVectorIndexCacheMaxBytes(), ProjectVectors::weight);
+    }
+
+    // Sources are read now, while the extracted upload is still on local disk; embedding runs in the background
+    public CompletableFuture<Void> indexProjectAsync(String projectName, Path contentRoot) throws IOException {
+        if (generationProperties.getSemanticTopK() <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Map<String, String> sources = readSources(contentRoot);
+
+        // Builds for the same project run one after another so each one starts from the previous result
+        CompletableFuture<Void> build = builds.compute(projectName, (name, previous) -> {
+            CompletableFuture<Void> prior = previous == null ? CompletableFuture.completedFuture(null) : previous;
+            return prior.exceptionally(e -> null)
+                    .thenRunAsync(() -> updateIndex(name, sources), taskExecutor)
+                    .whenComplete((ignored, e) -> {
+                        if (e != null) log.warn("Vector indexing failed for project '{}'", name, e);
+                    });
+        });
+        build.whenComplete((ignored, e) -> builds.remove(projectName, build));
+        return build;
+    }
+
+    // Forgets a deleted project's in-memory index; a build already running still finishes
+    public void evict(String projectName) {
+        loaded.remove(projectName);
+        builds.remove(projectName);
+    }
+
+    // Returns relative paths of the files owning the chunks most similar to the query, best first
+    public List<String> searchFiles(String projectName, String query, int k) {
+        ProjectVectors vectors = load(projectName).orElse(null);
+        if (vectors == null || vectors.index() == null || k <= 0) return List.of();
+
+        float[] queryVector = embeddingClient.embed(List.of(query)).get(0);
+        if (queryVector.length != vectors.index().dimensions()) return List.of();
+
+        Set<String> paths = new LinkedHashSet<>();
+        for (HnswIndex.SearchResult result : vectors.index().search(queryVector, k * 3, HNSW_EF_SEARCH)) {
+            paths.add(result.id().substring(0, result.id().lastIndexOf('#')));
+            if (paths.size() == k) break;
+        }
+        return new ArrayList<>(paths);
+    }
+
+    private void updateIndex(String projectName, Map<String, String> sources) {
+        long start = System.currentTimeMillis();
+        String model = embeddingClient.modelName();
+
+        ProjectVectors current = load(projectName).orElse(null);
+        boolean rebuild = current == null || current.index() == null
+                || !model.equals(current.manifest().embeddingModel());
+
+        // Work on a private copy; searches keep using the published index until the swap below
+        HnswIndex index = rebuild ? null : current.index().copy();
+        Map<String, FileChunks> files = rebuild ? new HashMap<>() : new HashMap<>(current.manifest().files());
+
+        Map<String, String> hashes = new HashMap<>();
+        sources.forEach((path, content) -> hashes.put(path, sha256(content)));
+
+        int removed = 0;
+        for (String path : new ArrayList<>(files.keySet())) {
+            FileChunks existing = files.get(path);
+            if (!existing.contentHash().equals(hashes.get(path))) {
+                for (ChunkRef chunk : existing.chunks()) {
+                    index.remove(chunk.id());
+                }
+                files.remove(path);
+                removed++;
+            }
+        }
+
+        List<SourceChunk> pending = new ArrayList<>();
+        sources.forEach((path, content) -> {
+            if (!files.containsKey(path)) {
+                pending.addAll(SourceChunker.chunk(path, content));
+            }
+        });
+
+        Map<String, List<ChunkRef>> addedChunks = new HashMap<>();
+        for (int i = 0; i < pending.size(); i += EMBED_BATCH_SIZE) {
+            List<SourceChunk> batch = pending.subList(i, Math.min(i + EMBED_BATCH_SIZE, pending.size()));
+            List<float[]> vectors = embeddingClient.embed(batch.stream().map(SourceChunk::text).toList());
+
+            for (int j = 0; j < batch.size(); j++) {
+                SourceChunk chunk = batch.get(j);
+                if (index == null) {
+                    index = new HnswIndex(vectors.get(j).length, HNSW_M, HNSW_EF_CONSTRUCTION);
+                }
+                index.add(chunk.id(), vectors.get(j));
+                addedChunks.computeIfAbsent(chunk.path(), p -> new ArrayList<>())
+                        .add(new ChunkRef(chunk.id(), chunk.startLine(), chunk.endLine()));
+            }
+        }
+        sources.keySet().forEach(path -> {
+            if (!files.containsKey(path)) {
+                files.put(path, new FileChunks(hashes.get(path), addedChunks.getOrDefault(path, List.of())));
+            }
+        });
+
+        if (index != null && index.deletedCount() > COMPACT_RATIO * (index.size() + index.deletedCount())) {
+            index = index.compact();
+        }
+
+        VectorManifest manifest = new VectorManifest(model, files);
+        try {
+            if (index != null) {
+                fileStorageService.writeArtifact(projectName, INDEX_ARTIFACT, index.toBytes());
+            }
+            fileStorageService.writeArtifact(projectName, MANIFEST_ARTIFACT, mapper.writeValueAsBytes(manifest));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        loaded.put(projectName, new ProjectVectors(index, manifest));
+
+        log.info("🧭 Vector index for '{}': {} chunks embedded, {} files dropped, {} live chunks ({} ms)",
+                projectName, pending.size(), removed, index == null ? 0 : index.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    private Optional<ProjectVectors> load(String projectName) {
+        ProjectVectors cached = loaded.get(projectName);
+        if (cached != null) return Optional.of(cached);
+
+        try {
+            Optional<byte[]> manifestBytes = fileStorageService.readArtifact(projectName, MANIFEST_ARTIFACT);
+            if (manifestBytes.isEmpty()) return Optional.empty();
+
+            VectorManifest manifest = mapper.readValue(manifestBytes.get(), VectorManifest.class);
+            Optional<byte[]> indexBytes = fileStorageService.readArtifact(projectName, INDEX_ARTIFACT);
+            HnswIndex index = indexBytes.isPresent()
+                    ? HnswIndex.read(new ByteArrayInputStream(indexBytes.get()))
+                    : null;
+
+            ProjectVectors vectors = new ProjectVectors(index, manifest);
+            loaded.put(projectName, vectors);
+            return Optional.of(vectors);
+        } catch (IOException e) {
+            log.warn("Could not load vector index for project '{}'", projectName, e);
+            return Optional.empty();
+        }
+    }
+
+    private Map<String, String> readSources(Path contentRoot) throws IOException {
+        Map<String, String> sources = new HashMap<>();
+        try (Stream<Path> paths = Files.walk(contentRoot)) {
+            for (Path file : paths.filter(Files::isRegularFile).filter(ContextIndexService::isIndexable).toList()) {
+                if (Files.size(file) > ContextIndexService.MAX_INDEXED_FILE_SIZE) continue;
+                String relativePath = contentRoot.relativize(file).toString().replace("\\", "/");
+                sources.put(relativePath, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            }
+        }
+        return sources;
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record ProjectVectors(HnswIndex index, VectorManifest manifest) {
+
+        long weight() {
+            long bytes = index == null ? 0 : index.estimatedBytes();
+            for (Map.Entry<String, FileChunks> file : manifest.files().entrySet()) {
+                bytes += 2L * (file.getKey().length() + file.getValue().contentHash().length());
+                for (ChunkRef chunk : file.getValue().chunks()) {
+                    bytes += 2L * chunk.id().length() + 8;
+                }
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.testgenie.backend.storage;
+
+import com.testgenie.backend.config.StorageProperties;
+import com.testgenie.backend.service.BackendMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes project data nobody reads any more, off the request path. Replacing or deleting a project
+ * only marks the old objects as garbage; this collector removes them later in DeleteObjects batches
+ * of up to 1000 keys (the API limit). A bounded number of batches run at once, and they start at a
+ * capped rate, so a large cleanup doesn't compete with uploads for MinIO.
+ * <p>
+ * Marks are kept in memory. A periodic sweep also finds what a restart or another instance left
+ * behind: generations that aren't current once the pointer is older than the grace period, and
+ * uncommitted generations with no writes for {@code storage.gc-orphan-age}.
+ */
+final class GenerationCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationCollector.class);
+
+    private static final String PROJECTS = "projects/";
+
+    private final S3Client s3Client;
+    private final StorageProperties properties;
+    private final BackendMetrics metrics;
+    private final AsyncTaskExecutor storageExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong deletedKeys = new AtomicLong();
+
+    private String bucketName;
+    // Earliest time the next DeleteObjects batch may start; guarded by this
+    private long nextBatchNanos;
+
+    GenerationCollector(S3Client s3Client, StorageProperties properties, BackendMetrics metrics, AsyncTaskExecutor storageExecutor) {
+        this.s3Client = s3Client;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.storageExecutor = storageExecutor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void start(String bucketName) {
+        this.bucketName = bucketName;
+        long interval = properties.getGcInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // Objects under prefix that pass include are deleted once delay has passed
+    void mark(String prefix, Predicate<String> include, Duration delay) {
+        pending.incrementAndGet();
+        scheduler.schedule(() -> {
+            try {
+                collect(prefix, include);
+            } finally {
+                pending.decrementAndGet();
+            }
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Marked prefixes not collected yet
+    int pending() {
+        return pending.get();
+    }
+
+    long deletedKeys() {
+        return deletedKeys.get();
+    }
+
+    /**
+     * Deletes now, on the calling thread, with the same batching and limits as background collection.
+     * Listing pages are fetched while earlier batches are still being deleted.
+     */
+    long deleteNow(String prefix, Predicate<String> include) {
+        Semaphore inFlight = new Semaphore(properties.getGcParallelism());
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        AtomicLong deleted = new AtomicLong();
+
+        for (ListObjectsV2Response page : s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .build())) {
+            List<ObjectIdentifier> keys = page.contents().stream()
+                    .map(S3Object::key)
+                    .filter(include)
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            if (keys.isEmpty()) continue;
+
+            awaitTurn(inFlight);
+            batches.add(CompletableFuture.runAsync(() -> deleted.addAndGet(deleteBatch(keys)), storageExecutor)
+                    .whenComplete((ignored, error) -> inFlight.release()));
+        }
+
+        CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+        deletedKeys.addAndGet(deleted.get());
+        return deleted.get();
+    }
+
+    private void collect(String prefix, Predicate<String> include) {
+        try {
+            long deleted = deleteNow(prefix, include);
+            if (deleted > 0) log.info("🧹 Collected {} objects under {}", deleted, prefix);
+        } catch (RuntimeException e) {
+            // Whatever is left is found again by the next sweep
+            log.warn("Collecting {} failed", prefix, e);
+        }
+    }
+
+    private void sweep() {
+        try {
+            for (String root : children(PROJECTS).prefixes()) {
+                sweepProject(root);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Storage sweep failed", e);
+        }
+    }
+
+    private void sweepProject(String root) {
+        Instant now = Instant.now();
+        String current;
+        Instant committedAt;
+        try {
+            ResponseBytes<GetObjectResponse> pointer = s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(root + ProjectGenerations.POINTER)
+                    .build());
+            current = pointer.asUtf8String().strip();
+            committedAt = pointer.response().lastModified();
+        } catch (NoSuchKeyException e) {
+            current = ProjectGenerations.LEGACY;
+            committedAt = null;
+        }
+        // Readers may still be on the previous generation until the grace period after the last commit has passed
+        boolean pastGrace = committedAt != null && committedAt.plus(properties.getGenerationGrace()).isBefore(now);
+
+        Listing children = children(root);
+        for (String child : children.prefixes()) {
+            String name = child.substring(root.length(), child.length() - 1);
+            if (!ProjectGenerations.isGeneration(name)) {
+                // A folder of sources stored before generations, superseded once a pointer exists
+                if (pastGrace && !ProjectGenerations.isInternal(name)) collect(child, key -> true);
+                continue;
+            }
+            if (name.equals(current) || (committedAt != null && !pastGrace)) continue;
+
+            // Uncommitted generations may belong to an upload still in progress
+            Instant lastWrite = lastWrite(child);
+            if (lastWrite != null && lastWrite.plus(properties.getGcOrphanAge()).isBefore(now)) {
+                collect(child, key -> true);
+            }
+        }
+
+        if (pastGrace) {
+            Set<String> legacyFiles = children.keys().stream()
+                    .filter(key -> !ProjectGenerations.isInternal(key.substring(root.length())))
+                    .collect(Collectors.toSet());
+            if (!legacyFiles.isEmpty()) collect(root, legacyFiles::contains);
+        }
+    }
+
+    // Newest modification among the first listing page; enough to tell an upload in progress from an abandoned one
+    private Instant lastWrite(String prefix) {
+        return s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(bucketName).prefix(prefix).build())
+                .contents().stream()
+                .map(S3Object::lastModified)
+                .max(Instant::compareTo)
+                .orElse(null);
+    }
+
+    // One level below prefix: sub-prefixes ("folders") and the keys directly in it
+    private Listing children(String prefix) {
+        List<String> prefixes = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (ListObjectsV2Response page : s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .delimiter("/")
+                .build())) {
+            page.commonPrefixes().forEach(common -> prefixes.add(common.prefix()));
+            page.contents().forEach(object -> keys.add(object.key()));
+        }
+        return new Listing(prefixes, keys);
+    }
+
+    private record Listing(List<String> prefixes, List<String> keys) {}
+
+    private long deleteBatch(List<ObjectIdentifier> keys) {
+        Timer.Sample sample = metrics.start();
+        DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(keys).quiet(true).build())
+                .build());
+        metrics.recordStorage(sample, "minio", "delete", -1);
+
+        // Quiet mode lists only failures; those keys are picked up by a later sweep
+        if (response.hasErrors() && !response.errors().isEmpty()) {
+            S3Error first = response.errors().get(0);
+            log.warn("{} of {} deletes failed, e.g. {}: {}", response.errors().size(), keys.size(), first.key(), first.message());
+        }
+        return keys.size() - (response.hasErrors() ? response.errors().size() : 0);
+    }
+
+    // At most gc-parallelism batches in flight, started no faster than gc-batches-per-second
+    private void awaitTurn(Semaphore inFlight) {
+        try {
+            synchronized (this) {
+                long now = System.nanoTime();
+                long wait = nextBatchNanos - now;
+                nextBatchNanos = Math.max(now, nextBatchNanos) + TimeUnit.SECONDS.toNanos(1) / Math.max(1, properties.getGcBatchesPerSecond());
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while deleting");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.testgenie.backend.storage;
+
+import com.testgenie.backend.config.StorageProperties;
+import com.testgenie.backend.service.AsyncFileStorageService;
+import com.testgenie.backend.service.BackendMetrics;
+import com.testgenie.backend.util.AsyncFanOut;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+// File contents go through AsynchronousFileChannel; directory walks and deletes have no async NIO API, so they run on the storage executor
+@Service
+public class LocalAsyncFileStorageService implements AsyncFileStorageService {
+
+    private final LocalFileStorageService local;
+    private final StorageProperties properties;
+    private final BackendMetrics metrics;
+    private final AsyncTaskExecutor storageExecutor;
+
+    public LocalAsyncFileStorageService(LocalFileStorageService local, StorageProperties properties, BackendMetrics metrics,
+                                        @Qualifier("storageExecutor") AsyncTaskExecutor storageExecutor) {
+        this.local = local;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.storageExecutor = storageExecutor;
+    }
+
+    // Files are copied into a fresh generation, then committed with the pointer swap on the storage executor
+    @Override
+    public CompletableFuture<Void> saveProject(String projectName, Path sourceDir) {
+        String generation = ProjectGenerations.newGeneration();
+        Path targetPath = local.generationPath(projectName, generation);
+        return CompletableFuture.supplyAsync(() -> {
+                    try (Stream<Path> paths = Files.walk(sourceDir)) {
+                        List<Path> files = paths.filter(Files::isRegularFile).toList();
+                        Files.createDirectories(targetPath);
+                        for (Path file : files) {
+                            Files.createDirectories(targetPath.resolve(sourceDir.relativize(file)).getParent());
+                        }
+                        return files;
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, storageExecutor)
+                .thenCompose(files -> AsyncFanOut.forEach(files, properties.getIoConcurrency(),
+                        file -> copy(file, targetPath.resolve(sourceDir.relativize(file)))))
+                .thenRunAsync(() -> {
+                    try {
+                        local.commitGeneration(projectName, generation);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, storageExecutor);
+    }
+
+    // Copies rather than moves, so the caller can keep reading sourceDir (e.g. to index it) meanwhile;
+    // the previous generation stays readable until the new one is committed
+    @Override
+    public CompletableFuture<Void> replaceProject(String projectName, Path sourceDir) {
+        return saveProject(projectName, sourceDir);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteProject(String projectName) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                local.deleteProject(projectName);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, storageExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listProjectFiles(String projectName) {
+        return CompletableFuture.supplyAsync(() -> {
+            Timer.Sample sample = metrics.start();
+            try {
+                List<String> files = local.listProjectFiles(projectName);
+                metrics.recordStorage(sample, "local", "list", -1);
+                return files;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, storageExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<byte[]>> readProjectFile(String projectName, String relativePath) {
+        Path projectPath = local.getProjectPath(projectName);
+        Path filePath = projectPath.resolve(relativePath).normalize();
+        if (!filePath.startsWith(projectPath) || !Files.isRegularFile(filePath)
+                || ProjectGenerations.isInternal(projectPath.relativize(filePath).toString().replace("\\", "/"))) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        Timer.Sample sample = metrics.start();
+        return read(filePath).thenApply(content -> {
+            metrics.recordStorage(sample, "local", "read", content.length);
+            return Optional.of(content);
+        });
+    }
+
+    private CompletableFuture<Void> copy(Path source, Path destination) {
+        Timer.Sample sample = metrics.start();
+        return read(source)
+                .thenCompose(content -> write(destination, content)
+                        .thenRun(() -> metrics.recordStorage(sample, "local", "put", content.length)));
+    }
+
+    private static CompletableFuture<byte[]> read(Path file) {
+        AsynchronousFileChannel channel;
+        ByteBuffer buffer;
+        try {
+            channel = AsynchronousFileChannel.open(file, StandardOpenOption.READ);
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) {
+                channel.close();
+                throw new IOException("File too large to read into memory: " + file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        transfer(channel, buffer, 0, true, result);
+        return result.thenApply(ignored -> buffer.array());
+    }
+
+    private static CompletableFuture<Void> write(Path file, byte[] content) {
+        AsynchronousFileChannel channel;
+        try {
+            channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        transfer(channel, ByteBuffer.wrap(content), 0, false, result);
+        return result;
+    }
+
+    // Reads or writes until the buffer is exhausted (a single call may move fewer bytes), then closes the channel
+    private static void transfer(AsynchronousFileChannel channel, ByteBuffer buffer, long position,
+                                 boolean reading, CompletableFuture<Void> result) {
+        if (!buffer.hasRemaining()) {
+            closeAndComplete(channel, result, null);
+            return;
+        }
+
+        CompletionHandler<Integer, Void> handler = new CompletionHandler<>() {
+            @Override
+            public void completed(Integer count, Void attachment) {
+                if (count < 0) {
+                    closeAndComplete(channel, result, new IOException("File shrank while it was being read"));
+                } else {
+                    transfer(channel, buffer, position + count, reading, result);
+                }
+            }
+
+            @Override
+            public void failed(Throwable error, Void attachment) {
+                closeAndComplete(channel, result, error);
+            }
+        };
+
+        if (reading) {
+            channel.read(buffer, position, null, handler);
+        } else {
+            channel.write(buffer, position, null, handler);
+        }
+    }
+
+    private static void closeAndComplete(AsynchronousFileChannel channel, CompletableFuture<Void> result, Throwable error) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+        if (error != null) {
+            result.completeExceptionally(error);
+        } else {
+            result.complete(null);
+        }
+    }
+}
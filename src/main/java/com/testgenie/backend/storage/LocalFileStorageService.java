@@ -1,27 +1,65 @@
 package com.testgenie.backend.storage;
 
 import com.testgenie.backend.config.StorageProperties;
+import com.testgenie.backend.service.BackendMetrics;
 import com.testgenie.backend.service.FileStorageService;
+import com.testgenie.backend.service.ProjectMetadataService;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 @Service
 public class LocalFileStorageService implements FileStorageService {
 
+    private static final String ARTIFACTS_DIR = ".artifacts";
+    private static final String UPLOADS_DIR = ".uploads";
+
+    private static final Logger log = LoggerFactory.getLogger(LocalFileStorageService.class);
+
     private final StorageProperties properties;
+    private final BackendMetrics metrics;
+    private final AsyncTaskExecutor storageExecutor;
+    private final ProjectMetadataService projectMetadataService;
     private Path baseDir;
 
-    public LocalFileStorageService(StorageProperties properties) {
+    // Committed generation per project, as read from (or last written to) its pointer file
+    private final Map<String, String> currentGenerations = new ConcurrentHashMap<>();
+
+    public LocalFileStorageService(StorageProperties properties, BackendMetrics metrics,
+                                   @Qualifier("storageExecutor") AsyncTaskExecutor storageExecutor,
+                                   ProjectMetadataService projectMetadataService) {
         this.properties = properties;
+        this.metrics = metrics;
+        this.storageExecutor = storageExecutor;
+        this.projectMetadataService = projectMetadataService;
     }
 
     @PostConstruct
@@ -39,16 +77,26 @@ public class LocalFileStorageService implements FileStorageService {
         return targetPath;
     }
 
+    // Directory of the committed generation; the project root for projects stored before generations
     @Override
     public Path getProjectPath(String projectName) {
-        return baseDir.resolve(projectName).normalize();
+        String generation = currentGeneration(projectName);
+        return generation.isEmpty() ? projectRoot(projectName) : generationPath(projectName, generation);
     }
 
+    public Path generationPath(String projectName, String generation) {
+        return projectRoot(projectName).resolve(generation).normalize();
+    }
+
+    // Only projects with a metadata row, written once an upload is committed; a first upload still being copied is not listed
     @Override
     public List<String> listAllProjects() throws IOException {
+        Set<String> recorded = projectMetadataService.projectNames();
         try (Stream<Path> paths = Files.list(baseDir)) {
             return paths.filter(Files::isDirectory)
                     .map(path -> path.getFileName().toString())
+                    .filter(name -> !name.startsWith("."))
+                    .filter(recorded::contains)
                     .toList();
         }
     }
@@ -58,17 +106,6 @@ public class LocalFileStorageService implements FileStorageService {
         return baseDir;
     }
 
-    @Override
-    public void replaceProject(String projectName, Path newExtractedPath) throws IOException {
-        Path projectPath = getProjectPath(projectName);
-
-        if (Files.exists(projectPath)) {
-            deleteRecursively(projectPath);
-        }
-
-        Files.move(newExtractedPath, projectPath, StandardCopyOption.REPLACE_EXISTING);
-    }
-
     @Override
     public void deleteRecursively(Path path) throws IOException {
         if (Files.exists(path)) {
@@ -84,33 +121,185 @@ public class LocalFileStorageService implements FileStorageService {
         }
     }
 
+    // Drops every generation and the pointer
+    public void deleteProject(String projectName) throws IOException {
+        deleteRecursively(projectRoot(projectName));
+        currentGenerations.remove(projectName);
+    }
+
+    /**
+     * Makes a fully written generation the one readers see. The pointer is replaced with an atomic
+     * rename, so readers see the old generation or the new one, never a mix; the previous generation
+     * is deleted once {@code storage.generation-grace} has passed. Callers serialize commits per project.
+     */
+    public void commitGeneration(String projectName, String generation) throws IOException {
+        String previous = currentGeneration(projectName);
+
+        Path root = projectRoot(projectName);
+        Path staged = root.resolve(ProjectGenerations.POINTER + "-" + generation);
+        Files.writeString(staged, generation);
+        Files.move(staged, root.resolve(ProjectGenerations.POINTER),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        currentGenerations.put(projectName, generation);
+
+        if (!previous.equals(generation)) {
+            CompletableFuture.runAsync(() -> discardGeneration(projectName, previous),
+                    CompletableFuture.delayedExecutor(properties.getGenerationGrace().toMillis(), TimeUnit.MILLISECONDS, storageExecutor));
+        }
+    }
+
+    private String currentGeneration(String projectName) {
+        String cached = currentGenerations.get(projectName);
+        if (cached != null) return cached;
+
+        Path pointer = projectRoot(projectName).resolve(ProjectGenerations.POINTER);
+        String loaded;
+        try {
+            loaded = Files.isRegularFile(pointer) ? Files.readString(pointer).strip() : ProjectGenerations.LEGACY;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String raced = currentGenerations.putIfAbsent(projectName, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private void discardGeneration(String projectName, String generation) {
+        Path root = projectRoot(projectName);
+        try {
+            if (generation.equals(ProjectGenerations.LEGACY)) {
+                List<Path> legacyEntries;
+                try (Stream<Path> children = Files.list(root)) {
+                    legacyEntries = children
+                            .filter(child -> !ProjectGenerations.isInternal(child.getFileName().toString()))
+                            .toList();
+                }
+                for (Path entry : legacyEntries) {
+                    deleteRecursively(entry);
+                }
+            } else {
+                deleteRecursively(generationPath(projectName, generation));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not delete old generation '{}' of project '{}'", generation, projectName, e);
+        }
+    }
+
+    private Path projectRoot(String projectName) {
+        return baseDir.resolve(projectName).normalize();
+    }
+
+    // ✅ For local, just return the path directly: it's already a real file on disk, nothing to copy
     @Override
-    public void saveNewProject(String projectName, Path sourceDir) throws IOException {
-        Path targetPath = getProjectPath(projectName);
-        deleteRecursively(targetPath); // clear if already exists
-        Files.createDirectories(targetPath);
-
-        Files.walk(sourceDir)
-                .forEach(source -> {
-                    try {
-                        Path relative = sourceDir.relativize(source);
-                        Path destination = targetPath.resolve(relative);
-                        if (Files.isDirectory(source)) {
-                            Files.createDirectories(destination);
-                        } else {
-                            Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
-                        }
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
-                });
+    public Path downloadZip(Path storedPath, Path target) {
+        return storedPath;
+    }
+
+    // The archive is preallocated at its final size so parts can be written at their offsets in any order
+    @Override
+    public String initiateZipUpload(String fileName, long totalSize) throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        Path partial = uploadPath(uploadId);
+        Files.createDirectories(partial.getParent());
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            if (totalSize > 0) channel.write(ByteBuffer.allocate(1), totalSize - 1);
+        }
+        return uploadId;
+    }
+
+    // Positional write: concurrent parts of the same upload never touch each other's bytes
+    @Override
+    public String uploadZipPart(String fileName, String uploadId, int partNumber, long offset,
+                                InputStream data, long length) throws IOException {
+        Path partial = uploadPath(uploadId);
+        if (!Files.exists(partial)) {
+            throw new NoSuchFileException(partial.toString(), null, "Unknown upload " + uploadId);
+        }
+
+        Timer.Sample sample = metrics.start();
+        MessageDigest md5 = md5();
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(new DigestInputStream(data, md5))) {
+            long written = 0;
+            while (written < length) {
+                long transferred = channel.transferFrom(source, offset + written, length - written);
+                if (transferred <= 0) break;
+                written += transferred;
+            }
+            if (written != length) {
+                throw new IOException("Part " + partNumber + " of upload " + uploadId + " ended after " + written + " of " + length + " bytes");
+            }
+        }
+        metrics.recordStorage(sample, "local", "put", length);
+        return HexFormat.of().formatHex(md5.digest());
+    }
+
+    @Override
+    public Path completeZipUpload(String fileName, String uploadId, List<UploadedPart> parts) throws IOException {
+        Path targetPath = baseDir.resolve(fileName.replaceAll("[^a-zA-Z0-9\\.\\-_]", "_"));
+        Files.move(uploadPath(uploadId), targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return targetPath;
+    }
+
+    @Override
+    public void abortZipUpload(String fileName, String uploadId) throws IOException {
+        Files.deleteIfExists(uploadPath(uploadId));
+    }
 
-        System.out.println("✅ Saved new project to local: " + targetPath);
+    private Path uploadPath(String uploadId) {
+        return baseDir.resolve(UPLOADS_DIR).resolve(uploadId + ".zip.part");
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-    // ✅ This is only needed to satisfy the interface. For local, just return the path directly.
     @Override
-    public Path downloadZipToTemp(Path path) {
-        return path; // It's already a real file path on disk
+    public void writeArtifact(String projectName, String artifactName, byte[] content) throws IOException {
+        Path artifactPath = artifactPath(projectName, artifactName);
+        Files.createDirectories(artifactPath.getParent());
+        Files.write(artifactPath, content);
+    }
+
+    @Override
+    public Optional<byte[]> readArtifact(String projectName, String artifactName) throws IOException {
+        Path artifactPath = artifactPath(projectName, artifactName);
+        return Files.exists(artifactPath) ? Optional.of(Files.readAllBytes(artifactPath)) : Optional.empty();
+    }
+
+    @Override
+    public List<String> listProjectFiles(String projectName) throws IOException {
+        Path projectPath = getProjectPath(projectName);
+        if (!Files.isDirectory(projectPath)) return List.of();
+
+        try (Stream<Path> paths = Files.walk(projectPath)) {
+            return paths.filter(Files::isRegularFile)
+                    .map(path -> projectPath.relativize(path).toString().replace("\\", "/"))
+                    .filter(path -> !ProjectGenerations.isInternal(path))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @Override
+    public Optional<byte[]> readProjectFile(String projectName, String relativePath) throws IOException {
+        Path projectPath = getProjectPath(projectName);
+        Path filePath = projectPath.resolve(relativePath).normalize();
+        if (!filePath.startsWith(projectPath) || !Files.isRegularFile(filePath)
+                || ProjectGenerations.isInternal(projectPath.relativize(filePath).toString().replace("\\", "/"))) {
+            return Optional.empty();
+        }
+
+        Timer.Sample sample = metrics.start();
+        byte[] content = Files.readAllBytes(filePath);
+        metrics.recordStorage(sample, "local", "read", content.length);
+        return Optional.of(content);
+    }
+
+    private Path artifactPath(String projectName, String artifactName) {
+        return baseDir.resolve(ARTIFACTS_DIR).resolve(projectName).resolve(artifactName).normalize();
     }
 }
\ No newline at end of file
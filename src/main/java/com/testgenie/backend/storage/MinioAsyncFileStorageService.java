@@ -0,0 +1,214 @@
+package com.testgenie.backend.storage;
+
+import com.testgenie.backend.config.StorageProperties;
+import com.testgenie.backend.service.AsyncFileStorageService;
+import com.testgenie.backend.service.BackendMetrics;
+import com.testgenie.backend.util.AsyncFanOut;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// Same object layout as MinioFileStorageService (generations and pointer included), over the Netty-based S3AsyncClient.
+// Reached through TieredAsyncFileStorageService, which puts the local disk cache in front of it
+@Service
+public class MinioAsyncFileStorageService implements AsyncFileStorageService {
+
+    private final S3AsyncClient s3AsyncClient;
+    private final MinioFileStorageService minio;
+    private final StorageProperties properties;
+    private final BackendMetrics metrics;
+    private final AsyncTaskExecutor storageExecutor;
+
+    public MinioAsyncFileStorageService(S3AsyncClient s3AsyncClient, MinioFileStorageService minio,
+                                        StorageProperties properties, BackendMetrics metrics,
+                                        @Qualifier("storageExecutor") AsyncTaskExecutor storageExecutor) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.minio = minio;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.storageExecutor = storageExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Void> saveProject(String projectName, Path sourceDir) {
+        return saveGeneration(projectName, ProjectGenerations.newGeneration(), sourceDir);
+    }
+
+    // Objects go into a fresh generation; the pointer write that commits it is a blocking call, so it runs on the storage executor
+    CompletableFuture<Void> saveGeneration(String projectName, String generation, Path sourceDir) {
+        String prefix = minio.generationPrefix(projectName, generation);
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(sourceDir)) {
+            files = paths.filter(Files::isRegularFile).toList();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return AsyncFanOut.forEach(files, properties.getIoConcurrency(), file -> {
+                    String relativePath = sourceDir.relativize(file).toString().replace("\\", "/");
+                    return putFile(prefix + relativePath, file);
+                })
+                .thenRunAsync(() -> minio.commitGeneration(projectName, generation), storageExecutor);
+    }
+
+    // The previous generation stays readable until the new one is committed
+    @Override
+    public CompletableFuture<Void> replaceProject(String projectName, Path sourceDir) {
+        return saveProject(projectName, sourceDir);
+    }
+
+    // Only the pointer delete is waited for; the objects are collected in the background
+    @Override
+    public CompletableFuture<Void> deleteProject(String projectName) {
+        return CompletableFuture.runAsync(() -> minio.deleteProject(projectName), storageExecutor);
+    }
+
+    // The committed generation: MinioFileStorageService's cached copy while it is fresh, else the pointer read without blocking
+    public CompletableFuture<String> currentGeneration(String projectName) {
+        return minio.cachedGeneration(projectName)
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> loadGeneration(projectName));
+    }
+
+    // Bypasses the cache; the result is cached for the sync service too
+    CompletableFuture<String> loadGeneration(String projectName) {
+        long readAt = System.nanoTime();
+        return s3AsyncClient.getObject(minio.pointerRequest(projectName), AsyncResponseTransformer.toBytes())
+                .handle((pointer, error) -> {
+                    if (error == null) return pointer.asUtf8String().strip();
+                    if (AsyncFanOut.unwrap(error) instanceof NoSuchKeyException) return ProjectGenerations.LEGACY;
+                    throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                })
+                .thenApply(generation -> minio.rememberGeneration(projectName, generation, readAt));
+    }
+
+    // An empty listing or a missing file may only mean the cached pointer is behind a commit from another instance,
+    // whose old generation has since been collected: the pointer is re-read and the call repeated if it moved
+    private <T> CompletableFuture<T> inCurrentGeneration(String projectName, Function<String, CompletableFuture<T>> call,
+                                                         Predicate<T> miss) {
+        return currentGeneration(projectName).thenCompose(generation -> call.apply(generation).thenCompose(result -> {
+            if (!miss.test(result)) return CompletableFuture.completedFuture(result);
+            return loadGeneration(projectName).thenCompose(latest ->
+                    latest.equals(generation) ? CompletableFuture.completedFuture(result) : call.apply(latest));
+        }));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listProjectFiles(String projectName) {
+        return inCurrentGeneration(projectName, generation -> listGeneration(minio.prefixOf(projectName, generation)), List::isEmpty);
+    }
+
+    // One generation's files as they are, without resolving or re-reading the pointer
+    CompletableFuture<List<String>> listGeneration(String projectName, String generation) {
+        return listGeneration(minio.prefixOf(projectName, generation));
+    }
+
+    CompletableFuture<Optional<StoredContent>> readGenerationFile(String projectName, String generation, String normalizedPath) {
+        return readObject(minio.prefixOf(projectName, generation) + normalizedPath);
+    }
+
+    private CompletableFuture<List<String>> listGeneration(String prefix) {
+        List<String> files = Collections.synchronizedList(new ArrayList<>());
+
+        Timer.Sample sample = metrics.start();
+        return s3AsyncClient.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(minio.getBucketName())
+                        .prefix(prefix)
+                        .build())
+                .contents()
+                .subscribe(obj -> {
+                    String relativePath = obj.key().substring(prefix.length());
+                    if (!obj.key().endsWith("/") && !ProjectGenerations.isInternal(relativePath)) files.add(relativePath);
+                })
+                .thenApply(ignored -> {
+                    metrics.recordStorage(sample, "minio", "list", -1);
+                    return List.copyOf(files);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Optional<byte[]>> readProjectFile(String projectName, String relativePath) {
+        return readStoredProjectFile(projectName, relativePath).thenApply(stored -> stored.map(content -> {
+            try {
+                return StorageCodec.decode(content.content(), content.encoding());
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }));
+    }
+
+    @Override
+    public CompletableFuture<Optional<StoredContent>> readStoredProjectFile(String projectName, String relativePath) {
+        String normalized = Path.of(relativePath).normalize().toString().replace("\\", "/");
+        if (normalized.startsWith("..") || normalized.startsWith("/") || ProjectGenerations.isInternal(normalized)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        return inCurrentGeneration(projectName,
+                generation -> readObject(minio.prefixOf(projectName, generation) + normalized), Optional::isEmpty);
+    }
+
+    private CompletableFuture<Optional<StoredContent>> readObject(String key) {
+        Timer.Sample sample = metrics.start();
+        return s3AsyncClient.getObject(GetObjectRequest.builder()
+                                .bucket(minio.getBucketName())
+                                .key(key)
+                                .build(),
+                        AsyncResponseTransformer.toBytes())
+                .handle((response, error) -> {
+                    if (error == null) {
+                        byte[] content = response.asByteArrayUnsafe();
+                        metrics.recordStorage(sample, "minio", "read", content.length);
+                        String encoding = StorageCodec.isGzip(response.response().contentEncoding()) ? StorageCodec.GZIP : null;
+                        return Optional.of(new StoredContent(content, encoding));
+                    }
+                    if (AsyncFanOut.unwrap(error) instanceof NoSuchKeyException) {
+                        return Optional.empty();
+                    }
+                    throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                });
+    }
+
+    // Compression reads the whole file, so it runs on the storage executor rather than an SDK completion thread
+    private CompletableFuture<Void> putFile(String objectKey, Path file) {
+        Timer.Sample sample = metrics.start();
+        return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        long size = Files.size(file);
+                        byte[] compressed = minio.compressedBody(file, size);
+                        PutObjectRequest.Builder request = PutObjectRequest.builder()
+                                .bucket(minio.getBucketName())
+                                .key(objectKey)
+                                .contentType(Files.probeContentType(file));
+                        return compressed != null
+                                ? new Put(request.contentEncoding(StorageCodec.GZIP).build(), AsyncRequestBody.fromBytes(compressed), compressed.length)
+                                : new Put(request.build(), AsyncRequestBody.fromFile(file), size);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, storageExecutor)
+                .thenCompose(put -> s3AsyncClient.putObject(put.request(), put.body())
+                        .thenRun(() -> metrics.recordStorage(sample, "minio", "put", put.storedBytes())));
+    }
+
+    private record Put(PutObjectRequest request, AsyncRequestBody body, long storedBytes) {}
+}
@@ -1,12 +1,20 @@
 package com.testgenie.backend.storage;
 
 import com.testgenie.backend.config.StorageProperties;
+import com.testgenie.backend.service.BackendMetrics;
 import com.testgenie.backend.service.FileStorageService;
+import com.testgenie.backend.service.ProjectMetadataService;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
 import lombok.Getter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -15,10 +23,17 @@ import software.amazon.awssdk.services.s3.model.*;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -29,28 +44,96 @@ public class MinioFileStorageService implements FileStorageService {
 
     private final S3Client s3Client;
     private final StorageProperties properties;
+    private final BackendMetrics metrics;
+    private final AsyncTaskExecutor storageExecutor;
+    @Getter(AccessLevel.NONE)
+    private final ProjectMetadataService projectMetadataService;
     private String bucketName;
 
+    private static final Duration INITIAL_BUCKET_RETRY = Duration.ofSeconds(1);
+    private static final Duration MAX_BUCKET_RETRY = Duration.ofSeconds(30);
+
+    // Set once the bucket is known to exist; bucketError holds why the last check failed until then
+    private volatile boolean bucketReady;
+    private volatile Throwable bucketError;
+
+    @Getter(AccessLevel.NONE)
+    private final GenerationCollector garbageCollector;
+
+    // Committed generation per project, as last read from or written to its pointer object. Other instances commit
+    // too, so an entry is trusted for storage.pointer-ttl only, and a read that misses re-reads the pointer
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Pointer> currentGenerations = new ConcurrentHashMap<>();
+
+    // readAt is System.nanoTime() when the read that produced it started (or the commit finished)
+    private record Pointer(String generation, long readAt) {}
+
     private static final org.slf4j.Logger logger = getLogger(MinioFileStorageService.class);
 
-    public MinioFileStorageService(S3Client s3Client, StorageProperties properties) {
+    public MinioFileStorageService(S3Client s3Client, StorageProperties properties, BackendMetrics metrics,
+                                   @Qualifier("storageExecutor") AsyncTaskExecutor storageExecutor,
+                                   ProjectMetadataService projectMetadataService) {
         this.s3Client = s3Client;
         this.properties = properties;
+        this.metrics = metrics;
+        this.storageExecutor = storageExecutor;
+        this.projectMetadataService = projectMetadataService;
+        this.garbageCollector = new GenerationCollector(s3Client, properties, metrics, storageExecutor);
     }
 
+    // No network call on the startup path: the bucket is checked (and created) in the background, retried until
+    // MinIO answers, and StorageHealthIndicator keeps the instance out of readiness until then
     @PostConstruct
     public void init() {
         this.bucketName = Optional.ofNullable(properties.getBasePath()).orElse("testgenie-bucket");
         System.out.println("🪣 Using bucket: " + bucketName);
+        ensureBucket(INITIAL_BUCKET_RETRY);
+        garbageCollector.start(bucketName);
+    }
 
-        boolean exists = s3Client.listBuckets().buckets().stream()
-                .anyMatch(b -> b.name().equals(bucketName));
+    @PreDestroy
+    public void shutdown() {
+        garbageCollector.stop();
+    }
 
-        if (!exists) {
-            System.out.println("📦 Creating bucket: " + bucketName);
-            s3Client.createBucket(CreateBucketRequest.builder().bucket(bucketName).build());
-        } else {
+    // Marked prefixes waiting for the background collector
+    public int pendingGarbage() {
+        return garbageCollector.pending();
+    }
+
+    public long collectedObjects() {
+        return garbageCollector.deletedKeys();
+    }
+
+    private void ensureBucket(Duration retryDelay) {
+        CompletableFuture.runAsync(this::createBucketIfMissing, storageExecutor).whenComplete((ignored, error) -> {
+            if (error == null) {
+                bucketError = null;
+                bucketReady = true;
+                return;
+            }
+            bucketError = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            logger.warn("MinIO bucket '{}' not available yet, retrying in {}s: {}", bucketName, retryDelay.toSeconds(), bucketError.toString());
+            Duration next = retryDelay.multipliedBy(2).compareTo(MAX_BUCKET_RETRY) > 0 ? MAX_BUCKET_RETRY : retryDelay.multipliedBy(2);
+            CompletableFuture.runAsync(() -> ensureBucket(next),
+                    CompletableFuture.delayedExecutor(retryDelay.toMillis(), TimeUnit.MILLISECONDS, storageExecutor));
+        });
+    }
+
+    // HeadBucket rather than listing every bucket: one cheap call, and it needs no ListAllMyBuckets permission
+    private void createBucketIfMissing() {
+        try {
+            s3Client.headBucket(HeadBucketRequest.builder().bucket(bucketName).build());
             System.out.println("✅ Bucket already exists: " + bucketName);
+        } catch (S3Exception e) {
+            // HEAD responses have no error body, so a missing bucket may only show as a bare 404
+            if (!(e instanceof NoSuchBucketException) && e.statusCode() != 404) throw e;
+            System.out.println("📦 Creating bucket: " + bucketName);
+            try {
+                s3Client.createBucket(CreateBucketRequest.builder().bucket(bucketName).build());
+            } catch (BucketAlreadyOwnedByYouException raced) {
+                // Another instance created it first
+            }
         }
     }
 
@@ -76,25 +159,25 @@ public class MinioFileStorageService implements FileStorageService {
         return Path.of("projects/" + projectName);
     }
 
+    // One "projects/<name>/" prefix per project, over as many pages as it takes. Only projects with a metadata row
+    // are listed: the row is written once an upload is committed, so first uploads still being written and
+    // leftovers waiting for the collector are not
     @Override
     public List<String> listAllProjects() {
-        ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
-                .bucket(bucketName)
-                .prefix("projects/")
-                .build();
-
-        ListObjectsV2Response response = s3Client.listObjectsV2(listRequest);
-
-        return response.contents().stream()
-                .map(S3Object::key)
-                .map(key -> {
-                    String path = key.substring("projects/".length());
-                    int slashIndex = path.indexOf('/');
-                    return (slashIndex != -1) ? path.substring(0, slashIndex) : path;
-                })
-                .filter(name -> !name.isBlank())
-                .distinct()
+        Set<String> recorded = projectMetadataService.projectNames();
+
+        Timer.Sample sample = metrics.start();
+        List<String> projects = s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(bucketName)
+                        .prefix("projects/")
+                        .delimiter("/")
+                        .build())
+                .commonPrefixes().stream()
+                .map(prefix -> prefix.prefix().substring("projects/".length(), prefix.prefix().length() - 1))
+                .filter(recorded::contains)
                 .toList();
+        metrics.recordStorage(sample, "minio", "list", -1);
+        return projects;
     }
 
     @Override
@@ -102,86 +185,128 @@ public class MinioFileStorageService implements FileStorageService {
         return Path.of("s3://" + bucketName);
     }
 
-    @Override
-    public void replaceProject(String projectName, Path sourceDir) throws IOException {
-        deleteProject(projectName);
-        saveNewProject(projectName, sourceDir);
+    /**
+     * Removing the pointer hides the project at once; its objects are left to the background collector.
+     * Only what exists now is marked, so a project uploaded again under the same name keeps its new generation.
+     */
+    public void deleteProject(String projectName) {
+        String root = projectRoot(projectName);
+        String current = currentGeneration(projectName);
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucketName)
+                .key(root + ProjectGenerations.POINTER)
+                .build());
+        forgetGeneration(projectName);
+
+        if (!current.equals(ProjectGenerations.LEGACY)) {
+            garbageCollector.mark(generationPrefix(projectName, current), key -> true, Duration.ZERO);
+        }
+        // Sources from before generations; other generations are stale or in-progress uploads, left to the sweep
+        garbageCollector.mark(root, key -> !ProjectGenerations.isInternal(key.substring(root.length())), Duration.ZERO);
     }
 
-    private void deleteProject(String projectName) {
-        String prefix = "projects/" + projectName + "/";
+    // Gzipped body for a source file, or null to store it as is
+    byte[] compressedBody(Path file, long size) throws IOException {
+        if (!properties.isCompression()) return null;
+        return StorageCodec.compress(file, size, properties.getCompressionMinSize().toBytes());
+    }
 
-        ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
-                .bucket(bucketName)
-                .prefix(prefix)
-                .build();
+    // Prefix readers should use: the committed generation, or the root for projects stored before generations
+    public String projectPrefix(String projectName) {
+        return prefixOf(projectName, currentGeneration(projectName));
+    }
+
+    String prefixOf(String projectName, String generation) {
+        return generation.equals(ProjectGenerations.LEGACY) ? projectRoot(projectName) : generationPrefix(projectName, generation);
+    }
 
-        ListObjectsV2Response listResponse = s3Client.listObjectsV2(listRequest);
+    public String generationPrefix(String projectName, String generation) {
+        return projectRoot(projectName) + generation + "/";
+    }
+
+    /**
+     * Makes a fully written generation the one readers see. The pointer is a single object, so the
+     * switch is atomic; the previous generation is deleted once {@code storage.generation-grace} has passed.
+     * Callers serialize commits per project (see ProjectLocks).
+     */
+    public void commitGeneration(String projectName, String generation) {
+        String previous = currentGeneration(projectName);
+        s3Client.putObject(
+                PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(projectRoot(projectName) + ProjectGenerations.POINTER)
+                        .build(),
+                RequestBody.fromString(generation)
+        );
+        currentGenerations.put(projectName, new Pointer(generation, System.nanoTime()));
+
+        if (!previous.equals(generation)) {
+            discardGeneration(projectName, previous);
+        }
+    }
 
-        if (listResponse.hasContents()) {
-            List<ObjectIdentifier> toDelete = listResponse.contents().stream()
-                    .map(obj -> ObjectIdentifier.builder().key(obj.key()).build())
-                    .toList();
+    // The pointer is gone, which reads the same as a project stored before generations
+    public void forgetGeneration(String projectName) {
+        currentGenerations.put(projectName, new Pointer(ProjectGenerations.LEGACY, System.nanoTime()));
+    }
 
-            DeleteObjectsRequest deleteRequest = DeleteObjectsRequest.builder()
-                    .bucket(bucketName)
-                    .delete(Delete.builder().objects(toDelete).build())
-                    .build();
+    private String currentGeneration(String projectName) {
+        return cachedGeneration(projectName).orElseGet(() -> loadGeneration(projectName));
+    }
 
-            s3Client.deleteObjects(deleteRequest);
+    // The cached generation while it is younger than storage.pointer-ttl
+    Optional<String> cachedGeneration(String projectName) {
+        Pointer pointer = currentGenerations.get(projectName);
+        if (pointer == null || System.nanoTime() - pointer.readAt() > properties.getPointerTtl().toNanos()) {
+            return Optional.empty();
         }
+        return Optional.of(pointer.generation());
     }
 
-    @Override
-    public void saveNewProject(String projectName, Path sourceDir) throws IOException {
-        String prefix = "projects/" + projectName + "/";
-        
-        Files.walk(sourceDir)
-                .filter(Files::isRegularFile)
-                .forEach(file -> {
-                    try {
-                        String relativePath = sourceDir.relativize(file).toString().replace("\\", "/");
-                        String objectKey = prefix + relativePath;
-
-                        s3Client.putObject(
-                                PutObjectRequest.builder()
-                                        .bucket(bucketName)
-                                        .key(objectKey)
-                                        .contentType(Files.probeContentType(file))
-                                        .build(),
-                                RequestBody.fromFile(file)
-                        );
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
-                });
-
-        System.out.println("✅ Saved new project: " + projectName);
+    // Bypasses the cache
+    String loadGeneration(String projectName) {
+        long readAt = System.nanoTime();
+        String loaded;
+        try {
+            loaded = s3Client.getObjectAsBytes(pointerRequest(projectName)).asUtf8String().strip();
+        } catch (NoSuchKeyException e) {
+            loaded = ProjectGenerations.LEGACY;
+        }
+        return rememberGeneration(projectName, loaded, readAt);
     }
 
-    @Override
-    public void deleteRecursively(Path path) {
-        String prefix = extractS3Prefix(path);
+    // Keeps whichever value was read last, so a slow read that started before a commit can't undo it
+    String rememberGeneration(String projectName, String generation, long readAt) {
+        return currentGenerations.merge(projectName, new Pointer(generation, readAt),
+                (cached, read) -> read.readAt() - cached.readAt() >= 0 ? read : cached).generation();
+    }
 
-        ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
+    GetObjectRequest pointerRequest(String projectName) {
+        return GetObjectRequest.builder()
                 .bucket(bucketName)
-                .prefix(prefix)
+                .key(projectRoot(projectName) + ProjectGenerations.POINTER)
                 .build();
+    }
 
-        ListObjectsV2Response listResponse = s3Client.listObjectsV2(listRequest);
-
-        if (listResponse.hasContents()) {
-            List<ObjectIdentifier> toDelete = listResponse.contents().stream()
-                    .map(obj -> ObjectIdentifier.builder().key(obj.key()).build())
-                    .toList();
+    // Marked only: the collector deletes it once storage.generation-grace has passed
+    private void discardGeneration(String projectName, String generation) {
+        Duration grace = properties.getGenerationGrace();
+        if (generation.equals(ProjectGenerations.LEGACY)) {
+            String root = projectRoot(projectName);
+            garbageCollector.mark(root, key -> !ProjectGenerations.isInternal(key.substring(root.length())), grace);
+        } else {
+            garbageCollector.mark(generationPrefix(projectName, generation), key -> true, grace);
+        }
+    }
 
-            DeleteObjectsRequest deleteRequest = DeleteObjectsRequest.builder()
-                    .bucket(bucketName)
-                    .delete(Delete.builder().objects(toDelete).build())
-                    .build();
+    private static String projectRoot(String projectName) {
+        return "projects/" + projectName + "/";
+    }
 
-            s3Client.deleteObjects(deleteRequest);
-        }
+    // Synchronous, but paged and rate limited like background collection
+    @Override
+    public void deleteRecursively(Path path) {
+        garbageCollector.deleteNow(extractS3Prefix(path), key -> true);
     }
 
     private String extractS3Prefix(Path path) {
@@ -195,9 +320,8 @@ public class MinioFileStorageService implements FileStorageService {
     }
 
     @Override
-    public Path downloadZipToTemp(Path s3Path) throws IOException {
-        String key = "zips/" + s3Path.getFileName().toString(); // ✅ Force consistent prefix
-        Path tempFile = Files.createTempFile("download-", ".zip");
+    public Path downloadZip(Path storedPath, Path target) throws IOException {
+        String key = "zips/" + storedPath.getFileName().toString(); // ✅ Force consistent prefix
 
         GetObjectRequest getRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
@@ -205,16 +329,153 @@ public class MinioFileStorageService implements FileStorageService {
                 .build();
 
         try (ResponseInputStream<GetObjectResponse> s3Input = s3Client.getObject(getRequest)) {
-            Files.copy(s3Input, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(s3Input, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        return target;
+    }
+
+    // Chunked uploads map one to one onto an S3 multipart upload of the same "zips/" key saveZipFile writes
+    @Override
+    public String initiateZipUpload(String fileName, long totalSize) {
+        return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                        .bucket(bucketName)
+                        .key(zipKey(fileName))
+                        .contentType("application/zip")
+                        .build())
+                .uploadId();
+    }
+
+    // The offset is implied by the part number in S3; parts are independent requests and may run in parallel
+    @Override
+    public String uploadZipPart(String fileName, String uploadId, int partNumber, long offset,
+                                InputStream data, long length) {
+        Timer.Sample sample = metrics.start();
+        UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucketName)
+                        .key(zipKey(fileName))
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength(length)
+                        .build(),
+                RequestBody.fromInputStream(data, length));
+        metrics.recordStorage(sample, "minio", "put", length);
+        return response.eTag();
+    }
+
+    @Override
+    public Path completeZipUpload(String fileName, String uploadId, List<UploadedPart> parts) {
+        List<CompletedPart> completedParts = parts.stream()
+                .sorted(Comparator.comparingInt(UploadedPart::partNumber))
+                .map(part -> CompletedPart.builder().partNumber(part.partNumber()).eTag(part.tag()).build())
+                .toList();
+
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(zipKey(fileName))
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                .build());
+
+        return Path.of("s3://" + bucketName + "/" + zipKey(fileName));
+    }
+
+    @Override
+    public void abortZipUpload(String fileName, String uploadId) {
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(zipKey(fileName))
+                .uploadId(uploadId)
+                .build());
+    }
+
+    private static String zipKey(String fileName) {
+        return "zips/" + fileName.replaceAll("[^a-zA-Z0-9\\.\\-_]", "_");
+    }
+
+    @Override
+    public void writeArtifact(String projectName, String artifactName, byte[] content) {
+        s3Client.putObject(
+                PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(artifactKey(projectName, artifactName))
+                        .build(),
+                RequestBody.fromBytes(content)
+        );
+    }
+
+    @Override
+    public Optional<byte[]> readArtifact(String projectName, String artifactName) {
+        try {
+            return Optional.of(s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(artifactKey(projectName, artifactName))
+                    .build()).asByteArray());
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    // An empty listing or a missing file may only mean the cached pointer is behind a commit from another instance,
+    // whose old generation has since been collected: the pointer is re-read and the call repeated if it moved
+    @Override
+    public List<String> listProjectFiles(String projectName) {
+        String generation = currentGeneration(projectName);
+        List<String> files = listGeneration(prefixOf(projectName, generation));
+        if (files.isEmpty()) {
+            String latest = loadGeneration(projectName);
+            if (!latest.equals(generation)) files = listGeneration(prefixOf(projectName, latest));
         }
+        return files;
+    }
 
-        return tempFile;
+    private List<String> listGeneration(String prefix) {
+        Timer.Sample sample = metrics.start();
+        List<String> files = s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(bucketName)
+                        .prefix(prefix)
+                        .build())
+                .contents().stream()
+                .map(S3Object::key)
+                .filter(key -> !key.endsWith("/"))
+                .map(key -> key.substring(prefix.length()))
+                .filter(path -> !ProjectGenerations.isInternal(path))
+                .toList();
+        metrics.recordStorage(sample, "minio", "list", -1);
+        return files;
     }
-    public Path tempFileForKey(String key) throws IOException {
-        Path temp = Files.createTempFile("s3-read-", "-" + Paths.get(key).getFileName().toString());
-        s3Client.getObject(GetObjectRequest.builder().bucket(bucketName).key(key).build(), temp);
-        return temp;
+
+    @Override
+    public Optional<byte[]> readProjectFile(String projectName, String relativePath) throws IOException {
+        String normalized = Path.of(relativePath).normalize().toString().replace("\\", "/");
+        if (normalized.startsWith("..") || normalized.startsWith("/") || ProjectGenerations.isInternal(normalized)) {
+            return Optional.empty();
+        }
+
+        String generation = currentGeneration(projectName);
+        Optional<byte[]> content = readObject(prefixOf(projectName, generation) + normalized);
+        if (content.isEmpty()) {
+            String latest = loadGeneration(projectName);
+            if (!latest.equals(generation)) content = readObject(prefixOf(projectName, latest) + normalized);
+        }
+        return content;
     }
 
+    private Optional<byte[]> readObject(String key) throws IOException {
+        Timer.Sample sample = metrics.start();
+        try {
+            ResponseBytes<GetObjectResponse> object = s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build());
+            metrics.recordStorage(sample, "minio", "read", object.asByteArrayUnsafe().length);
+            return Optional.of(StorageCodec.decode(object.asByteArrayUnsafe(), object.response().contentEncoding()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        }
+    }
 
-}
\ No newline at end of file
+    private String artifactKey(String projectName, String artifactName) {
+        return "artifacts/" + projectName + "/" + artifactName;
+    }
+}
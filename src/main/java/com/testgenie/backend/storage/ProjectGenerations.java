@@ -0,0 +1,40 @@
+package com.testgenie.backend.storage;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Layout shared by the storage backends for atomically replacing a project:
+ * <pre>
+ *   &lt;project root&gt;/.current        id of the committed generation
+ *   &lt;project root&gt;/.g&lt;id&gt;/...      one complete copy of the sources per generation
+ * </pre>
+ * A new upload is written to a fresh generation nobody reads yet, then a single write of the pointer
+ * switches readers over; the previous generation is removed after a grace period. Projects stored
+ * before generations existed have no pointer and are read from the project root.
+ */
+final class ProjectGenerations {
+
+    static final String POINTER = ".current";
+    static final String LEGACY = "";
+
+    private static final Pattern GENERATION_DIR = Pattern.compile("\\.g[0-9a-f]{12}");
+
+    private ProjectGenerations() {
+    }
+
+    static String newGeneration() {
+        return ".g" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    }
+
+    static boolean isGeneration(String segment) {
+        return GENERATION_DIR.matcher(segment).matches();
+    }
+
+    // Pointer (and its temp files) and generation folders sit next to legacy sources in the project root; they are not project files
+    static boolean isInternal(String relativePath) {
+        int slash = relativePath.indexOf('/');
+        String first = slash == -1 ? relativePath : relativePath.substring(0, slash);
+        return first.startsWith(POINTER) || isGeneration(first);
+    }
+}
@@ -0,0 +1,69 @@
+package com.testgenie.backend.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of project sources at rest. Text compresses 5-10x, so objects are gzipped on write and
+ * tagged with {@code Content-Encoding: gzip}; readers decode according to that header, which also
+ * means objects written before compression (no header) keep reading as they are.
+ */
+final class StorageCodec {
+
+    static final String GZIP = "gzip";
+
+    // Compressed copy is kept only if it saves at least this share of the original size
+    private static final double MIN_SAVING = 0.1;
+
+    private static final Set<String> PRECOMPRESSED = Set.of(".gz", ".tgz", ".zip", ".jar", ".war", ".png", ".jpg",
+            ".jpeg", ".gif", ".webp", ".ico", ".woff", ".woff2", ".pdf", ".mp3", ".mp4");
+
+    private StorageCodec() {
+    }
+
+    // Gzipped content of the file, or null if it should be stored as is (too small, already compressed, or didn't shrink)
+    static byte[] compress(Path file, long size, long minSize) throws IOException {
+        if (size < minSize || isPrecompressed(file.getFileName().toString())) {
+            return null;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) Math.min(size / 4 + 64, Integer.MAX_VALUE - 8));
+        try (OutputStream out = new GZIPOutputStream(buffer, 64 * 1024)) {
+            Files.copy(file, out);
+        }
+        return buffer.size() <= size * (1 - MIN_SAVING) ? buffer.toByteArray() : null;
+    }
+
+    // Stored bytes back to the original content; contentEncoding is the object's Content-Encoding (null if none)
+    static byte[] decode(byte[] stored, String contentEncoding) throws IOException {
+        if (!isGzip(contentEncoding)) {
+            return stored;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(stored), 64 * 1024)) {
+            return in.readAllBytes();
+        }
+    }
+
+    // Tolerates a list of codings ("aws-chunked,gzip") as some S3-compatible stores echo it back
+    static boolean isGzip(String contentEncoding) {
+        if (contentEncoding == null) return false;
+        for (String coding : contentEncoding.split(",")) {
+            if (coding.trim().equalsIgnoreCase(GZIP)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isPrecompressed(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot != -1 && PRECOMPRESSED.contains(fileName.substring(dot).toLowerCase(Locale.ROOT));
+    }
+}
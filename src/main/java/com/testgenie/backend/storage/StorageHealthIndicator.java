@@ -0,0 +1,26 @@
+package com.testgenie.backend.storage;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// "storage" in /actuator/health and the readiness group: out of service until the bucket check has succeeded once
+@Component
+public class StorageHealthIndicator implements HealthIndicator {
+
+    private final MinioFileStorageService minio;
+
+    public StorageHealthIndicator(MinioFileStorageService minio) {
+        this.minio = minio;
+    }
+
+    @Override
+    public Health health() {
+        if (minio.isBucketReady()) {
+            return Health.up().withDetail("bucket", minio.getBucketName()).build();
+        }
+        Health.Builder health = Health.outOfService().withDetail("bucket", minio.getBucketName());
+        Throwable error = minio.getBucketError();
+        return (error != null ? health.withDetail("error", error.toString()) : health).build();
+    }
+}
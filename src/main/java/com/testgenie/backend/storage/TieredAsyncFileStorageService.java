@@ -0,0 +1,313 @@
+package com.testgenie.backend.storage;
+
+import com.testgenie.backend.config.StorageProperties;
+import com.testgenie.backend.service.AsyncFileStorageService;
+import com.testgenie.backend.util.WeightedLruCache;
+import com.testgenie.backend.util.WeightedLruCache.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Local disk tier in front of the object store. Files are cached under
+ * {@code <cache-dir>/<project>/<generation>/<path>}: a committed generation is never written again, so an
+ * entry never goes stale, and the generation is resolved from the project's pointer the same way the
+ * object store resolves it, so an upload committed by another instance is picked up as soon as this one
+ * sees the new pointer. Reads that miss go to MinIO and are copied into the cache afterwards. Uploads also
+ * warm it, since the extracted files are already on local disk. Least recently read files are deleted
+ * once the cache exceeds {@code storage.cache-max-size}.
+ * <p>
+ * Projects stored before generations existed are read straight from the object store.
+ */
+@Service
+@Primary
+public class TieredAsyncFileStorageService implements AsyncFileStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredAsyncFileStorageService.class);
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    // Rough heap cost of a listing beyond its characters: list slot, String and array headers
+    private static final int PATH_OVERHEAD = 64;
+
+    private final MinioAsyncFileStorageService objectStore;
+    private final StorageProperties properties;
+    private final AsyncTaskExecutor storageExecutor;
+
+    // Cache key ("<project>/<generation>/<path>") -> file size; evicting an entry deletes its file
+    private final WeightedLruCache<String, Long> entries;
+
+    // File listing per "<project>/<generation>"; a generation's files never change
+    private final WeightedLruCache<String, List<String>> listings;
+
+    // Generation each project was last read at; when its pointer moves, the old generation's listing is dropped
+    // (its files age out of the cache)
+    private final Map<String, String> generations = new ConcurrentHashMap<>();
+
+    private Path cacheDir;
+
+    public TieredAsyncFileStorageService(MinioAsyncFileStorageService objectStore,
+                                         StorageProperties properties,
+                                         @Qualifier("storageExecutor") AsyncTaskExecutor storageExecutor) {
+        this.objectStore = objectStore;
+        this.properties = properties;
+        this.storageExecutor = storageExecutor;
+        this.entries = new WeightedLruCache<>(properties.getCacheMaxSize().toBytes(), size -> size, this::deleteEntry);
+        this.listings = new WeightedLruCache<>(properties.getCacheListingsMaxSize().toBytes(),
+                TieredAsyncFileStorageService::listingWeight);
+    }
+
+    // Files cached by a previous run are still valid (same generation, same bytes); they are picked up again in the
+    // background so a large cache doesn't delay startup. Until then they count as misses and are fetched again.
+    @PostConstruct
+    public void init() throws IOException {
+        if (!properties.isCacheEnabled()) return;
+
+        cacheDir = properties.getCacheDir().toAbsolutePath().normalize();
+        Files.createDirectories(cacheDir);
+        storageExecutor.execute(this::restoreEntries);
+    }
+
+    private void restoreEntries() {
+        long startedAt = ManagementFactory.getRuntimeMXBean().getStartTime();
+        int restored = 0;
+        try (Stream<Path> paths = Files.walk(cacheDir)) {
+            for (Path file : paths.filter(Files::isRegularFile).toList()) {
+                // Leftover temp files of an interrupted write are older than this run; the current one's are not
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    if (Files.getLastModifiedTime(file).toMillis() < startedAt) Files.deleteIfExists(file);
+                    continue;
+                }
+                try {
+                    entries.put(cacheDir.relativize(file).toString().replace("\\", "/"), Files.size(file));
+                    restored++;
+                } catch (NoSuchFileException e) {
+                    // Evicted or replaced while the walk was running
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not restore storage cache from {}", cacheDir, e);
+        }
+        if (restored > 0) {
+            log.info("💾 Storage cache: reusing {} files from {}", restored, cacheDir);
+        }
+    }
+
+    // The new generation's id is picked here so the local copy can be warmed under it while the object store
+    // is written; nobody reads it before the object store commits it
+    @Override
+    public CompletableFuture<Void> saveProject(String projectName, Path sourceDir) {
+        String generation = ProjectGenerations.newGeneration();
+        CompletableFuture<List<String>> warmed = warm(projectName, generation, sourceDir);
+        return objectStore.saveGeneration(projectName, generation, sourceDir)
+                .thenCompose(ignored -> warmed)
+                .thenAccept(files -> {
+                    if (files != null) listings.put(cacheKey(projectName, generation), files);
+                    observe(projectName, generation);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> replaceProject(String projectName, Path sourceDir) {
+        return saveProject(projectName, sourceDir);
+    }
+
+    // Cached files of the deleted project age out like any other entry
+    @Override
+    public CompletableFuture<Void> deleteProject(String projectName) {
+        return objectStore.deleteProject(projectName).whenComplete((ignored, error) -> observe(projectName, ProjectGenerations.LEGACY));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listProjectFiles(String projectName) {
+        return generation(projectName).thenCompose(generation -> {
+            if (generation.isEmpty()) {
+                return objectStore.listProjectFiles(projectName);
+            }
+            String key = cacheKey(projectName, generation.get());
+            List<String> cached = listings.get(key);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            // Nothing under the generation: the pointer moved on since it was resolved, and the object store re-reads it
+            return objectStore.listGeneration(projectName, generation.get()).thenCompose(files -> {
+                if (files.isEmpty()) return objectStore.listProjectFiles(projectName);
+                listings.put(key, files);
+                return CompletableFuture.completedFuture(files);
+            });
+        });
+    }
+
+    @Override
+    public CompletableFuture<Optional<byte[]>> readProjectFile(String projectName, String relativePath) {
+        return readStoredProjectFile(projectName, relativePath).thenApply(stored -> stored.map(content -> {
+            try {
+                return StorageCodec.decode(content.content(), content.encoding());
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }));
+    }
+
+    // Hits are served as plain bytes; misses are passed through as stored and cached decoded in the background
+    @Override
+    public CompletableFuture<Optional<StoredContent>> readStoredProjectFile(String projectName, String relativePath) {
+        String normalized = Path.of(relativePath).normalize().toString().replace("\\", "/");
+        if (normalized.startsWith("..") || normalized.startsWith("/") || ProjectGenerations.isInternal(normalized)) {
+            return objectStore.readStoredProjectFile(projectName, relativePath);
+        }
+
+        return generation(projectName).thenCompose(generation -> {
+            if (generation.isEmpty()) {
+                return objectStore.readStoredProjectFile(projectName, relativePath);
+            }
+            String key = cacheKey(projectName, generation.get()) + "/" + normalized;
+            if (entries.get(key) == null) {
+                return fetch(projectName, generation.get(), normalized, key);
+            }
+            return CompletableFuture.supplyAsync(() -> readEntry(key), storageExecutor)
+                    .thenCompose(cached -> cached.isPresent()
+                            ? CompletableFuture.completedFuture(cached.map(bytes -> new StoredContent(bytes, null)))
+                            : fetch(projectName, generation.get(), normalized, key));
+        });
+    }
+
+    public CacheStats stats() {
+        return entries.stats();
+    }
+
+    // From the generation the key names, so what is cached under it is exactly that generation's file
+    private CompletableFuture<Optional<StoredContent>> fetch(String projectName, String generation, String normalized, String key) {
+        return objectStore.readGenerationFile(projectName, generation, normalized).thenCompose(stored -> {
+            if (stored.isEmpty()) return objectStore.readStoredProjectFile(projectName, normalized);
+            storageExecutor.execute(() -> {
+                try {
+                    writeEntry(key, StorageCodec.decode(stored.get().content(), stored.get().encoding()));
+                } catch (IOException e) {
+                    log.warn("Could not cache '{}'", key, e);
+                }
+            });
+            return CompletableFuture.completedFuture(stored);
+        });
+    }
+
+    // Listing of what was copied, or null if the cache is off or warming failed (reads then fill it on demand)
+    private CompletableFuture<List<String>> warm(String projectName, String generation, Path sourceDir) {
+        if (cacheDir == null) return CompletableFuture.completedFuture(null);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try (Stream<Path> paths = Files.walk(sourceDir)) {
+                List<Path> files = paths.filter(Files::isRegularFile).toList();
+                List<String> relativePaths = files.stream()
+                        .map(file -> sourceDir.relativize(file).toString().replace("\\", "/"))
+                        .sorted()
+                        .toList();
+                for (Path file : files) {
+                    String key = cacheKey(projectName, generation) + "/" + sourceDir.relativize(file).toString().replace("\\", "/");
+                    long size = Files.size(file);
+                    if (size > properties.getCacheMaxSize().toBytes()) continue;
+                    Path temp = newTempFile(key);
+                    Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+                    install(key, temp, size);
+                }
+                return relativePaths;
+            } catch (IOException e) {
+                log.warn("Could not warm storage cache for {}", projectName, e);
+                return null;
+            }
+        }, storageExecutor);
+    }
+
+    // Committed generation, or empty when the cache is off or the project has none (legacy layout, or no project)
+    private CompletableFuture<Optional<String>> generation(String projectName) {
+        if (cacheDir == null) return CompletableFuture.completedFuture(Optional.empty());
+
+        return objectStore.currentGeneration(projectName).thenApply(generation -> {
+            observe(projectName, generation);
+            return generation.equals(ProjectGenerations.LEGACY) ? Optional.empty() : Optional.of(generation);
+        });
+    }
+
+    private void observe(String projectName, String generation) {
+        String previous = generations.put(projectName, generation);
+        if (previous != null && !previous.equals(generation)) {
+            listings.remove(cacheKey(projectName, previous));
+        }
+    }
+
+    private static String cacheKey(String projectName, String generation) {
+        return projectName + "/" + generation;
+    }
+
+    private static long listingWeight(List<String> paths) {
+        long weight = 0;
+        for (String path : paths) weight += 2L * path.length() + PATH_OVERHEAD;
+        return weight;
+    }
+
+    // Empty if the entry was evicted since it was looked up, or can't be read; the caller falls back to the object store
+    private Optional<byte[]> readEntry(String key) {
+        try {
+            return Optional.of(Files.readAllBytes(entryPath(key)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Could not read cached file '{}'", key, e);
+            return Optional.empty();
+        }
+    }
+
+    private void writeEntry(String key, byte[] content) throws IOException {
+        if (content.length > properties.getCacheMaxSize().toBytes()) return;
+
+        Path temp = newTempFile(key);
+        Files.write(temp, content);
+        install(key, temp, content.length);
+    }
+
+    // Entries are written next to their final name and moved into place, so readers never see a partial file
+    private Path newTempFile(String key) throws IOException {
+        Path target = entryPath(key);
+        Files.createDirectories(target.getParent());
+        return Files.createTempFile(target.getParent(), target.getFileName().toString(), TEMP_SUFFIX);
+    }
+
+    private void install(String key, Path temp, long size) throws IOException {
+        try {
+            Files.move(temp, entryPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        entries.put(key, size);
+    }
+
+    private void deleteEntry(String key, Long size) {
+        try {
+            Files.deleteIfExists(entryPath(key));
+        } catch (IOException e) {
+            log.warn("Could not delete cached file '{}'", key, e);
+        }
+    }
+
+    private Path entryPath(String key) throws IOException {
+        Path path = cacheDir.resolve(key).normalize();
+        if (!path.startsWith(cacheDir)) throw new IOException("Cache key outside the cache directory: " + key);
+        return path;
+    }
+}
@@ -0,0 +1,98 @@
+package com.testgenie.backend.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Starts an asynchronous call per item with at most {@code limit} of them in flight, without
+ * parking a thread per call. A new call starts as soon as one finishes; the first failure fails
+ * the whole batch and stops further calls from starting.
+ */
+public final class AsyncFanOut {
+
+    private AsyncFanOut() {
+    }
+
+    // Results in the order of items
+    public static <T, R> CompletableFuture<List<R>> map(List<T> items, int limit,
+                                                        Function<? super T, CompletableFuture<R>> call) {
+        if (items.isEmpty()) return CompletableFuture.completedFuture(List.of());
+
+        Batch<T, R> batch = new Batch<>(List.copyOf(items), call);
+        for (int lane = 0; lane < Math.min(Math.max(limit, 1), items.size()); lane++) {
+            batch.drain();
+        }
+        return batch.done;
+    }
+
+    public static <T> CompletableFuture<Void> forEach(List<T> items, int limit,
+                                                      Function<? super T, CompletableFuture<?>> call) {
+        return map(items, limit, item -> call.apply(item).thenApply(ignored -> null)).thenApply(ignored -> null);
+    }
+
+    // The cause, without the CompletionException wrapper join() and composition add
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static final class Batch<T, R> {
+        final List<T> items;
+        final Function<? super T, CompletableFuture<R>> call;
+        final Object[] results;
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger remaining;
+        final CompletableFuture<List<R>> done = new CompletableFuture<>();
+
+        Batch(List<T> items, Function<? super T, CompletableFuture<R>> call) {
+            this.items = items;
+            this.call = call;
+            this.results = new Object[items.size()];
+            this.remaining = new AtomicInteger(items.size());
+        }
+
+        // Loops over calls that finish synchronously instead of recursing, so long batches can't blow the stack
+        void drain() {
+            while (!done.isDone()) {
+                int index = next.getAndIncrement();
+                if (index >= items.size()) return;
+
+                CompletableFuture<R> future;
+                try {
+                    future = call.apply(items.get(index));
+                } catch (Throwable t) {
+                    done.completeExceptionally(t);
+                    return;
+                }
+
+                if (!future.isDone()) {
+                    future.whenComplete((result, error) -> {
+                        if (complete(index, result, error)) drain();
+                    });
+                    return;
+                }
+                R result = future.exceptionally(error -> null).join();
+                Throwable error = future.isCompletedExceptionally() ? future.handle((r, e) -> e).join() : null;
+                if (!complete(index, result, error)) return;
+            }
+        }
+
+        // True while there is more to start
+        @SuppressWarnings("unchecked")
+        private boolean complete(int index, R result, Throwable error) {
+            if (error != null) {
+                done.completeExceptionally(unwrap(error));
+                return false;
+            }
+            results[index] = result;
+            if (remaining.decrementAndGet() == 0) {
+                done.complete((List<R>) Arrays.asList(results));
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.testgenie.backend.util;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.*;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -17,7 +18,7 @@ public class ProjectHashUtil {
 
         List<Path> files = Files.walk(rootPath)
                 .filter(Files::isRegularFile)
-                .filter(path -> !shouldSkip(path))
+                .filter(path -> !shouldSkip(rootPath.relativize(path)))
                 .sorted()
                 .collect(Collectors.toList());
 
@@ -29,6 +30,18 @@ public class ProjectHashUtil {
         return bytesToHex(digest.digest());
     }
 
+    // Digest of the raw archive bytes, computed in a single streaming pass without buffering the archive in memory
+    public String computeStreamHash(InputStream input) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[64 * 1024];
+        int len;
+        while ((len = input.read(buffer)) != -1) {
+            digest.update(buffer, 0, len);
+        }
+        return bytesToHex(digest.digest());
+    }
+
+    // Relative to the project root: the folders above it (e.g. a scratch directory named after the project) don't count
     private boolean shouldSkip(Path path) {
         String name = path.toString().toLowerCase();
         return name.contains("node_modules")
@@ -0,0 +1,156 @@
+package com.testgenie.backend.util;
+
+import com.testgenie.backend.dto.ProjectStatsDTO;
+import com.testgenie.backend.index.FeatureFileParser;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Builds {@link ProjectStatsDTO} from the bytes {@link ZipExtractor} writes, so composition costs no
+ * second pass over the extracted tree. Each worker counts its own file and hands it in when done;
+ * only that hand-in is synchronized.
+ */
+public final class ProjectStatsCollector {
+
+    static final int LARGEST_FILES = 10;
+    // Feature files above this are counted as files and lines only
+    private static final int MAX_FEATURE_BYTES = 4 * 1024 * 1024;
+
+    private static final Map<String, String> LANGUAGES = Map.ofEntries(
+            Map.entry("java", "Java"), Map.entry("kt", "Kotlin"), Map.entry("kts", "Kotlin"),
+            Map.entry("groovy", "Groovy"), Map.entry("gradle", "Groovy"), Map.entry("scala", "Scala"),
+            Map.entry("feature", "Gherkin"), Map.entry("js", "JavaScript"), Map.entry("jsx", "JavaScript"),
+            Map.entry("mjs", "JavaScript"), Map.entry("ts", "TypeScript"), Map.entry("tsx", "TypeScript"),
+            Map.entry("py", "Python"), Map.entry("cs", "C#"), Map.entry("go", "Go"), Map.entry("rb", "Ruby"),
+            Map.entry("xml", "XML"), Map.entry("yml", "YAML"), Map.entry("yaml", "YAML"), Map.entry("json", "JSON"),
+            Map.entry("properties", "Properties"), Map.entry("md", "Markdown"), Map.entry("sql", "SQL"),
+            Map.entry("html", "HTML"), Map.entry("css", "CSS"), Map.entry("scss", "CSS"),
+            Map.entry("sh", "Shell"), Map.entry("bat", "Batch"));
+
+    private static final Set<String> TEST_FOLDERS = Set.of("test", "tests", "__tests__", "spec", "specs", "it", "features");
+
+    // Guarded by this
+    private final Map<String, long[]> languages = new TreeMap<>();
+    private final long[] main = new long[3];
+    private final long[] test = new long[3];
+    private final PriorityQueue<ProjectStatsDTO.LargeFile> largest =
+            new PriorityQueue<>(Comparator.comparingLong(ProjectStatsDTO.LargeFile::bytes));
+    private int featureFiles;
+    private int scenarios;
+
+    public FileCounter start(String path) {
+        return new FileCounter(path);
+    }
+
+    /**
+     * @param stripPrefix folder the extracted tree was flattened out of ("" if none); removed from reported paths
+     */
+    public synchronized ProjectStatsDTO build(String stripPrefix) {
+        Map<String, ProjectStatsDTO.Composition> byLanguage = new LinkedHashMap<>();
+        languages.forEach((language, totals) -> byLanguage.put(language, composition(totals)));
+
+        List<ProjectStatsDTO.LargeFile> largestFiles = largest.stream()
+                .sorted(Comparator.comparingLong(ProjectStatsDTO.LargeFile::bytes).reversed()
+                        .thenComparing(ProjectStatsDTO.LargeFile::path))
+                .map(file -> file.path().startsWith(stripPrefix)
+                        ? new ProjectStatsDTO.LargeFile(file.path().substring(stripPrefix.length()), file.language(), file.bytes(), file.lines())
+                        : file)
+                .toList();
+
+        return new ProjectStatsDTO(
+                (int) (main[0] + test[0]),
+                main[1] + test[1],
+                main[2] + test[2],
+                byLanguage,
+                composition(main),
+                composition(test),
+                featureFiles,
+                scenarios,
+                largestFiles);
+    }
+
+    private synchronized void add(FileCounter file, int fileScenarios) {
+        String language = languageOf(file.path);
+        long lines = file.lines();
+
+        accumulate(languages.computeIfAbsent(language, key -> new long[3]), lines, file.bytes);
+        accumulate(isTest(file.path) ? test : main, lines, file.bytes);
+
+        largest.add(new ProjectStatsDTO.LargeFile(file.path, language, file.bytes, lines));
+        if (largest.size() > LARGEST_FILES) largest.poll();
+
+        if (file.feature != null) {
+            featureFiles++;
+            scenarios += fileScenarios;
+        }
+    }
+
+    private static void accumulate(long[] totals, long lines, long bytes) {
+        totals[0]++;
+        totals[1] += lines;
+        totals[2] += bytes;
+    }
+
+    private static ProjectStatsDTO.Composition composition(long[] totals) {
+        return new ProjectStatsDTO.Composition((int) totals[0], totals[1], totals[2]);
+    }
+
+    static String languageOf(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        if (dot <= 0) return "Other";
+        return LANGUAGES.getOrDefault(name.substring(dot + 1).toLowerCase(Locale.ROOT), "Other");
+    }
+
+    // Conventional test folders (src/test, tests, __tests__, ...) and test file names (FooTest.java, foo.spec.ts, test_foo.py)
+    static boolean isTest(String path) {
+        String[] parts = path.split("/");
+        for (int i = 0; i < parts.length - 1; i++) {
+            if (TEST_FOLDERS.contains(parts[i].toLowerCase(Locale.ROOT))) return true;
+        }
+        String name = parts[parts.length - 1];
+        int dot = name.indexOf('.');
+        String base = dot == -1 ? name : name.substring(0, dot);
+        return base.endsWith("Test") || base.endsWith("Tests") || base.endsWith("IT") || base.endsWith("_test")
+                || base.startsWith("test_") || name.contains(".test.") || name.contains(".spec.")
+                || name.endsWith(".feature");
+    }
+
+    // Counts one file as it is written; not shared between threads
+    public final class FileCounter {
+        private final String path;
+        private final ByteArrayOutputStream feature;
+        private long bytes;
+        private long newlines;
+        private byte last = '\n';
+
+        private FileCounter(String path) {
+            this.path = path;
+            this.feature = path.toLowerCase(Locale.ROOT).endsWith(".feature") ? new ByteArrayOutputStream() : null;
+        }
+
+        public void update(byte[] buffer, int length) {
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == '\n') newlines++;
+            }
+            if (length > 0) last = buffer[length - 1];
+            bytes += length;
+            if (feature != null && feature.size() <= MAX_FEATURE_BYTES) feature.write(buffer, 0, length);
+        }
+
+        // Feature files are parsed here, on the worker, outside the collector's lock
+        public void finish() {
+            int fileScenarios = feature != null && feature.size() <= MAX_FEATURE_BYTES
+                    ? FeatureFileParser.parse(feature.toString(StandardCharsets.UTF_8)).size()
+                    : 0;
+            add(this, fileScenarios);
+        }
+
+        // A last line without a trailing newline still counts
+        long lines() {
+            return newlines + (last == '\n' ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.testgenie.backend.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Least-recently-used cache bounded by the total weight of its values (roughly, bytes)
+ * rather than by entry count. Keeps hit/miss/eviction counters for monitoring.
+ */
+public class WeightedLruCache<K, V> {
+
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final BiConsumer<K, V> onEvict;
+    private final LinkedHashMap<K, Weighted<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalWeight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this(maxWeight, weigher, (key, value) -> {
+        });
+    }
+
+    // onEvict runs for entries pushed out by size (under the cache's lock), e.g. to delete what a value points to
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher, BiConsumer<K, V> onEvict) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.onEvict = onEvict;
+    }
+
+    public synchronized V get(K key) {
+        Weighted<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value();
+    }
+
+    // Re-putting an existing key re-weighs it, which lets callers account for values that grew
+    public synchronized void put(K key, V value) {
+        long weight = weigher.applyAsLong(value);
+        Weighted<V> previous = entries.remove(key);
+        if (previous != null) {
+            totalWeight -= previous.weight();
+        }
+        if (weight > maxWeight) return;
+
+        entries.put(key, new Weighted<>(value, weight));
+        totalWeight += weight;
+
+        Iterator<Map.Entry<K, Weighted<V>>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            Map.Entry<K, Weighted<V>> candidate = eldest.next();
+            if (candidate.getKey().equals(key)) continue;
+            totalWeight -= candidate.getValue().weight();
+            eldest.remove();
+            evictions++;
+            onEvict.accept(candidate.getKey(), candidate.getValue().value());
+        }
+    }
+
+    // Dropped without onEvict, which is for entries pushed out by size
+    public synchronized void remove(K key) {
+        Weighted<V> previous = entries.remove(key);
+        if (previous != null) {
+            totalWeight -= previous.weight();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        long lookups = hits + misses;
+        return new CacheStats(hits, misses, lookups == 0 ? 0 : (double) hits / lookups,
+                evictions, entries.size(), totalWeight, maxWeight);
+    }
+
+    public record CacheStats(long hits, long misses, double hitRate, long evictions,
+                             int size, long weight, long maxWeight) {}
+
+    private record Weighted<V>(V value, long weight) {}
+}
@@ -0,0 +1,188 @@
+package com.testgenie.backend.util;
+
+import com.testgenie.backend.dto.ExtractionStatsDTO;
+import com.testgenie.backend.service.InvalidArchiveException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Random-access archive extraction: the central directory is read once, skipped entries are filtered
+ * out before any data is touched, and the remaining entries are inflated and written by several
+ * workers at once, each with its own large buffer. {@link ZipFile} allows concurrent entry streams,
+ * so inflation scales with cores instead of running on the request thread alone.
+ */
+public final class ZipExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZipExtractor.class);
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    // Below this many files the thread hand-off costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private ZipExtractor() {
+    }
+
+    /**
+     * @param skipReason  null for entries to extract, otherwise the reason reported to {@code onSkipped}
+     * @param executor    runs the workers; shared with other extractions, so it bounds inflation threads overall
+     * @param parallelism most workers this archive is split between
+     * @param statsCollector sees every extracted file's bytes as they are written
+     * @param maxBytes    what the caller reserved for the extracted files, normally {@link #plannedSize}
+     * @throws InvalidArchiveException as soon as an entry inflates past the size its header declares, or
+     *                                  all entries together past {@code maxBytes}; headers can lie
+     */
+    public static ExtractionStatsDTO extract(Path zipPath, Path targetDir, Function<String, String> skipReason,
+                                             Consumer<String> onSkipped, Executor executor, int parallelism,
+                                             ProjectStatsCollector statsCollector, long maxBytes) throws IOException {
+        int extracted = 0;
+        int skipped = 0;
+        Map<String, Integer> skippedByType = new HashMap<>();
+
+        try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+            // Later entries with the same name win, as they did when streaming the archive
+            Map<Path, ZipEntry> files = new LinkedHashMap<>();
+            Set<Path> directories = new TreeSet<>();
+
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                String entryName = entry.getName();
+                String reason = skipReason.apply(entryName);
+
+                if (reason != null) {
+                    skipped++;
+                    skippedByType.merge(reason, 1, Integer::sum);
+                    onSkipped.accept(reason);
+                    logger.info("⛔ Skipped: {} (reason: {})", entryName, reason);
+                    continue;
+                }
+
+                Path newPath = resolveSecureZipEntry(targetDir, entryName);
+                if (entry.isDirectory()) {
+                    directories.add(newPath);
+                } else {
+                    directories.add(newPath.getParent());
+                    files.remove(newPath);
+                    files.put(newPath, entry);
+                }
+                extracted++;
+            }
+
+            // Folders first, once each, so workers only ever create files
+            for (Path directory : directories) {
+                Files.createDirectories(directory);
+            }
+
+            List<Map.Entry<Path, ZipEntry>> work = new ArrayList<>(files.entrySet());
+            Work job = new Work(zip, targetDir, work, statsCollector, maxBytes, new AtomicLong());
+            int workers = work.size() < PARALLEL_THRESHOLD ? 1 : Math.max(1, Math.min(parallelism, work.size() / PARALLEL_THRESHOLD));
+            if (workers == 1) {
+                writeAll(job, new AtomicInteger());
+            } else {
+                writeInParallel(job, workers, executor);
+            }
+        }
+
+        return new ExtractionStatsDTO(extracted, skipped, skippedByType);
+    }
+
+    // Bytes extract() would write: uncompressed sizes of the entries that pass the skip rules, from the central directory alone
+    public static long plannedSize(Path zipPath, Function<String, String> skipReason) throws IOException {
+        long total = 0;
+        try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (!entry.isDirectory() && entry.getSize() > 0 && skipReason.apply(entry.getName()) == null) {
+                    total += entry.getSize();
+                }
+            }
+        }
+        return total;
+    }
+
+    // Workers pull the next entry from a shared cursor, so one large file doesn't leave the others idle.
+    // Every lane is waited for, even after a failure, so nothing writes into targetDir or reads the zip once this returns
+    private static void writeInParallel(Work job, int workers, Executor executor) throws IOException {
+        List<Map.Entry<Path, ZipEntry>> work = job.entries();
+        AtomicInteger cursor = new AtomicInteger();
+
+        List<CompletableFuture<Void>> lanes = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            lanes.add(CompletableFuture.runAsync(() -> {
+                try {
+                    writeAll(job, cursor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor).whenComplete((ignored, error) -> {
+                // Stop the other lanes from picking up more entries
+                if (error != null) cursor.set(work.size());
+            }));
+        }
+
+        try {
+            CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IOException("Extraction failed", e.getCause());
+        }
+    }
+
+    private static void writeAll(Work job, AtomicInteger cursor) throws IOException {
+        List<Map.Entry<Path, ZipEntry>> work = job.entries();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int index;
+        while ((index = cursor.getAndIncrement()) < work.size()) {
+            Map.Entry<Path, ZipEntry> item = work.get(index);
+            ZipEntry entry = item.getValue();
+            ProjectStatsCollector.FileCounter counter = job.stats().start(
+                    job.targetDir().relativize(item.getKey()).toString().replace("\\", "/"));
+            try (InputStream in = job.zip().getInputStream(entry);
+                 OutputStream out = Files.newOutputStream(item.getKey())) {
+                long declared = entry.getSize();
+                long written = 0;
+                int len;
+                while ((len = in.read(buffer)) > 0) {
+                    // Checked before the bytes reach the disk
+                    written += len;
+                    if (declared >= 0 && written > declared) {
+                        throw new InvalidArchiveException("Archive entry " + entry.getName()
+                                + " inflates past its declared size of " + declared + " bytes");
+                    }
+                    if (job.written().addAndGet(len) > job.maxBytes()) {
+                        throw new InvalidArchiveException("Archive inflates past the " + job.maxBytes()
+                                + " bytes its entries declare");
+                    }
+                    out.write(buffer, 0, len);
+                    counter.update(buffer, len);
+                }
+            }
+            counter.finish();
+        }
+    }
+
+    // written counts the bytes of all workers against maxBytes
+    private record Work(ZipFile zip, Path targetDir, List<Map.Entry<Path, ZipEntry>> entries, ProjectStatsCollector stats,
+                        long maxBytes, AtomicLong written) {}
+
+    private static Path resolveSecureZipEntry(Path targetDir, String entryName) throws IOException {
+        Path resolvedPath = targetDir.resolve(entryName).normalize();
+        if (!resolvedPath.startsWith(targetDir)) {
+            throw new IOException("Entry is outside target dir: " + entryName);
+        }
+        return resolvedPath;
+    }
+}
@@ -0,0 +1,136 @@
+package com.testgenie.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeatureFileParserTest {
+
+    @Test
+    void inlinesBackgroundsAndInheritsFeatureAndRuleTags() {
+        List<FeatureScenario> scenarios = FeatureFileParser.parse("""
+                @billing
+                Feature: Invoices
+                  Background:
+                    Given a customer
+
+                  @smoke
+                  Scenario: Pay an invoice
+                    When the invoice is paid
+                    Then it is closed
+
+                  @refunds
+                  Rule: Refunds
+                    Background:
+                      Given a paid invoice
+
+                    Scenario: Refund an invoice
+                      When it is refunded
+                """);
+
+        assertThat(scenarios).hasSize(2);
+
+        FeatureScenario pay = scenarios.get(0);
+        assertThat(pay.name()).isEqualTo("Pay an invoice");
+        assertThat(pay.tags()).containsExactly("@billing", "@smoke");
+        assertThat(pay.line()).isEqualTo(7);
+        assertThat(pay.text()).isEqualTo("""
+                Scenario: Pay an invoice
+                  Given a customer
+                  When the invoice is paid
+                  Then it is closed
+                """);
+
+        FeatureScenario refund = scenarios.get(1);
+        assertThat(refund.tags()).containsExactly("@billing", "@refunds");
+        assertThat(refund.text()).isEqualTo("""
+                Scenario: Refund an invoice
+                  Given a customer
+                  Given a paid invoice
+                  When it is refunded
+                """);
+    }
+
+    @Test
+    void expandsOutlinesOncePerExamplesRow() {
+        List<FeatureScenario> scenarios = FeatureFileParser.parse("""
+                Feature: Login
+                  Scenario Outline: Log in as <role>
+                    Given a <role> account
+                    Then the <page> page is shown
+
+                    Examples:
+                      | role  | page      |
+                      | admin | dashboard |
+                      | guest | welcome   |
+                """);
+
+        assertThat(scenarios).extracting(FeatureScenario::name).containsExactly(
+                "Log in as admin (role=admin, page=dashboard)",
+                "Log in as guest (role=guest, page=welcome)");
+        assertThat(scenarios.get(1).text()).isEqualTo("""
+                Scenario: Log in as guest (role=guest, page=welcome)
+                  Given a guest account
+                  Then the welcome page is shown
+                """);
+    }
+
+    @Test
+    void examplesTagsApplyToTheirRowsOnly() {
+        List<FeatureScenario> scenarios = FeatureFileParser.parse("""
+                Feature: Login
+                  @outline
+                  Scenario Outline: Log in as <role>
+                    Given a <role> account
+
+                    @fast
+                    Examples:
+                      | role  |
+                      | admin |
+
+                    @slow @nightly
+                    Examples:
+                      | role  |
+                      | guest |
+
+                  Scenario: Log out
+                    When the user logs out
+                """);
+
+        assertThat(scenarios).hasSize(3);
+        assertThat(scenarios.get(0).tags()).containsExactly("@outline", "@fast");
+        assertThat(scenarios.get(1).tags()).containsExactly("@outline", "@slow", "@nightly");
+        assertThat(scenarios.get(2).name()).isEqualTo("Log out");
+        assertThat(scenarios.get(2).tags()).isEmpty();
+    }
+
+    @Test
+    void keepsDocStringsAndDataTablesWithTheirStep() {
+        List<FeatureScenario> scenarios = FeatureFileParser.parse("""
+                Feature: Import
+                  Scenario: Import users
+                    Given the file
+                      \"""
+                      name,role
+                        indented
+                      \"""
+                    When these users are imported
+                      | name | role |
+                      | ann  | a\\|b |
+                """);
+
+        assertThat(scenarios.get(0).text()).isEqualTo("""
+                Scenario: Import users
+                  Given the file
+                    \"""
+                    name,role
+                      indented
+                    \"""
+                  When these users are imported
+                    | name | role |
+                    | ann  | a\\|b |
+                """);
+    }
+}
@@ -0,0 +1,150 @@
+package com.testgenie.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 24;
+
+    @Test
+    void findsMostOfTheExactNearestNeighbours() {
+        Random random = new Random(7);
+        Map<String, float[]> vectors = randomVectors(random, 1000);
+        HnswIndex index = build(vectors);
+
+        int found = 0;
+        int expected = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomVector(random);
+            Set<String> exact = new HashSet<>(bruteForce(vectors, query, 10));
+            for (HnswIndex.SearchResult result : index.search(query, 10, 64)) {
+                if (exact.contains(result.id())) found++;
+            }
+            expected += exact.size();
+        }
+
+        assertThat((double) found / expected).isGreaterThan(0.9);
+    }
+
+    @Test
+    void returnsIdenticalVectorFirstWithFullSimilarity() {
+        Map<String, float[]> vectors = randomVectors(new Random(1), 200);
+        HnswIndex index = build(vectors);
+
+        List<HnswIndex.SearchResult> results = index.search(vectors.get("v42"), 3, 32);
+
+        assertThat(results.get(0).id()).isEqualTo("v42");
+        assertThat(results.get(0).similarity()).isCloseTo(1.0, within(1e-5));
+    }
+
+    @Test
+    void removedVectorsAreNeverReturnedAndCompactionDropsThem() {
+        Map<String, float[]> vectors = randomVectors(new Random(3), 300);
+        HnswIndex index = build(vectors);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(index.remove("v" + i)).isTrue();
+        }
+        assertThat(index.remove("v0")).isFalse();
+        assertThat(index.size()).isEqualTo(200);
+        assertThat(index.deletedCount()).isEqualTo(100);
+        assertThat(index.contains("v5")).isFalse();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(index.search(vectors.get("v" + i), 10, 64))
+                    .extracting(HnswIndex.SearchResult::id)
+                    .allMatch(id -> Integer.parseInt(id.substring(1)) >= 100);
+        }
+
+        HnswIndex compacted = index.compact();
+        assertThat(compacted.size()).isEqualTo(200);
+        assertThat(compacted.deletedCount()).isZero();
+        assertThat(compacted.estimatedBytes()).isLessThan(index.estimatedBytes());
+        assertThat(compacted.search(vectors.get("v150"), 1, 32).get(0).id()).isEqualTo("v150");
+    }
+
+    @Test
+    void addingAnExistingIdReplacesItsVector() {
+        HnswIndex index = new HnswIndex(2, 4, 16);
+        index.add("a", new float[]{1, 0});
+        index.add("b", new float[]{0, 1});
+        index.add("a", new float[]{-1, 0});
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search(new float[]{1, 0}, 2, 8).get(0).id()).isEqualTo("b");
+    }
+
+    @Test
+    void survivesASerializationRoundTrip() throws Exception {
+        Random random = new Random(11);
+        Map<String, float[]> vectors = randomVectors(random, 300);
+        HnswIndex index = build(vectors);
+        index.remove("v7");
+
+        HnswIndex read = HnswIndex.read(new ByteArrayInputStream(index.toBytes()));
+
+        assertThat(read.dimensions()).isEqualTo(DIMENSIONS);
+        assertThat(read.size()).isEqualTo(index.size());
+        assertThat(read.deletedCount()).isEqualTo(1);
+        assertThat(read.contains("v7")).isFalse();
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomVector(random);
+            assertThat(read.search(query, 5, 32)).isEqualTo(index.search(query, 5, 32));
+        }
+    }
+
+    @Test
+    void rejectsVectorsOfTheWrongDimension() {
+        HnswIndex index = new HnswIndex(3, 4, 16);
+
+        assertThatThrownBy(() -> index.add("a", new float[]{1, 2}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static HnswIndex build(Map<String, float[]> vectors) {
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, 100);
+        vectors.forEach(index::add);
+        return index;
+    }
+
+    private static Map<String, float[]> randomVectors(Random random, int count) {
+        Map<String, float[]> vectors = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            vectors.put("v" + i, randomVector(random));
+        }
+        return vectors;
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static List<String> bruteForce(Map<String, float[]> vectors, float[] query, int k) {
+        return vectors.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, float[]> e) -> -cosine(e.getValue(), query)))
+                .limit(k)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+}
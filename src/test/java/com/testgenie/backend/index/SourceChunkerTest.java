@@ -0,0 +1,47 @@
+package com.testgenie.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourceChunkerTest {
+
+    @Test
+    void cutsOverlappingLineWindowsPrefixedWithThePath() {
+        String content = IntStream.rangeClosed(1, 130).mapToObj(i -> "line " + i).collect(Collectors.joining("\n"));
+
+        List<SourceChunk> chunks = SourceChunker.chunk("src/Foo.java", content);
+
+        assertThat(chunks).extracting(SourceChunk::id)
+                .containsExactly("src/Foo.java#1", "src/Foo.java#51", "src/Foo.java#101");
+        assertThat(chunks).extracting(SourceChunk::startLine).containsExactly(1, 51, 101);
+        assertThat(chunks).extracting(SourceChunk::endLine).containsExactly(60, 110, 130);
+        assertThat(chunks.get(1).path()).isEqualTo("src/Foo.java");
+        assertThat(chunks.get(1).text()).startsWith("src/Foo.java\nline 51\n").endsWith("line 110\n");
+    }
+
+    @Test
+    void smallFileIsOneChunk() {
+        List<SourceChunk> chunks = SourceChunker.chunk("a.feature", "Feature: A\n  Scenario: B\n");
+
+        assertThat(chunks).hasSize(1);
+        assertThat(chunks.get(0).text()).isEqualTo("a.feature\nFeature: A\n  Scenario: B\n\n");
+    }
+
+    @Test
+    void skipsBlankFilesAndCapsChunkLength() {
+        assertThat(SourceChunker.chunk("empty.java", "\n\n   \n")).isEmpty();
+
+        String longLine = "x".repeat(1500);
+        String content = IntStream.range(0, 10).mapToObj(i -> longLine).collect(Collectors.joining("\n"));
+        List<SourceChunk> chunks = SourceChunker.chunk("wide.java", content);
+
+        assertThat(chunks).hasSize(1);
+        assertThat(chunks.get(0).text().length()).isLessThan(4000 + longLine.length() + 2);
+        assertThat(chunks.get(0).endLine()).isEqualTo(10);
+    }
+}
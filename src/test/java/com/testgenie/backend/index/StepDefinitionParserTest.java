@@ -0,0 +1,66 @@
+package com.testgenie.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StepDefinitionParserTest {
+
+    @Test
+    void readsAnnotationsAndSignaturesSpreadOverSeveralLines() {
+        List<StepDefinition> steps = StepDefinitionParser.parse("src/test/CartSteps.java", """
+                package steps;
+
+                import io.cucumber.java.en.*;
+
+                public class CartSteps {
+
+                    @Given(
+                            "the cart holds {int} {string} item(s)"
+                    )
+                    public void cartHolds(
+                            int count,
+                            String name) throws Exception {
+                    }
+
+                    @When(value = "I remove \\"{word}\\"")
+                    @Deprecated
+                    public void remove(String word) {
+                    }
+
+                    @Then("^the cart is (empty|full)$")
+                    public void cartIs(String state) {
+                    }
+                }
+                """);
+
+        assertThat(steps).extracting(StepDefinition::keyword).containsExactly("Given", "When", "Then");
+
+        StepDefinition given = steps.get(0);
+        assertThat(given.expression()).isEqualTo("the cart holds {int} {string} item(s)");
+        assertThat(given.regex()).isFalse();
+        assertThat(given.line()).isEqualTo(7);
+        assertThat(given.path()).isEqualTo("src/test/CartSteps.java");
+        assertThat(given.methodSignature()).isEqualTo("public void cartHolds(int count, String name) throws Exception");
+
+        StepDefinition when = steps.get(1);
+        assertThat(when.expression()).isEqualTo("I remove \"{word}\"");
+        assertThat(when.methodSignature()).isEqualTo("public void remove(String word)");
+
+        assertThat(steps.get(2).regex()).isTrue();
+        assertThat(steps.get(2).line()).isEqualTo(20);
+    }
+
+    @Test
+    void ignoresSourcesWithoutCucumberImports() {
+        assertThat(StepDefinitionParser.parse("Other.java", """
+                public class Other {
+                    @Given("not a step")
+                    public void notAStep() {
+                    }
+                }
+                """)).isEmpty();
+    }
+}
@@ -0,0 +1,81 @@
+package com.testgenie.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StepExpressionMatcherTest {
+
+    @Test
+    void intParametersMatchSignedWholeNumbersOnly() {
+        Pattern pattern = compile("I add {int} items to the cart");
+
+        Matcher matcher = pattern.matcher("I add -3 items to the cart");
+        assertThat(matcher.find()).isTrue();
+        assertThat(matcher.group(1)).isEqualTo("-3");
+        assertThat(matches(pattern, "I add 12 items to the cart")).isTrue();
+        assertThat(matches(pattern, "I add 1.5 items to the cart")).isFalse();
+        assertThat(matches(pattern, "I add some items to the cart")).isFalse();
+    }
+
+    @Test
+    void stringParametersTakeDoubleOrSingleQuotedText() {
+        Pattern pattern = compile("the user {string} logs in");
+
+        Matcher matcher = pattern.matcher("the user \"ann smith\" logs in");
+        assertThat(matcher.find()).isTrue();
+        assertThat(matcher.group(1)).isEqualTo("\"ann smith\"");
+        assertThat(matches(pattern, "the user 'bob' logs in")).isTrue();
+        assertThat(matches(pattern, "the user bob logs in")).isFalse();
+    }
+
+    @Test
+    void optionalTextMayBeLeftOut() {
+        Pattern pattern = compile("I have {int} cucumber(s) in my belly");
+
+        assertThat(matches(pattern, "I have 1 cucumber in my belly")).isTrue();
+        assertThat(matches(pattern, "I have 42 cucumbers in my belly")).isTrue();
+        assertThat(matches(pattern, "I have 42 cucumberss in my belly")).isFalse();
+    }
+
+    @Test
+    void alternativesMatchAnyOfTheWords() {
+        Pattern pattern = compile("I click/tap/press on {string}");
+
+        assertThat(matches(pattern, "I click on \"Save\"")).isTrue();
+        assertThat(matches(pattern, "I tap on \"Save\"")).isTrue();
+        assertThat(matches(pattern, "I press on \"Save\"")).isTrue();
+        assertThat(matches(pattern, "I swipe on \"Save\"")).isFalse();
+    }
+
+    @Test
+    void expressionsMatchTheWholeStepAndEscapeRegexCharacters() {
+        Pattern pattern = compile("the total is $5.00 + tax");
+
+        assertThat(matches(pattern, "the total is $5.00 + tax")).isTrue();
+        assertThat(matches(pattern, "the total is $5x00 + tax")).isFalse();
+        assertThat(matches(pattern, "so the total is $5.00 + tax today")).isFalse();
+    }
+
+    @Test
+    void regularExpressionsAreUsedAsWritten() {
+        Pattern pattern = StepExpressionMatcher.compile(
+                new StepDefinition("Given", "^I wait (\\d+) seconds?$", true, "", "Steps.java", 1));
+
+        assertThat(matches(pattern, "I wait 1 second")).isTrue();
+        assertThat(matches(pattern, "I wait 10 seconds")).isTrue();
+        assertThat(StepExpressionMatcher.compile(
+                new StepDefinition("Given", "^broken (", true, "", "Steps.java", 1))).isNull();
+    }
+
+    private static Pattern compile(String expression) {
+        return StepExpressionMatcher.compile(new StepDefinition("Given", expression, false, "", "Steps.java", 1));
+    }
+
+    private static boolean matches(Pattern pattern, String step) {
+        return pattern.matcher(step).find();
+    }
+}
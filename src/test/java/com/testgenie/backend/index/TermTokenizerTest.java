@@ -0,0 +1,38 @@
+package com.testgenie.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TermTokenizerTest {
+
+    @Test
+    void splitsCamelCaseAndSnakeCaseIdentifiers() {
+        assertThat(TermTokenizer.tokenize("LoginPageSteps user_account_id"))
+                .containsExactly("login", "page", "steps", "user", "account", "id");
+    }
+
+    @Test
+    void keepsAcronymsAndDigitsTogether() {
+        assertThat(TermTokenizer.tokenize("HTTPClient step2Runner"))
+                .containsExactly("httpclient", "step2runner");
+    }
+
+    @Test
+    void dropsStopWordsJavaKeywordsAndSingleCharacters() {
+        assertThat(TermTokenizer.tokenize("public void theUser(String a) { return new Cart(); }"))
+                .containsExactly("user", "cart");
+    }
+
+    @Test
+    void splitsProsePathsAndPunctuation() {
+        assertThat(TermTokenizer.tokenize("src/test/LoginSteps.java: Given the user logs in!"))
+                .containsExactly("src", "test", "login", "steps", "given", "user", "logs", "in");
+    }
+
+    @Test
+    void emptyAndNullTextHaveNoTerms() {
+        assertThat(TermTokenizer.tokenize("")).isEmpty();
+        assertThat(TermTokenizer.tokenize(null)).isEmpty();
+    }
+}
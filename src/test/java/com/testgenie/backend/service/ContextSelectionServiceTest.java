@@ -0,0 +1,74 @@
+package com.testgenie.backend.service;
+
+import com.testgenie.backend.config.GenerationProperties;
+import com.testgenie.backend.index.ContextIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextSelectionServiceTest {
+
+    private final ContextIndexService indexService = new ContextIndexService(null, new GenerationProperties());
+    private final ContextSelectionService selection = new ContextSelectionService();
+
+    @Test
+    void ranksFilesByHowOftenTheyUseRareScenarioTerms() {
+        ContextIndex index = indexService.buildIndex(Map.of(
+                "src/Checkout.java", "checkout checkout checkout payment total",
+                "src/Payment.java", "payment payment payment checkout",
+                "src/Util.java", "helper format payment"), "hash");
+
+        List<String> selected = selection.select(index, Map.of(), "The customer pays at checkout", 10_000);
+
+        // Only one term matches; files that don't contain it are not selected at all
+        assertThat(selected).containsExactly("src/Checkout.java", "src/Payment.java");
+    }
+
+    @Test
+    void fileNamesAndDescriptionsOutweighAPassingMention() {
+        ContextIndex index = indexService.buildIndex(Map.of(
+                "src/LoginPage.java", "button field submit",
+                "src/Profile.java", "avatar field",
+                "src/Noise.java", "login once among many other words here and there"), "hash");
+
+        assertThat(selection.select(index, Map.of(), "user login", 10_000))
+                .containsExactly("src/LoginPage.java", "src/Noise.java");
+        assertThat(selection.select(index, Map.of("src/Profile.java", "Handles login for returning users"),
+                "user login", 10_000))
+                .startsWith("src/LoginPage.java", "src/Profile.java");
+    }
+
+    @Test
+    void packsTheBestFilesThatFitTheTokenBudget() {
+        // Token estimates are content length / 4: 250, 100 and 50 tokens
+        ContextIndex index = indexService.buildIndex(Map.of(
+                "src/CartSteps.java", "cart ".repeat(200),
+                "src/CartPage.java", "cart ".repeat(40) + "x".repeat(200),
+                "src/CartApi.java", "cart " + "y".repeat(195)), "hash");
+
+        List<String> ranked = selection.select(index, Map.of(), "cart", 10_000);
+        assertThat(ranked).hasSize(3);
+
+        // The top file doesn't fit, so the next ones are taken instead of stopping
+        List<String> packed = selection.select(index, Map.of(), "cart", 160);
+        assertThat(packed).containsExactlyInAnyOrder("src/CartPage.java", "src/CartApi.java");
+        assertThat(selection.select(index, Map.of(), "cart", 49)).isEmpty();
+    }
+
+    @Test
+    void skipsExcludedPathsAndMergesTheSemanticRanking() {
+        ContextIndex index = indexService.buildIndex(Map.of(
+                "src/OrderSteps.java", "order order submit",
+                "src/OrderPage.java", "order page",
+                "src/Shipping.java", "parcel courier"), "hash");
+
+        List<String> selected = selection.select(index, Map.of(), "submit an order", 10_000,
+                List.of("src/Shipping.java", "src/Unknown.java"), Set.of("src/OrderSteps.java"));
+
+        assertThat(selected).containsExactlyInAnyOrder("src/OrderPage.java", "src/Shipping.java");
+    }
+}
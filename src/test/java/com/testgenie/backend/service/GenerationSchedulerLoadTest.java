@@ -0,0 +1,199 @@
+package com.testgenie.backend.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.testgenie.backend.config.GenerationProperties;
+import com.testgenie.backend.config.MetricsProperties;
+import com.testgenie.backend.config.OllamaConfig;
+import com.testgenie.backend.config.OllamaProperties;
+import com.testgenie.backend.service.GenerationScheduler.Ticket;
+import com.testgenie.backend.support.EndpointLoad;
+import com.testgenie.backend.support.EndpointLoad.Report;
+import com.testgenie.backend.support.ThroughputReports;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the scheduler and the pooled Ollama client against a stub model server that takes a
+ * fixed time per generation and records how many requests it is serving at once. The sustained
+ * load run is tagged "throughput", so it only runs with {@code ./gradlew throughputTest}.
+ */
+class GenerationSchedulerLoadTest {
+
+    private static final int MAX_CONCURRENT = 3;
+    private static final int QUEUE_CAPACITY = 10;
+    private static final long MODEL_LATENCY_MS = 150;
+
+    private HttpServer stubServer;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicInteger served = new AtomicInteger();
+    private final AtomicLong modelLatencyMs = new AtomicLong(MODEL_LATENCY_MS);
+
+    private OllamaClient ollamaClient;
+    private GenerationScheduler scheduler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubServer.createContext("/api/generate", exchange -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(modelLatencyMs.get());
+                byte[] body = "{\"model\":\"stub\",\"response\":\"ok\",\"done\":true}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+                served.incrementAndGet();
+            }
+        });
+        stubServer.setExecutor(Executors.newCachedThreadPool());
+        stubServer.start();
+
+        OllamaProperties ollamaProperties = new OllamaProperties();
+        ollamaProperties.setBaseUrl("http://127.0.0.1:" + stubServer.getAddress().getPort());
+        ollamaProperties.setReadTimeout(Duration.ofSeconds(10));
+        ollamaClient = new OllamaClient(new OllamaConfig().ollamaRestTemplate(ollamaProperties), ollamaProperties,
+                new BackendMetrics(new SimpleMeterRegistry(), new MetricsProperties()));
+
+        GenerationProperties generationProperties = new GenerationProperties();
+        generationProperties.setMaxConcurrent(MAX_CONCURRENT);
+        generationProperties.setQueueCapacity(QUEUE_CAPACITY);
+        generationProperties.setRequestTimeout(Duration.ofSeconds(30));
+        scheduler = new GenerationScheduler(generationProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+        stubServer.stop(0);
+    }
+
+    @Test
+    void boundsConcurrencyAndRejectsBeyondQueueCapacity() {
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < MAX_CONCURRENT + QUEUE_CAPACITY; i++) {
+            String prompt = "prompt-" + i;
+            tickets.add(scheduler.submit(prompt, (onToken, cancelled) -> ollamaClient.generate(prompt, cancelled)));
+        }
+
+        assertThat(tickets.get(tickets.size() - 1).position()).isEqualTo(QUEUE_CAPACITY);
+        assertThatThrownBy(() -> scheduler.submit("one-too-many", (onToken, cancelled) -> "unused"))
+                .isInstanceOf(GenerationQueueFullException.class);
+
+        tickets.forEach(ticket -> assertThat(ticket.result().join()).contains("\"response\":\"ok\""));
+        assertThat(peak.get()).isLessThanOrEqualTo(MAX_CONCURRENT);
+        assertThat(served.get()).isEqualTo(MAX_CONCURRENT + QUEUE_CAPACITY);
+    }
+
+    @Test
+    void coalescesIdenticalInFlightRequests() throws Exception {
+        int clients = 20;
+        ExecutorService callers = Executors.newFixedThreadPool(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> coalesced = new ArrayList<>();
+
+        for (int i = 0; i < clients; i++) {
+            coalesced.add(callers.submit(() -> {
+                go.await();
+                Ticket ticket = scheduler.submit("same-scenario", (onToken, cancelled) -> ollamaClient.generate("same", cancelled));
+                ticket.result().join();
+                return ticket.isCoalesced();
+            }));
+        }
+        go.countDown();
+
+        int shared = 0;
+        for (Future<Boolean> result : coalesced) {
+            if (result.get(10, TimeUnit.SECONDS)) shared++;
+        }
+        callers.shutdown();
+
+        // Callers that arrive after the first call finished start a new one, so allow a little slack
+        assertThat(served.get()).isLessThanOrEqualTo(2);
+        assertThat(shared).isGreaterThanOrEqualTo(clients - 2);
+        assertThat(scheduler.stats().coalesced()).isEqualTo(shared);
+    }
+
+    @Test
+    void timedOutGenerationGivesItsSlotBack() {
+        GenerationProperties properties = new GenerationProperties();
+        properties.setMaxConcurrent(1);
+        properties.setQueueCapacity(1);
+        properties.setRequestTimeout(Duration.ofSeconds(1));
+        GenerationScheduler single = new GenerationScheduler(properties);
+        try {
+            // Far longer than the timeout: the model hasn't sent a byte when the request gives up
+            modelLatencyMs.set(5_000);
+            Ticket slow = single.submit("slow", (onToken, cancelled) -> ollamaClient.generate("slow", cancelled));
+            assertThatThrownBy(() -> slow.result().join()).hasCauseInstanceOf(TimeoutException.class);
+
+            modelLatencyMs.set(MODEL_LATENCY_MS);
+            long begin = System.nanoTime();
+            Ticket next = single.submit("next", (onToken, cancelled) -> ollamaClient.generate("next", cancelled));
+            assertThat(next.result().join()).contains("\"response\":\"ok\"");
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin)).isLessThan(2_000);
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    // Latency includes the client's retries after a rejection, as a caller backing off would see it
+    @Test
+    @Tag("throughput")
+    void sustainsLoadWithBackpressure() throws Exception {
+        int clients = 40;
+        int requests = clients * 5;
+        AtomicInteger rejections = new AtomicInteger();
+
+        Report report = EndpointLoad.run("GenerationScheduler.submit", requests, clients, i -> {
+            String prompt = "request-" + i;
+            while (true) {
+                try {
+                    return scheduler.submit(prompt, (onToken, cancelled) -> ollamaClient.generate(prompt, cancelled))
+                            .result().join().contains("\"response\":\"ok\"");
+                } catch (GenerationQueueFullException e) {
+                    rejections.incrementAndGet();
+                    sleep(MODEL_LATENCY_MS / 2);
+                }
+            }
+        });
+        ThroughputReports.publish("generation scheduler, peak " + peak.get() + ", rejections " + rejections.get(),
+                "results-generation.json", List.of(report));
+
+        assertThat(report.errors()).isZero();
+        assertThat(served.get()).isEqualTo(requests);
+        assertThat(peak.get()).isLessThanOrEqualTo(MAX_CONCURRENT);
+        assertThat(rejections.get()).isPositive();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.testgenie.backend.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires a fixed number of requests at one endpoint from a pool of client threads and reports
+ * latency percentiles and throughput. A request counts as an error if it throws or returns false.
+ */
+public final class EndpointLoad {
+
+    @FunctionalInterface
+    public interface Request {
+        boolean call(int index) throws Exception;
+    }
+
+    public record Report(String endpoint, int requests, int errors, int concurrency,
+                         double p50Ms, double p99Ms, double maxMs, double throughputPerSecond) {}
+
+    private EndpointLoad() {
+    }
+
+    public static Report run(String endpoint, int requests, int concurrency, Request request) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int index = i;
+            clients.execute(() -> {
+                long begin = System.nanoTime();
+                try {
+                    if (!request.call(index)) errors.incrementAndGet();
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    latencies.add(System.nanoTime() - begin);
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Report(endpoint, requests, errors.get(), concurrency,
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                millis(sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1)),
+                requests / (elapsed / 1e9));
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,345 @@
+package com.testgenie.backend.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Just enough of the S3 REST API, path-style, for the storage layer to run against in tests:
+ * bucket list/create/head, object put/get/head/delete, ListObjectsV2 with paging and
+ * DeleteObjects. Objects are kept in memory; signatures are accepted without checking.
+ */
+public class InMemoryS3Server implements AutoCloseable {
+
+    private static final String XMLNS = "http://s3.amazonaws.com/doc/2006-03-01/";
+    private static final int MAX_KEYS = 1000;
+
+    private final HttpServer server;
+    private final long latencyMillis;
+    private final Map<String, ConcurrentSkipListMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+
+    private record StoredObject(byte[] content, String etag, String contentType, String contentEncoding, Instant lastModified) {}
+
+    public InMemoryS3Server() throws IOException {
+        this(Duration.ZERO);
+    }
+
+    // latency is added to every request, to stand in for the network hop to a real object store
+    public InMemoryS3Server(Duration latency) throws IOException {
+        latencyMillis = latency.toMillis();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-s3");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    public String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int objectCount(String bucket) {
+        Map<String, StoredObject> objects = buckets.get(bucket);
+        return objects == null ? 0 : objects.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) Thread.sleep(latencyMillis);
+
+            String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), StandardCharsets.UTF_8);
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            String trimmed = path.startsWith("/") ? path.substring(1) : path;
+            int slash = trimmed.indexOf('/');
+            String bucket = slash < 0 ? trimmed : trimmed.substring(0, slash);
+            String key = slash < 0 ? "" : trimmed.substring(slash + 1);
+
+            if (bucket.isEmpty()) {
+                listBuckets(exchange);
+            } else if (key.isEmpty()) {
+                switch (method) {
+                    case "PUT" -> {
+                        buckets.putIfAbsent(bucket, new ConcurrentSkipListMap<>());
+                        send(exchange, 200, null, null);
+                    }
+                    case "HEAD" -> send(exchange, buckets.containsKey(bucket) ? 200 : 404, null, null);
+                    case "GET" -> listObjects(exchange, bucket, query);
+                    case "POST" -> {
+                        if (query.containsKey("delete")) deleteObjects(exchange, bucket);
+                        else send(exchange, 501, null, null);
+                    }
+                    default -> send(exchange, 405, null, null);
+                }
+            } else {
+                ConcurrentSkipListMap<String, StoredObject> objects = buckets.get(bucket);
+                if (objects == null) {
+                    error(exchange, 404, "NoSuchBucket", bucket);
+                    return;
+                }
+                switch (method) {
+                    case "PUT" -> putObject(exchange, objects, key);
+                    case "GET", "HEAD" -> getObject(exchange, objects, key, method.equals("HEAD"));
+                    case "DELETE" -> {
+                        objects.remove(key);
+                        send(exchange, 204, null, null);
+                    }
+                    default -> send(exchange, 405, null, null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            error(exchange, 500, "InternalError", String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void listBuckets(HttpExchange exchange) throws IOException {
+        StringBuilder xml = new StringBuilder("<ListAllMyBucketsResult xmlns=\"" + XMLNS + "\"><Owner><ID>test</ID></Owner><Buckets>");
+        for (String name : new TreeSet<>(buckets.keySet())) {
+            xml.append("<Bucket><Name>").append(escape(name)).append("</Name><CreationDate>")
+                    .append(Instant.EPOCH).append("</CreationDate></Bucket>");
+        }
+        xml.append("</Buckets></ListAllMyBucketsResult>");
+        sendXml(exchange, 200, xml.toString());
+    }
+
+    private void listObjects(HttpExchange exchange, String bucket, Map<String, String> query) throws IOException {
+        ConcurrentSkipListMap<String, StoredObject> objects = buckets.get(bucket);
+        if (objects == null) {
+            error(exchange, 404, "NoSuchBucket", bucket);
+            return;
+        }
+
+        String prefix = query.getOrDefault("prefix", "");
+        int maxKeys = Math.min(MAX_KEYS, Integer.parseInt(query.getOrDefault("max-keys", String.valueOf(MAX_KEYS))));
+        String after = query.getOrDefault("continuation-token", query.getOrDefault("start-after", ""));
+        String delimiter = query.getOrDefault("delimiter", "");
+
+        // With a delimiter, keys below the next delimiter after the prefix roll up into one common prefix,
+        // which counts as one key towards max-keys and can be the continuation token
+        List<Map.Entry<String, StoredObject>> page = new ArrayList<>();
+        List<String> commonPrefixes = new ArrayList<>();
+        String last = null;
+        boolean truncated = false;
+        for (Map.Entry<String, StoredObject> entry : objects.tailMap(after.isEmpty() ? prefix : after, after.isEmpty()).entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                if (key.compareTo(prefix) > 0) break;
+                continue;
+            }
+            String common = null;
+            if (!delimiter.isEmpty()) {
+                int end = key.indexOf(delimiter, prefix.length());
+                if (end != -1) common = key.substring(0, end + delimiter.length());
+            }
+            if (common != null && (common.equals(after) || common.equals(last))) continue;
+            if (page.size() + commonPrefixes.size() == maxKeys) {
+                truncated = true;
+                break;
+            }
+            if (common != null) {
+                commonPrefixes.add(common);
+                last = common;
+            } else {
+                page.add(entry);
+                last = key;
+            }
+        }
+
+        StringBuilder xml = new StringBuilder("<ListBucketResult xmlns=\"" + XMLNS + "\">")
+                .append("<Name>").append(escape(bucket)).append("</Name>")
+                .append("<Prefix>").append(escape(prefix)).append("</Prefix>")
+                .append("<KeyCount>").append(page.size() + commonPrefixes.size()).append("</KeyCount>")
+                .append("<MaxKeys>").append(maxKeys).append("</MaxKeys>")
+                .append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (!delimiter.isEmpty()) {
+            xml.append("<Delimiter>").append(escape(delimiter)).append("</Delimiter>");
+        }
+        if (truncated) {
+            xml.append("<NextContinuationToken>").append(escape(last)).append("</NextContinuationToken>");
+        }
+        for (Map.Entry<String, StoredObject> entry : page) {
+            StoredObject object = entry.getValue();
+            xml.append("<Contents><Key>").append(escape(entry.getKey())).append("</Key>")
+                    .append("<LastModified>").append(object.lastModified()).append("</LastModified>")
+                    .append("<ETag>&quot;").append(object.etag()).append("&quot;</ETag>")
+                    .append("<Size>").append(object.content().length).append("</Size>")
+                    .append("<StorageClass>STANDARD</StorageClass></Contents>");
+        }
+        for (String common : commonPrefixes) {
+            xml.append("<CommonPrefixes><Prefix>").append(escape(common)).append("</Prefix></CommonPrefixes>");
+        }
+        xml.append("</ListBucketResult>");
+        sendXml(exchange, 200, xml.toString());
+    }
+
+    private void putObject(HttpExchange exchange, Map<String, StoredObject> objects, String key) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String contentSha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (contentSha != null && contentSha.startsWith("STREAMING-")) {
+            body = decodeAwsChunked(body);
+        }
+
+        StoredObject object = new StoredObject(body, md5Hex(body),
+                exchange.getRequestHeaders().getFirst("Content-Type"),
+                storedEncoding(exchange.getRequestHeaders().getFirst("Content-Encoding")), Instant.now());
+        objects.put(key, object);
+
+        exchange.getResponseHeaders().add("ETag", "\"" + object.etag() + "\"");
+        send(exchange, 200, null, null);
+    }
+
+    private void getObject(HttpExchange exchange, Map<String, StoredObject> objects, String key, boolean head) throws IOException {
+        StoredObject object = objects.get(key);
+        if (object == null) {
+            if (head) send(exchange, 404, null, null);
+            else error(exchange, 404, "NoSuchKey", key);
+            return;
+        }
+
+        exchange.getResponseHeaders().add("ETag", "\"" + object.etag() + "\"");
+        exchange.getResponseHeaders().add("Last-Modified",
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(object.lastModified().atZone(ZoneOffset.UTC)));
+        if (object.contentEncoding() != null) {
+            exchange.getResponseHeaders().add("Content-Encoding", object.contentEncoding());
+        }
+        if (head) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.content().length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        send(exchange, 200, object.content(), object.contentType() == null ? "application/octet-stream" : object.contentType());
+    }
+
+    private void deleteObjects(HttpExchange exchange, String bucket) throws IOException {
+        Map<String, StoredObject> objects = buckets.get(bucket);
+        StringBuilder xml = new StringBuilder("<DeleteResult xmlns=\"" + XMLNS + "\">");
+        try {
+            var factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(false);
+            Document document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(exchange.getRequestBody().readAllBytes()));
+            NodeList keys = document.getElementsByTagName("Key");
+            for (int i = 0; i < keys.getLength(); i++) {
+                String key = keys.item(i).getTextContent();
+                if (objects != null) objects.remove(key);
+                xml.append("<Deleted><Key>").append(escape(key)).append("</Key></Deleted>");
+            }
+        } catch (Exception e) {
+            error(exchange, 400, "MalformedXML", e.getMessage());
+            return;
+        }
+        xml.append("</DeleteResult>");
+        sendXml(exchange, 200, xml.toString());
+    }
+
+    // Like S3: the transfer coding "aws-chunked" is not part of the object's stored Content-Encoding
+    private static String storedEncoding(String header) {
+        if (header == null) return null;
+        String stored = Arrays.stream(header.split(","))
+                .map(String::trim)
+                .filter(coding -> !coding.isEmpty() && !coding.equalsIgnoreCase("aws-chunked"))
+                .collect(Collectors.joining(","));
+        return stored.isEmpty() ? null : stored;
+    }
+
+    // "STREAMING-AWS4-HMAC-SHA256-PAYLOAD" bodies: <hex size>;chunk-signature=...\r\n<data>\r\n ... 0;...\r\n\r\n
+    private static byte[] decodeAwsChunked(byte[] body) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(body.length);
+        int position = 0;
+        while (position < body.length) {
+            int lineEnd = indexOf(body, position);
+            if (lineEnd < 0) break;
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";", 2)[0].trim(), 16);
+            position = lineEnd + 2;
+            if (size == 0) break;
+            decoded.write(body, position, size);
+            position += size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOf(byte[] body, int from) {
+        for (int i = from; i < body.length - 1; i++) {
+            if (body[i] == '\r' && body[i + 1] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static void error(HttpExchange exchange, int status, String code, String message) throws IOException {
+        sendXml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + escape(message) + "</Message></Error>");
+    }
+
+    private static void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+        send(exchange, status, xml.getBytes(StandardCharsets.UTF_8), "application/xml");
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body, String contentType) throws IOException {
+        if (contentType != null) exchange.getResponseHeaders().add("Content-Type", contentType);
+        if (body == null || body.length == 0) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String md5Hex(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,38 @@
+package com.testgenie.backend.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.testgenie.backend.support.EndpointLoad.Report;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Where load runs put their numbers: a table on standard output (shown by the throughputTest task)
+ * and a JSON file per run under build/reports/throughput for comparing runs.
+ */
+public final class ThroughputReports {
+
+    public static final Path DIRECTORY = Path.of("build", "reports", "throughput");
+
+    private ThroughputReports() {
+    }
+
+    public static void publish(String title, String fileName, List<Report> reports) throws IOException {
+        print(title, reports);
+        Files.createDirectories(DIRECTORY);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(DIRECTORY.resolve(fileName).toFile(), reports);
+    }
+
+    private static void print(String title, List<Report> reports) {
+        System.out.printf("%n[%s]%n%-26s %8s %7s %6s %10s %10s %10s %12s%n", title,
+                "endpoint", "requests", "errors", "conc", "p50 ms", "p99 ms", "max ms", "req/s");
+        for (Report r : reports) {
+            System.out.printf("%-26s %8d %7d %6d %10.2f %10.2f %10.2f %12.1f%n",
+                    r.endpoint(), r.requests(), r.errors(), r.concurrency(), r.p50Ms(), r.p99Ms(), r.maxMs(), r.throughputPerSecond());
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.testgenie.backend.throughput;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.testgenie.backend.support.EndpointLoad;
+import com.testgenie.backend.support.EndpointLoad.Report;
+import com.testgenie.backend.support.InMemoryS3Server;
+import com.testgenie.backend.support.ThroughputReports;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the whole application against an in-process S3 stand-in and an in-memory H2 database,
+ * then drives concurrent uploads, tree fetches and content reads and reports p50/p99 latency and
+ * throughput per endpoint. Subclasses pick the threading mode; once both have run, the harness
+ * prints virtual-vs-platform ratios. Excluded from the default test run; use {@code ./gradlew throughputTest}.
+ * <p>
+ * Sizes can be changed with system properties: throughput.projects, throughput.files,
+ * throughput.concurrency, throughput.reads, throughput.s3-latency-ms and throughput.tomcat-threads.
+ */
+@Tag("throughput")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class AbstractThroughputHarness {
+
+    private static final int PROJECTS = Integer.getInteger("throughput.projects", 8);
+    private static final int FILES_PER_PROJECT = Integer.getInteger("throughput.files", 300);
+    private static final int CONCURRENCY = Integer.getInteger("throughput.concurrency", 64);
+    private static final int READS = Integer.getInteger("throughput.reads", 1000);
+    // Simulated round-trip to the object store, so blocking on storage actually costs a thread
+    private static final int S3_LATENCY_MS = Integer.getInteger("throughput.s3-latency-ms", 5);
+    // Below CONCURRENCY, so the platform-thread run is bounded by the servlet pool
+    private static final int TOMCAT_THREADS = Integer.getInteger("throughput.tomcat-threads", 32);
+
+    private static final Path REPORTS = ThroughputReports.DIRECTORY;
+    private static final Map<String, InMemoryS3Server> SERVERS = new ConcurrentHashMap<>();
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    protected abstract String mode();
+
+    // Each mode gets its own object store and database, so the runs don't see each other's uploads
+    static void registerProperties(DynamicPropertyRegistry registry, String mode, boolean virtualThreads) {
+        InMemoryS3Server s3 = SERVERS.computeIfAbsent(mode, m -> {
+            try {
+                return new InMemoryS3Server(Duration.ofMillis(S3_LATENCY_MS));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        registry.add("minio.endpoint", s3::endpoint);
+        registry.add("spring.threads.virtual.enabled", () -> String.valueOf(virtualThreads));
+        registry.add("server.tomcat.threads.max", () -> String.valueOf(TOMCAT_THREADS));
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:throughput-" + mode + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+        registry.add("spring.datasource.username", () -> "sa");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.H2Dialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        // Fresh disk cache per run, so one mode doesn't read from files the other (or an earlier run) cached
+        String cacheDir = System.getProperty("java.io.tmpdir") + "/throughput-cache-" + mode + "-" + System.nanoTime();
+        registry.add("storage.cache-dir", () -> cacheDir);
+        // No model server here: keep uploads from queueing embedding work that can only fail
+        registry.add("generation.semantic-top-k", () -> "0");
+    }
+
+    @AfterAll
+    void stopS3() {
+        InMemoryS3Server s3 = SERVERS.remove(mode());
+        if (s3 != null) s3.close();
+    }
+
+    @Test
+    void measuresIngestionAndBrowsingThroughput() throws Exception {
+        awaitReadiness();
+
+        List<byte[]> archives = new ArrayList<>();
+        for (int p = 0; p < PROJECTS; p++) {
+            archives.add(archive(projectName(p), FILES_PER_PROJECT));
+        }
+
+        Report uploads = EndpointLoad.run("POST /api/upload", PROJECTS, Math.min(PROJECTS, CONCURRENCY),
+                i -> upload(projectName(i) + ".zip", archives.get(i)) == 200);
+
+        Report trees = EndpointLoad.run("GET /api/files/tree", READS, CONCURRENCY,
+                i -> get("/api/files/tree?project=" + encode(projectName(i % PROJECTS))) == 200);
+
+        Random random = new Random(42);
+        List<String> contentPaths = new ArrayList<>();
+        for (int i = 0; i < READS; i++) {
+            int project = random.nextInt(PROJECTS);
+            contentPaths.add(projectName(project) + "/" + filePath(random.nextInt(FILES_PER_PROJECT)));
+        }
+        Report contents = EndpointLoad.run("GET /api/files/content", READS, CONCURRENCY, i -> {
+            String path = contentPaths.get(i);
+            String project = path.substring(0, path.indexOf('/'));
+            return get("/api/files/content?project=" + encode(project) + "&path=" + encode(path)) == 200;
+        });
+
+        List<Report> reports = List.of(uploads, trees, contents);
+        ThroughputReports.publish(mode() + " threads", "results-" + mode() + ".json", reports);
+        compareIfBothModesRan();
+
+        reports.forEach(report -> assertThat(report.errors()).as(report.endpoint() + " errors").isZero());
+    }
+
+    private int upload(String fileName, byte[] archive) throws IOException, InterruptedException {
+        String boundary = "----throughput" + System.nanoTime();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(archive.length + 512);
+        body.write(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"files\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/zip\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(archive);
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // The storage bucket is set up in the background after startup; uploads need it
+    private void awaitReadiness() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (get("/actuator/health/readiness") != 200) {
+            assertThat(System.nanoTime()).as("readiness within 30s").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private int get(String pathAndQuery) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(pathAndQuery)).GET().build();
+        return http.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://localhost:" + port + pathAndQuery);
+    }
+
+    // Whichever mode finishes second lines its results up against the other's
+    private static void compareIfBothModesRan() throws IOException {
+        Path platformFile = REPORTS.resolve("results-platform.json");
+        Path virtualFile = REPORTS.resolve("results-virtual.json");
+        if (!Files.exists(platformFile) || !Files.exists(virtualFile)) return;
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<Report> platform = mapper.readValue(platformFile.toFile(), new TypeReference<>() {});
+        List<Report> virtual = mapper.readValue(virtualFile.toFile(), new TypeReference<>() {});
+
+        List<Map<String, Object>> comparison = new ArrayList<>();
+        System.out.printf("%n[virtual vs platform]%n%-26s %14s %14s %16s%n", "endpoint", "p50 ratio", "p99 ratio", "req/s ratio");
+        for (Report p : platform) {
+            virtual.stream().filter(v -> v.endpoint().equals(p.endpoint())).findFirst().ifPresent(v -> {
+                double p50 = ratio(v.p50Ms(), p.p50Ms());
+                double p99 = ratio(v.p99Ms(), p.p99Ms());
+                double throughput = ratio(v.throughputPerSecond(), p.throughputPerSecond());
+                System.out.printf("%-26s %14.2f %14.2f %16.2f%n", p.endpoint(), p50, p99, throughput);
+                comparison.add(Map.of("endpoint", p.endpoint(), "p50Ratio", p50, "p99Ratio", p99, "throughputRatio", throughput));
+            });
+        }
+        mapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORTS.resolve("comparison.json").toFile(), comparison);
+    }
+
+    private static double ratio(double value, double baseline) {
+        return baseline == 0 ? 0 : Math.round(value / baseline * 100) / 100.0;
+    }
+
+    private static String projectName(int index) {
+        return "throughput-" + index;
+    }
+
+    private static String filePath(int index) {
+        return index % 3 == 0
+                ? "src/test/resources/features/area" + (index % 10) + "/flow" + index + ".feature"
+                : "src/test/java/com/example/steps" + (index % 10) + "/Steps" + index + ".java";
+    }
+
+    // Wrapped in a single root folder, as most exports are; the upload flattens it away
+    private static byte[] archive(String projectName, int files) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Random random = new Random(projectName.hashCode());
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < files; i++) {
+                zip.putNextEntry(new ZipEntry(projectName + "/" + filePath(i)));
+                StringBuilder content = new StringBuilder("// " + projectName + " file " + i + "\n");
+                for (int line = 0, lines = 20 + random.nextInt(60); line < lines; line++) {
+                    content.append("    When the user opens page ").append(random.nextInt(1000)).append('\n');
+                }
+                zip.write(content.toString().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,17 @@
+package com.testgenie.backend.throughput;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+class VirtualThreadThroughputTest extends AbstractThroughputHarness {
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registerProperties(registry, "virtual", true);
+    }
+
+    @Override
+    protected String mode() {
+        return "virtual";
+    }
+}
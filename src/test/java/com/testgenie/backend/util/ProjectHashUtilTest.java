@@ -0,0 +1,45 @@
+package com.testgenie.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectHashUtilTest {
+
+    // SHA-256 of no input, what a tree with every file skipped hashes to
+    private static final String EMPTY = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private final ProjectHashUtil hashUtil = new ProjectHashUtil();
+
+    @Test
+    void skipRulesIgnoreFoldersAboveTheProjectRoot(@TempDir Path scratch) throws Exception {
+        // Uploads extract under a job directory named after the project
+        Path root = Files.createDirectories(scratch.resolve("job-1-1-upload-build-tools/extract-1"));
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/Main.java"), "class Main {}");
+
+        String hash = hashUtil.computeHash(root);
+        assertThat(hash).isNotEqualTo(EMPTY);
+
+        Files.writeString(root.resolve("src/Main.java"), "class Main { }");
+        assertThat(hashUtil.computeHash(root)).isNotEqualTo(hash);
+    }
+
+    @Test
+    void skipsBuildOutputInsideTheProject(@TempDir Path root) throws Exception {
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/Main.java"), "class Main {}");
+        String hash = hashUtil.computeHash(root);
+
+        Files.createDirectories(root.resolve("build/classes"));
+        Files.writeString(root.resolve("build/classes/Main.class"), "compiled");
+        Files.createDirectories(root.resolve("node_modules/lib"));
+        Files.writeString(root.resolve("node_modules/lib/index.js"), "module.exports = {}");
+
+        assertThat(hashUtil.computeHash(root)).isEqualTo(hash);
+    }
+}